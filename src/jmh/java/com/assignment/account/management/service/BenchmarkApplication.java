@@ -0,0 +1,43 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.AccountTransactionManagementApplication;
+import com.assignment.account.management.dto.AccountCreateRequest;
+import com.assignment.account.management.dto.TransactionRequest;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+
+// Boots the service against its own in-memory H2 database so benchmarks run offline
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String database, String... properties) {
+        return new SpringApplicationBuilder(AccountTransactionManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("spring.datasource.url=jdbc:h2:mem:" + database
+                                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                        "logging.level.root=WARN",
+                        "spring.main.banner-mode=off")
+                .properties(properties)
+                .run();
+    }
+
+    static Long createAccount(AccountManagementService service, BigDecimal initialBalance) {
+        AccountCreateRequest request = new AccountCreateRequest();
+        request.setAccountHolderName("Benchmark");
+        request.setInitialBalance(initialBalance);
+        return service.createAccount(request).getAccountId();
+    }
+
+    static TransactionRequest transaction(String type, BigDecimal amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setType(type);
+        request.setAmount(amount);
+        return request;
+    }
+}
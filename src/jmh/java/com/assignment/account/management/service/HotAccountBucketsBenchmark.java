@@ -0,0 +1,77 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.TransactionRequest;
+import com.assignment.account.management.dto.TransactionResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Postings from 16 threads to one merchant-style account, mostly credits, for a range of balance
+ * bucket counts (0 keeps every posting on the account row). Buckets pay off where a posting holds
+ * its row lock across network round trips and a durable commit, so run it against MySQL:
+ * -Djmh.args="HotAccountBuckets -jvmArgsAppend -Dspring.datasource.url=jdbc:mysql://..."
+ * On the default in-memory H2 commits cost next to nothing and the numbers mostly show the extra
+ * balance read each bucketed credit makes; H2's MySQL mode also occasionally hands two concurrent
+ * inserts the same outbox event id, which fails that posting.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HotAccountBucketsBenchmark {
+
+    private static final TransactionRequest CREDIT = BenchmarkApplication.transaction("in", new BigDecimal("10.00"));
+
+    private static final TransactionRequest DEBIT = BenchmarkApplication.transaction("out", new BigDecimal("1.00"));
+
+    @Param({"0", "1", "4", "16"})
+    public int buckets;
+
+    @Param({"100", "99"})
+    public int creditPercent;
+
+    private ConfigurableApplicationContext context;
+
+    private AccountManagementService service;
+
+    private Long accountId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("hot-account-buckets");
+        service = context.getBean(AccountManagementService.class);
+        accountId = BenchmarkApplication.createAccount(service, new BigDecimal("1000000"));
+        service.setBalanceBuckets(accountId, buckets);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public TransactionResponse hotAccount() {
+        TransactionRequest request = ThreadLocalRandom.current().nextInt(100) < creditPercent ? CREDIT : DEBIT;
+        return service.processTransaction(accountId, request);
+    }
+}
@@ -0,0 +1,110 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.entity.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The arithmetic of the posting rules in {@link PostingOutcome} over a run of credits and debits,
+ * once with BigDecimal as before and once with Money, plus the cost of converting a request's
+ * amount to Money at the boundary. Run with -prof gc to compare allocation:
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="MoneyArithmetic -f 1 -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyArithmeticBenchmark {
+
+    private static final int POSTINGS = 1024;
+
+    private static final BigDecimal LIMIT = new BigDecimal("10000.00");
+
+    private static final Money MONEY_LIMIT = Money.of(LIMIT);
+
+    private String[] types;
+
+    private BigDecimal[] amounts;
+
+    private Money[] moneyAmounts;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        types = new String[POSTINGS];
+        amounts = new BigDecimal[POSTINGS];
+        moneyAmounts = new Money[POSTINGS];
+        for (int i = 0; i < POSTINGS; i++) {
+            types[i] = random.nextBoolean() ? "in" : "out";
+            amounts[i] = BigDecimal.valueOf(random.nextLong(1, 100_000), 2);
+            moneyAmounts[i] = Money.of(amounts[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSTINGS)
+    public BigDecimal bigDecimal() {
+        BigDecimal balance = new BigDecimal("1000000.00");
+        BigDecimal withdrawnToday = BigDecimal.ZERO;
+        int flagged = 0;
+        for (int i = 0; i < POSTINGS; i++) {
+            BigDecimal amount = amounts[i];
+            if ("in".equalsIgnoreCase(types[i])) {
+                balance = balance.add(amount);
+            } else if (balance.compareTo(amount) >= 0) {
+                withdrawnToday = withdrawnToday.add(amount);
+                if (withdrawnToday.compareTo(LIMIT) > 0) {
+                    flagged++;
+                }
+                balance = balance.subtract(amount);
+            }
+        }
+        return balance.add(BigDecimal.valueOf(flagged));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSTINGS)
+    public Money money() {
+        Money balance = Money.ofMinor(100_000_000);
+        Money withdrawnToday = Money.ZERO;
+        int flagged = 0;
+        for (int i = 0; i < POSTINGS; i++) {
+            Money amount = moneyAmounts[i];
+            if ("in".equalsIgnoreCase(types[i])) {
+                balance = balance.plus(amount);
+            } else if (!balance.isLessThan(amount)) {
+                withdrawnToday = withdrawnToday.plus(amount);
+                if (withdrawnToday.isGreaterThan(MONEY_LIMIT)) {
+                    flagged++;
+                }
+                balance = balance.minus(amount);
+            }
+        }
+        return balance.plus(Money.ofMinor(flagged));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSTINGS)
+    public long toMoney() {
+        long total = 0;
+        for (BigDecimal amount : amounts) {
+            total += Money.of(amount).minorUnits();
+        }
+        return total;
+    }
+}
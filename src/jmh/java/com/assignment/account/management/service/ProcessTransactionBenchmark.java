@@ -0,0 +1,113 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.TransactionRequest;
+import com.assignment.account.management.dto.TransactionResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProcessTransactionBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+
+    private static final TransactionRequest CREDIT = BenchmarkApplication.transaction("in", AMOUNT);
+
+    private static final TransactionRequest DEBIT = BenchmarkApplication.transaction("out", AMOUNT);
+
+    @State(Scope.Benchmark)
+    public static class Ledger {
+
+        @Param({"50"})
+        public int creditPercent;
+
+        @Param({"10000"})
+        public int coldAccounts;
+
+        ConfigurableApplicationContext context;
+        AccountManagementService service;
+        Long hotAccountId;
+        Long[] coldAccountIds;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = BenchmarkApplication.start("process-transaction");
+            service = context.getBean(AccountManagementService.class);
+            // large enough that debits never run out of funds during a trial
+            BigDecimal balance = new BigDecimal("1000000000");
+            hotAccountId = BenchmarkApplication.createAccount(service, balance);
+            coldAccountIds = new Long[coldAccounts];
+            for (int i = 0; i < coldAccounts; i++) {
+                coldAccountIds[i] = BenchmarkApplication.createAccount(service, balance);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+
+        TransactionRequest next() {
+            return ThreadLocalRandom.current().nextInt(100) < creditPercent ? CREDIT : DEBIT;
+        }
+
+        Long randomColdAccount() {
+            return coldAccountIds[ThreadLocalRandom.current().nextInt(coldAccountIds.length)];
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class OwnAccount {
+
+        Long accountId;
+
+        @Setup(Level.Trial)
+        public void setUp(Ledger ledger) {
+            accountId = BenchmarkApplication.createAccount(ledger.service, new BigDecimal("1000000000"));
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TransactionResponse singleThreadOwnAccount(Ledger ledger, OwnAccount own) {
+        return ledger.service.processTransaction(own.accountId, ledger.next());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TransactionResponse uncontendedOwnAccounts(Ledger ledger, OwnAccount own) {
+        return ledger.service.processTransaction(own.accountId, ledger.next());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TransactionResponse hotAccountContention(Ledger ledger) {
+        return ledger.service.processTransaction(ledger.hotAccountId, ledger.next());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TransactionResponse coldAccounts(Ledger ledger) {
+        return ledger.service.processTransaction(ledger.randomColdAccount(), ledger.next());
+    }
+}
@@ -0,0 +1,101 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.BatchTransactionItem;
+import com.assignment.account.management.dto.BatchTransactionRequest;
+import com.assignment.account.management.dto.TransactionDetails;
+import com.assignment.account.management.repository.TransactionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares loading a history page as managed entities and mapping them with reading it straight
+ * into TransactionDetails. Run with the GC profiler and compare gc.alloc.rate.norm per operation:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="TransactionHistoryAllocation -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionHistoryAllocationBenchmark {
+
+    @Param({"10", "100"})
+    public int size;
+
+    private ConfigurableApplicationContext context;
+
+    private AccountManagementService service;
+
+    private TransactionRepository transactionRepository;
+
+    private TransactionTemplate readOnly;
+
+    private Long accountId;
+
+    private Pageable pageable;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("transaction-history-allocation");
+        service = context.getBean(AccountManagementService.class);
+        transactionRepository = context.getBean(TransactionRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        accountId = BenchmarkApplication.createAccount(service, new BigDecimal("1000000000"));
+        pageable = PageRequest.of(0, size, Sort.by("transactionId").descending());
+
+        List<BatchTransactionItem> items = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            BatchTransactionItem item = new BatchTransactionItem();
+            item.setAccountId(accountId);
+            item.setType(i % 2 == 0 ? "in" : "out");
+            item.setAmount(BigDecimal.ONE);
+            items.add(item);
+        }
+        BatchTransactionRequest request = new BatchTransactionRequest();
+        request.setTransactions(items);
+        service.processTransactions(request);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // The read path as it was: managed entities, dirty-checked at commit, then copied into DTOs
+    @Benchmark
+    public List<TransactionDetails> entities() {
+        return readOnly.execute(status -> transactionRepository.findByAccountId(accountId, pageable).getContent()
+                .stream().map(service::convertEntityToDto).toList());
+    }
+
+    @Benchmark
+    public List<TransactionDetails> projection() {
+        return readOnly.execute(status -> transactionRepository.findDetailsByAccountId(accountId, pageable).getContent());
+    }
+}
@@ -0,0 +1,108 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.BatchTransactionItem;
+import com.assignment.account.management.dto.BatchTransactionRequest;
+import com.assignment.account.management.dto.TransactionHistoryResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionHistoryBenchmark {
+
+    // One value per branch in getTransactionHistory
+    @Param({"none", "type", "dateRange", "typeAndDateRange"})
+    public String filter;
+
+    @Param({"0", "500"})
+    public int page;
+
+    @Param({"20000"})
+    public int transactions;
+
+    private ConfigurableApplicationContext context;
+
+    private AccountManagementService service;
+
+    private Long accountId;
+
+    private String type;
+
+    private LocalDateTime startDate;
+
+    private String deepCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("transaction-history");
+        service = context.getBean(AccountManagementService.class);
+        accountId = BenchmarkApplication.createAccount(service, new BigDecimal("1000000000"));
+
+        List<BatchTransactionItem> items = new ArrayList<>();
+        for (int i = 0; i < transactions; i++) {
+            BatchTransactionItem item = new BatchTransactionItem();
+            item.setAccountId(accountId);
+            item.setType(i % 2 == 0 ? "in" : "out");
+            item.setAmount(BigDecimal.ONE);
+            items.add(item);
+            if (items.size() == 5000) {
+                post(items);
+            }
+        }
+        post(items);
+
+        type = filter.startsWith("type") ? "out" : null;
+        startDate = filter.endsWith("ateRange") ? LocalDateTime.now().minusDays(1) : null;
+
+        // walk the cursor chain once so the cursor benchmark starts at the same depth as the offset one
+        String cursor = null;
+        for (int i = 0; i < page; i++) {
+            cursor = service.getTransactionHistoryByCursor(accountId, type, startDate, null, cursor, 10).getNextCursor();
+        }
+        deepCursor = cursor;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionHistoryResponse offsetPage() {
+        return service.getTransactionHistory(accountId, type, startDate, null, page, 10);
+    }
+
+    @Benchmark
+    public TransactionHistoryResponse cursorPage() {
+        return service.getTransactionHistoryByCursor(accountId, type, startDate, null, deepCursor, 10);
+    }
+
+    private void post(List<BatchTransactionItem> items) {
+        BatchTransactionRequest request = new BatchTransactionRequest();
+        request.setTransactions(new ArrayList<>(items));
+        service.processTransactions(request);
+        items.clear();
+    }
+}
@@ -0,0 +1,50 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.TransactionDetails;
+import com.assignment.account.management.entity.Money;
+import com.assignment.account.management.entity.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TransactionMappingBenchmark {
+
+    private AccountManagementService service;
+
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() {
+        // the mapping touches no collaborators, so no Spring context is needed
+        service = new AccountManagementService(null, null, null, null, null, null, null, null, null, null, BigDecimal.ZERO, 1);
+        transaction = new Transaction();
+        transaction.setTransactionId(42L);
+        transaction.setAccountId(7L);
+        transaction.setAmount(Money.of(new BigDecimal("125.50")));
+        transaction.setType("out");
+        transaction.setTimestamp(LocalDateTime.now());
+        transaction.setBalanceAfterTransaction(Money.of(new BigDecimal("874.50")));
+    }
+
+    @Benchmark
+    public TransactionDetails convertEntityToDto() {
+        return service.convertEntityToDto(transaction);
+    }
+}
@@ -0,0 +1,78 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission checks from 8 threads: postings admitted across a million accounts, and postings
+ * to an account whose bucket is empty, which are turned away. Run with -prof gc to check that
+ * neither path allocates:
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="TransactionRateLimiter -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionRateLimiterBenchmark {
+
+    private static final long ACCOUNTS = 1_000_000;
+
+    private static final Long EMPTY_ACCOUNT = 0L;
+
+    private Long[] accountIds;
+
+    private TransactionRateLimiter generous;
+
+    private TransactionRateLimiter exhausted;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TransactionMetrics metrics = new TransactionMetrics(meterRegistry);
+        accountIds = new Long[1 << 16];
+        for (int i = 0; i < accountIds.length; i++) {
+            accountIds[i] = ThreadLocalRandom.current().nextLong(1, ACCOUNTS);
+        }
+        generous = new TransactionRateLimiter(metrics, meterRegistry, 1e9, 1_000_000, 1 << 20, 1_000, System::nanoTime);
+        // A stopped clock never refills the bucket emptied here
+        exhausted = new TransactionRateLimiter(metrics, meterRegistry, 1, 1, 1 << 20, 1_000, () -> 0L);
+        exhausted.acquire(EMPTY_ACCOUNT);
+        exhausted.release();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void admitted() {
+        Long accountId = accountIds[ThreadLocalRandom.current().nextInt(accountIds.length)];
+        generous.acquire(accountId);
+        generous.release();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean rejected() {
+        try {
+            exhausted.acquire(EMPTY_ACCOUNT);
+            exhausted.release();
+            return true;
+        } catch (TooManyRequestsException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.assignment.account.management.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String ACCOUNTS_CACHE = "accounts";
+
+    public static final String HISTORY_PAGES_CACHE = "historyPages";
+
+}
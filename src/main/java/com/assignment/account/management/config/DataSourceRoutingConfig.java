@@ -0,0 +1,150 @@
+package com.assignment.account.management.config;
+
+import com.assignment.account.management.service.AccountShards;
+import com.assignment.account.management.service.ReplicaRouting;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Datasources for account sharding ({@link AccountShards}) and replica reads ({@link ReplicaRouting}).
+ * Every shard, and every shard's replica, gets its own pool. The primary datasource defers taking
+ * a connection until the first statement, by which time the caller has picked the shard and the
+ * transaction has declared whether it is read-only; read-only ones go through the replica router.
+ */
+@Configuration
+@ConditionalOnExpression("${account.sharding.enabled} or ${datasource.replica.enabled}")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    ShardPools shardPools(
+            DataSourceProperties properties,
+            AccountShards accountShards,
+            @Value("${account.sharding.urls}") List<String> shardUrls,
+            @Value("${datasource.replica.enabled}") boolean replicasEnabled,
+            @Value("${datasource.replica.urls}") List<String> replicaUrls,
+            @Value("${spring.datasource.hikari.maximum-pool-size}") int poolSize) {
+        List<String> primaryUrls = new ArrayList<>();
+        primaryUrls.add(properties.determineUrl());
+        if (accountShards.count() > 1) {
+            primaryUrls.addAll(shardUrls);
+        }
+        if (replicasEnabled && replicaUrls.size() != primaryUrls.size()) {
+            throw new IllegalStateException("datasource.replica.urls needs one replica per shard, " + primaryUrls.size() + " in all");
+        }
+
+        List<HikariDataSource> primaries = new ArrayList<>();
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int shard = 0; shard < primaryUrls.size(); shard++) {
+            primaries.add(pool(properties, "shard-" + shard, primaryUrls.get(shard), poolSize));
+            if (replicasEnabled) {
+                HikariDataSource replica = pool(properties, "replica-" + shard, replicaUrls.get(shard), poolSize);
+                replica.setReadOnly(true);
+                replicas.add(replica);
+            }
+        }
+        return new ShardPools(primaries, replicas);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(ShardPools shardPools, ReplicaRouting replicaRouting) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(shardPools, null));
+        if (!shardPools.replicas().isEmpty()) {
+            dataSource.setReadOnlyDataSource(new ShardRoutingDataSource(shardPools, replicaRouting));
+        }
+        return dataSource;
+    }
+
+    // Shard 0 is migrated through the primary datasource as usual, the others with the same configuration.
+    // Replicas get their schema from replication.
+    @Bean
+    FlywayMigrationStrategy shardMigrationStrategy(ShardPools shardPools, AccountShards accountShards) {
+        return flyway -> {
+            flyway.migrate();
+            for (int shard = 1; shard < shardPools.primaries().size(); shard++) {
+                DataSource dataSource = shardPools.primaries().get(shard);
+                Flyway.configure().configuration(flyway.getConfiguration()).dataSource(dataSource).load().migrate();
+                seedIdRange(new JdbcTemplate(dataSource), accountShards.rangeStart(shard));
+            }
+        };
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, String name, String url, int poolSize) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(poolSize);
+        return dataSource;
+    }
+
+    // Moves a shard's identity columns and table generators to the start of its range; a no-op once it has ids there
+    private static void seedIdRange(JdbcTemplate jdbcTemplate, long rangeStart) {
+        seedIdentity(jdbcTemplate, "account", "account_id", rangeStart);
+        long seed = IdGeneratorBlocks.seedAbove(rangeStart);
+        jdbcTemplate.update("UPDATE id_generator SET next_val = ? WHERE next_val < ?", seed, seed);
+    }
+
+    private static void seedIdentity(JdbcTemplate jdbcTemplate, String table, String column, long rangeStart) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(" + column + "), 0) FROM " + table, Long.class);
+        if (maxId < rangeStart) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " AUTO_INCREMENT = " + rangeStart);
+        }
+    }
+
+    // Pools indexed by shard; replicas is empty unless replica reads are on
+    public record ShardPools(List<HikariDataSource> primaries, List<HikariDataSource> replicas) implements AutoCloseable {
+
+        @Override
+        public void close() {
+            primaries.forEach(HikariDataSource::close);
+            replicas.forEach(HikariDataSource::close);
+        }
+    }
+
+    static class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+        // Null for the read-write side, which always uses the primaries
+        private final ReplicaRouting replicaRouting;
+
+        ShardRoutingDataSource(ShardPools shardPools, ReplicaRouting replicaRouting) {
+            this.replicaRouting = replicaRouting;
+            Map<Object, Object> targets = new HashMap<>();
+            for (int shard = 0; shard < shardPools.primaries().size(); shard++) {
+                targets.put(new Route(shard, false), shardPools.primaries().get(shard));
+                if (replicaRouting != null) {
+                    targets.put(new Route(shard, true), shardPools.replicas().get(shard));
+                }
+            }
+            setTargetDataSources(targets);
+            setDefaultTargetDataSource(shardPools.primaries().get(0));
+            afterPropertiesSet();
+        }
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            int shard = AccountShards.current();
+            return new Route(shard, replicaRouting != null && replicaRouting.useReplica(shard));
+        }
+    }
+
+    record Route(int shard, boolean replica) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.assignment.account.management.config;
+
+/**
+ * Block arithmetic of the id_generator table behind the pooled table generators, for code that
+ * takes or seeds blocks without going through Hibernate. Hibernate 6 stores the last id it
+ * handed out, so a node that reads next_val = n and writes n + {@link #ALLOCATION_SIZE} owns the
+ * ids n - 48 to n + 1. The note in the V2 migration puts the block one lower, at
+ * (next_val - 49 .. next_val]; its seed is clear of the existing ids either way.
+ */
+public final class IdGeneratorBlocks {
+
+    public static final int ALLOCATION_SIZE = 50;
+
+    private IdGeneratorBlocks() {
+    }
+
+    public static long firstId(long nextVal) {
+        return lastId(nextVal) - ALLOCATION_SIZE + 1;
+    }
+
+    public static long lastId(long nextVal) {
+        return nextVal + 1;
+    }
+
+    // A next_val whose first block starts above the given id
+    public static long seedAbove(long id) {
+        return id + ALLOCATION_SIZE;
+    }
+}
@@ -0,0 +1,43 @@
+package com.assignment.account.management.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+/**
+ * The JDBC pool for the reactive profile. Spring Boot drops its own datasource once an R2DBC
+ * connection factory exists, but Flyway, the scheduled jobs and the servlet-only endpoints'
+ * services still run on JDBC, so it is declared here from the same spring.datasource settings.
+ * Its JPA transaction manager stays the default for {@code @Transactional}; the reactive service
+ * runs its postings through the R2DBC one.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ConditionalOnExpression("not (${account.sharding.enabled} or ${datasource.replica.enabled})")
+public class ReactiveDataSourceConfig {
+
+    @Bean
+    @Primary
+    HikariDataSource dataSource(
+            DataSourceProperties properties,
+            @Value("${spring.datasource.hikari.maximum-pool-size}") int poolSize) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setMaximumPoolSize(poolSize);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+}
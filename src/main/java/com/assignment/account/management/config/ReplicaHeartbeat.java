@@ -0,0 +1,48 @@
+package com.assignment.account.management.config;
+
+import com.assignment.account.management.service.ReplicaRouting;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Measures each replica's lag by stamping the time on its primary and reading back the last
+ * stamp the replica has applied. A replica that cannot be read is treated as unusable.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+public class ReplicaHeartbeat {
+
+    private final DataSourceRoutingConfig.ShardPools shardPools;
+
+    private final ReplicaRouting replicaRouting;
+
+    public ReplicaHeartbeat(DataSourceRoutingConfig.ShardPools shardPools, ReplicaRouting replicaRouting) {
+        this.shardPools = shardPools;
+        this.replicaRouting = replicaRouting;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.heartbeat.interval}")
+    public void beat() {
+        for (int shard = 0; shard < shardPools.replicas().size(); shard++) {
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            try {
+                new JdbcTemplate(shardPools.primaries().get(shard)).update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", now);
+                LocalDateTime seen = new JdbcTemplate(shardPools.replicas().get(shard))
+                        .queryForObject("SELECT beat_at FROM replica_heartbeat WHERE id = 1", LocalDateTime.class);
+                replicaRouting.lagMeasured(shard, Duration.between(seen, now));
+            } catch (DataAccessException ex) {
+                log.warn("Replica heartbeat failed for shard {}, reading from its primary", shard, ex);
+                replicaRouting.lagMeasured(shard, ChronoUnit.FOREVER.getDuration());
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.assignment.account.management.config;
+
+import com.assignment.account.management.repository.AccountRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+
+/**
+ * Splits the repository package between the two Spring Data stores on the classpath, so neither
+ * has to guess which interfaces are its own: JPA takes the JpaRepository interfaces, R2DBC the
+ * R2dbcRepository ones, and only on the reactive stack.
+ */
+@Configuration
+@EnableJpaRepositories(basePackageClasses = AccountRepository.class,
+        includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = JpaRepository.class))
+public class RepositoryConfig {
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    @EnableR2dbcRepositories(basePackageClasses = AccountRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = R2dbcRepository.class))
+    static class ReactiveRepositories {
+    }
+}
@@ -1,7 +1,16 @@
 package com.assignment.account.management.controller;
 
 import com.assignment.account.management.dto.*;
+import com.assignment.account.management.service.AccountImportService;
 import com.assignment.account.management.service.AccountManagementService;
+import com.assignment.account.management.service.BalanceSnapshotService;
+import com.assignment.account.management.service.EncodedResponseCache;
+import com.assignment.account.management.service.EncodedResponseCache.EncodedResponse;
+import com.assignment.account.management.service.FraudReviewService;
+import com.assignment.account.management.service.OutboxStreamSink;
+import com.assignment.account.management.service.TransactionExportService;
+import com.assignment.account.management.service.TransactionRateLimiter;
+import com.assignment.account.management.service.TransactionSummaryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -10,14 +19,24 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.logging.Logger;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/v1/accounts")
 @Tag(name = "Account Management", description = "APIs for managing user accounts and transactions")
 @Slf4j
@@ -25,8 +44,40 @@ public class AccountManagementController {
 
     private final AccountManagementService accountManagementService;
 
-    public AccountManagementController(AccountManagementService accountManagementService) {
+    private final TransactionExportService transactionExportService;
+
+    private final BalanceSnapshotService balanceSnapshotService;
+
+    private final OutboxStreamSink outboxStreamSink;
+
+    private final TransactionSummaryService transactionSummaryService;
+
+    private final TransactionRateLimiter transactionRateLimiter;
+
+    private final FraudReviewService fraudReviewService;
+
+    private final AccountImportService accountImportService;
+
+    private final EncodedResponseCache encodedResponseCache;
+
+    public AccountManagementController(AccountManagementService accountManagementService,
+                                       TransactionExportService transactionExportService,
+                                       BalanceSnapshotService balanceSnapshotService,
+                                       OutboxStreamSink outboxStreamSink,
+                                       TransactionSummaryService transactionSummaryService,
+                                       TransactionRateLimiter transactionRateLimiter,
+                                       FraudReviewService fraudReviewService,
+                                       AccountImportService accountImportService,
+                                       EncodedResponseCache encodedResponseCache) {
         this.accountManagementService = accountManagementService;
+        this.transactionExportService = transactionExportService;
+        this.balanceSnapshotService = balanceSnapshotService;
+        this.outboxStreamSink = outboxStreamSink;
+        this.transactionSummaryService = transactionSummaryService;
+        this.transactionRateLimiter = transactionRateLimiter;
+        this.fraudReviewService = fraudReviewService;
+        this.accountImportService = accountImportService;
+        this.encodedResponseCache = encodedResponseCache;
     }
 
     @PostMapping
@@ -43,10 +94,37 @@ public class AccountManagementController {
         return new ResponseEntity<>(account, HttpStatus.CREATED);
     }
 
+    @PostMapping("/import")
+    @Operation(
+            summary = "Import accounts in bulk",
+            description = "Streams an NDJSON or CSV file of accounts (accountHolderName, initialBalance), validating each row like account "
+                    + "creation and inserting valid rows in batches. CSV files start with a header naming the columns. The response streams "
+                    + "NDJSON as the import runs: a failure record per rejected line and a progress record per committed batch, ending with "
+                    + "a progress record marked complete.",
+            tags = {"Account Management"}
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import report streamed"),
+            @ApiResponse(responseCode = "400", description = "Unsupported import format", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    public ResponseEntity<StreamingResponseBody> importAccounts(
+            InputStream body,
+            @RequestParam(defaultValue = "ndjson") String format // "ndjson" or "csv"
+    ) {
+        log.debug("Entered AccountManagementController.importAccounts()");
+        ExportFormat importFormat = ExportFormat.fromValue(format);
+        StreamingResponseBody report = outputStream -> accountImportService.importAccounts(body, importFormat, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ExportFormat.NDJSON.getContentType()))
+                .body(report);
+    }
+
     @GetMapping("/{accountId}")
     @Operation(
             summary = "Retrieve account details by accountId",
-            description = "Fetches the details of an account, including current balance and status, based on the provided account ID.",
+            description = "Fetches the details of an account, including current balance and status, based on the provided account ID. "
+                    + "Send the ETag back in If-None-Match to get 304 while the account is unchanged.",
             tags = {"Account Management"}
     )
     @ApiResponses(value = {
@@ -55,6 +133,7 @@ public class AccountManagementController {
                     description = "Account details retrieved successfully",
                     content = @Content(schema = @Schema(implementation = AccountSearchResponse.class))
             ),
+            @ApiResponse(responseCode = "304", description = "Account unchanged since the ETag in If-None-Match"),
             @ApiResponse(                    responseCode = "400",
                     description = "Invalid request parameters"
             ),
@@ -65,10 +144,9 @@ public class AccountManagementController {
                     description = "Internal server error"
             )
     })
-    public ResponseEntity<AccountSearchResponse> getAccountDetails(@PathVariable @Valid Long accountId) {
+    public ResponseEntity<byte[]> getAccountDetails(@PathVariable @Valid Long accountId) {
         log.debug("Entered AccountManagementController.getAccountDetails()");
-        AccountSearchResponse account = accountManagementService.getAccountDetails(accountId);
-        return new ResponseEntity<>(account, HttpStatus.OK);
+        return cachedJson(encodedResponseCache.account(accountId));
     }
 
 
@@ -101,6 +179,27 @@ public class AccountManagementController {
         return ResponseEntity.status(HttpStatus.OK).build();
     }
 
+    @PutMapping("/{accountId}/balance-buckets")
+    @Operation(
+            summary = "Set the balance buckets of a high-volume account",
+            description = "Spreads credits to the account across the given number of sub-balances so they no longer queue on one row. "
+                    + "Debits and balance reads add the buckets up; 0 turns the mode off. The balance itself does not change.",
+            tags = {"Account Management"}
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Balance buckets set successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid request parameters"),
+            @ApiResponse(responseCode = "404", description = "Account not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<Void> setBalanceBuckets(
+            @PathVariable Long accountId,
+            @RequestBody @Valid BalanceBucketsRequest balanceBucketsRequest) {
+        log.debug("Entered AccountManagementController.setBalanceBuckets()");
+        accountManagementService.setBalanceBuckets(accountId, balanceBucketsRequest.getBuckets());
+        return ResponseEntity.status(HttpStatus.OK).build();
+    }
+
     @PostMapping("/{accountId}/transactions")
     @Operation(
             summary = "Make a transaction for the account by ID",
@@ -128,6 +227,16 @@ public class AccountManagementController {
                     description = "Insufficient funds or concurrency conflict (transaction failed)",
                     content = @Content
             ),
+            @ApiResponse(
+                    responseCode = "422",
+                    description = "Idempotency-Key was already used for a different transaction",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Too many transactions for the account, or in progress overall; retry after Retry-After seconds",
+                    content = @Content
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "Internal server error",
@@ -136,15 +245,54 @@ public class AccountManagementController {
     })
     public ResponseEntity<TransactionResponse> processTransaction(
             @PathVariable Long accountId,
-            @RequestBody @Valid TransactionRequest transactionRequest) {
+            @RequestBody @Valid TransactionRequest transactionRequest,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         log.debug("Entered AccountManagementController.processTransaction()");
-        TransactionResponse transactionResponse = accountManagementService.processTransaction(accountId, transactionRequest);
-        return new ResponseEntity<>(transactionResponse, HttpStatus.CREATED);
+        transactionRateLimiter.acquire(accountId);
+        try {
+            TransactionResponse transactionResponse = accountManagementService.processTransaction(accountId, transactionRequest, idempotencyKey);
+            return new ResponseEntity<>(transactionResponse, HttpStatus.CREATED);
+        } finally {
+            transactionRateLimiter.release();
+        }
+    }
+
+    @PostMapping("/transactions/batch")
+    @Operation(
+            summary = "Post a batch of transactions across accounts",
+            description = "Applies credit and debit transactions for many accounts in one call. Postings are grouped per account and applied in request order; each item gets its own result.",
+            tags = { "Transaction Management" }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Batch processed, see per-item results",
+                    content = @Content(schema = @Schema(implementation = BatchTransactionResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid request parameters (e.g., empty batch, amount, type)",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<BatchTransactionResponse> processTransactions(
+            @RequestBody @Valid BatchTransactionRequest batchTransactionRequest) {
+        log.debug("Entered AccountManagementController.processTransactions()");
+        BatchTransactionResponse response = accountManagementService.processTransactions(batchTransactionRequest);
+        return new ResponseEntity<>(response, HttpStatus.OK);
     }
+
     @GetMapping("/{accountId}/transactions")
     @Operation(
             summary = "Get account transaction history by account ID",
-            description = "Fetch a paginated list of transactions for a specific account, with optional filters like date range and transaction type.",
+            description = "Fetch a paginated list of transactions for a specific account, with optional filters like date range and transaction type. "
+                    + "Use pagination=cursor and pass back nextCursor to page by key without counting every request. "
+                    + "The first unfiltered page carries an ETag; send it back in If-None-Match to get 304 while no transaction was added.",
             tags = { "Transaction Management" }
     )
     @ApiResponses(value = {
@@ -153,6 +301,12 @@ public class AccountManagementController {
                     description = "Transaction history retrieved successfully",
                     content = @Content(schema = @Schema(implementation = TransactionHistoryResponse.class))
             ),
+            @ApiResponse(responseCode = "304", description = "First page unchanged since the ETag in If-None-Match"),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid request parameters (e.g., malformed cursor)",
+                    content = @Content
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Account not found",
@@ -164,22 +318,211 @@ public class AccountManagementController {
                     content = @Content
             )
     })
-    public ResponseEntity<TransactionHistoryResponse> getTransactionHistory(
+    public ResponseEntity<?> getTransactionHistory(
             @PathVariable Long accountId,
             @RequestParam(required = false) String transactionType, // Optional filter for transaction type
             @RequestParam(required = false) LocalDateTime startDate, // Optional filter for start date
             @RequestParam(required = false) LocalDateTime endDate,   // Optional filter for end date
             @RequestParam(defaultValue = "0") int page, // Pagination - default page is 0
-            @RequestParam(defaultValue = "10") int size // Pagination - default size is 10
+            @RequestParam(defaultValue = "10") int size, // Pagination - default size is 10
+            @RequestParam(defaultValue = "offset") String pagination, // "offset" (page numbers) or "cursor" (keyset)
+            @RequestParam(required = false) String cursor // Cursor mode - nextCursor of the previous page
     ) {
         log.debug("Entered AccountManagementController.getTransactionHistory()");
-        TransactionHistoryResponse response = accountManagementService.getTransactionHistory(accountId, transactionType, startDate, endDate, page, size);
+        boolean firstPage = cursor == null && page == 0 && transactionType == null && startDate == null && endDate == null;
+        if (firstPage && !"cursor".equalsIgnoreCase(pagination)) {
+            return cachedJson(encodedResponseCache.firstHistoryPage(accountId, size));
+        }
+        TransactionHistoryResponse response;
+        if ("cursor".equalsIgnoreCase(pagination) || cursor != null) {
+            response = accountManagementService.getTransactionHistoryByCursor(accountId, transactionType, startDate, endDate, cursor, size);
+        } else {
+            response = accountManagementService.getTransactionHistory(accountId, transactionType, startDate, endDate, page, size);
+        }
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @GetMapping("/{accountId}/transactions/export")
+    @Operation(
+            summary = "Export the full transaction history of an account",
+            description = "Streams every matching transaction, oldest first, as NDJSON or CSV. Accepts the same filters as the transaction history endpoint.",
+            tags = { "Transaction Management" }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Transactions streamed successfully"),
+            @ApiResponse(responseCode = "400", description = "Unsupported export format", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Account not found", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @PathVariable Long accountId,
+            @RequestParam(required = false) String transactionType, // Optional filter for transaction type
+            @RequestParam(required = false) LocalDateTime startDate, // Optional filter for start date
+            @RequestParam(required = false) LocalDateTime endDate,   // Optional filter for end date
+            @RequestParam(defaultValue = "ndjson") String format // "ndjson" or "csv"
+    ) {
+        log.debug("Entered AccountManagementController.exportTransactions()");
+        ExportFormat exportFormat = ExportFormat.fromValue(format);
+        transactionExportService.verifyAccountExists(accountId);
+        StreamingResponseBody body = outputStream -> transactionExportService.exportTransactions(
+                accountId, transactionType, startDate, endDate, exportFormat, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions-" + accountId + "." + exportFormat.getFileExtension() + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/{accountId}/transactions/summary")
+    @Operation(
+            summary = "Summarize an account's transactions by day or month",
+            description = "Counts and totals of credits, debits and transactions flagged for review per day or month from one date to another "
+                    + "(both inclusive), read from the daily summaries rather than the transactions. Summaries trail postings by a few seconds.",
+            tags = { "Transaction Management" }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Summary retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = TransactionSummaryResponse.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Invalid range or granularity", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Account not found", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    public ResponseEntity<TransactionSummaryResponse> getTransactionSummary(
+            @PathVariable Long accountId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String granularity // "day" or "month"
+    ) {
+        log.debug("Entered AccountManagementController.getTransactionSummary()");
+        TransactionSummaryResponse response = transactionSummaryService.getSummary(
+                accountId, from, to, SummaryGranularity.fromValue(granularity));
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    @PostMapping("/transactions/summary/rebuild")
+    @Operation(
+            summary = "Rebuild the daily transaction summaries",
+            description = "Recomputes every account's daily summaries from one date to another (both inclusive) from the transactions themselves.",
+            tags = { "Transaction Management" }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Summaries rebuilt successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid range", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    public ResponseEntity<Void> rebuildTransactionSummaries(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        log.debug("Entered AccountManagementController.rebuildTransactionSummaries()");
+        transactionSummaryService.rebuild(from, to);
+        return ResponseEntity.status(HttpStatus.OK).build();
+    }
 
-}
+    @GetMapping("/{accountId}/reviews")
+    @Operation(
+            summary = "Get the fraud reviews of an account",
+            description = "Fetch a paginated list of the reviews raised for an account's transactions flagged for review, newest first, "
+                    + "optionally filtered by status. Reviews are evaluated in the background and trail postings by a few seconds.",
+            tags = { "Transaction Management" }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Reviews retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = FraudReviewListResponse.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "Account not found", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    public ResponseEntity<FraudReviewListResponse> getAccountReviews(
+            @PathVariable Long accountId,
+            @RequestParam(required = false) String status, // Optional filter for review status
+            @RequestParam(defaultValue = "0") int page, // Pagination - default page is 0
+            @RequestParam(defaultValue = "10") int size // Pagination - default size is 10
+    ) {
+        log.debug("Entered AccountManagementController.getAccountReviews()");
+        FraudReviewListResponse response = fraudReviewService.getAccountReviews(accountId, status, page, size);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
 
+    @GetMapping("/reviews")
+    @Operation(
+            summary = "Get the fraud review queue",
+            description = "Lists reviews in a status across all accounts, highest risk score first and oldest first within a score.",
+            tags = { "Transaction Management" }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Review queue retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = FraudReviewListResponse.class))
+            ),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    public ResponseEntity<FraudReviewListResponse> getReviewQueue(
+            @RequestParam(defaultValue = "PENDING") String status,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        log.debug("Entered AccountManagementController.getReviewQueue()");
+        FraudReviewListResponse response = fraudReviewService.getReviewQueue(status, size);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
 
+    @GetMapping("/{accountId}/balance")
+    @Operation(
+            summary = "Get the balance of an account at a point in time",
+            description = "Rebuilds the balance as of the given time from the nearest balance snapshot and the transactions posted after it. "
+                    + "Without asOf the current time is used.",
+            tags = { "Transaction Management" }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Balance computed successfully",
+                    content = @Content(schema = @Schema(implementation = AccountBalanceResponse.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "Account not found, or not yet opened at asOf", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    public ResponseEntity<AccountBalanceResponse> getBalanceAsOf(
+            @PathVariable Long accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf
+    ) {
+        log.debug("Entered AccountManagementController.getBalanceAsOf()");
+        AccountBalanceResponse response = balanceSnapshotService.getBalanceAsOf(accountId, asOf != null ? asOf : LocalDateTime.now());
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
 
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Stream account and transaction events",
+            description = "Server-sent events for account creation, suspension and every posted transaction, in order per account. "
+                    + "Each event id is a resume cursor: reconnect with it in Last-Event-ID (or after) to receive what was missed.",
+            tags = { "Transaction Management" }
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event stream opened"),
+            @ApiResponse(responseCode = "400", description = "Invalid resume cursor", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Internal server error", content = @Content)
+    })
+    public SseEmitter streamEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(required = false) String after // Resume cursor for clients that cannot set Last-Event-ID
+    ) {
+        log.debug("Entered AccountManagementController.streamEvents()");
+        return outboxStreamSink.subscribe(lastEventId != null ? lastEventId : after);
+    }
 
+    // Spring answers a matching If-None-Match with 304 from the ETag alone; clients revalidate on every poll
+    private static ResponseEntity<byte[]> cachedJson(EncodedResponse response) {
+        return ResponseEntity.ok()
+                .eTag(response.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(response.body());
+    }
+}
@@ -0,0 +1,117 @@
+package com.assignment.account.management.controller;
+
+import com.assignment.account.management.dto.*;
+import com.assignment.account.management.service.ReactiveAccountService;
+import com.assignment.account.management.service.TransactionRateLimiter;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * The /api/v1/accounts contract of {@link AccountManagementController} on WebFlux, active with the
+ * "reactive" profile. Covers accounts, postings, history and export; the batch, balance-as-of and
+ * event stream endpoints are served by the servlet stack only.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/v1/accounts")
+@Slf4j
+public class ReactiveAccountManagementController {
+
+    private final ReactiveAccountService accountService;
+
+    private final TransactionRateLimiter transactionRateLimiter;
+
+    public ReactiveAccountManagementController(ReactiveAccountService accountService,
+                                               TransactionRateLimiter transactionRateLimiter) {
+        this.accountService = accountService;
+        this.transactionRateLimiter = transactionRateLimiter;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<AccountCreateResponse>> createAccount(@RequestBody @Valid AccountCreateRequest accountRequest) {
+        log.debug("Entered ReactiveAccountManagementController.createAccount()");
+        return accountService.createAccount(accountRequest).map(account -> new ResponseEntity<>(account, HttpStatus.CREATED));
+    }
+
+    @GetMapping("/{accountId}")
+    public Mono<ResponseEntity<AccountSearchResponse>> getAccountDetails(@PathVariable Long accountId) {
+        log.debug("Entered ReactiveAccountManagementController.getAccountDetails()");
+        return accountService.getAccountDetails(accountId).map(ResponseEntity::ok);
+    }
+
+    @PutMapping("/{accountId}")
+    public Mono<ResponseEntity<Void>> updateAccount(
+            @PathVariable Long accountId,
+            @RequestBody @Valid AccountUpdateRequest accountUpdateRequest) {
+        log.debug("Entered ReactiveAccountManagementController.updateAccount()");
+        return accountService.updateAccount(accountId, accountUpdateRequest).thenReturn(ResponseEntity.ok().build());
+    }
+
+    @DeleteMapping("/{accountId}")
+    public Mono<ResponseEntity<Void>> suspendAccount(@PathVariable Long accountId) {
+        log.debug("Entered ReactiveAccountManagementController.suspendAccount()");
+        return accountService.suspendAccount(accountId).thenReturn(ResponseEntity.ok().build());
+    }
+
+    @PostMapping("/{accountId}/transactions")
+    public Mono<ResponseEntity<TransactionResponse>> processTransaction(
+            @PathVariable Long accountId,
+            @RequestBody @Valid TransactionRequest transactionRequest,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        log.debug("Entered ReactiveAccountManagementController.processTransaction()");
+        return Mono.defer(() -> {
+                    transactionRateLimiter.acquire(accountId);
+                    return accountService.processTransaction(accountId, transactionRequest, idempotencyKey)
+                            .doFinally(signal -> transactionRateLimiter.release());
+                })
+                .map(transaction -> new ResponseEntity<>(transaction, HttpStatus.CREATED));
+    }
+
+    @GetMapping("/{accountId}/transactions")
+    public Mono<ResponseEntity<TransactionHistoryResponse>> getTransactionHistory(
+            @PathVariable Long accountId,
+            @RequestParam(required = false) String transactionType, // Optional filter for transaction type
+            @RequestParam(required = false) LocalDateTime startDate, // Optional filter for start date
+            @RequestParam(required = false) LocalDateTime endDate,   // Optional filter for end date
+            @RequestParam(defaultValue = "0") int page, // Pagination - default page is 0
+            @RequestParam(defaultValue = "10") int size, // Pagination - default size is 10
+            @RequestParam(defaultValue = "offset") String pagination, // "offset" (page numbers) or "cursor" (keyset)
+            @RequestParam(required = false) String cursor // Cursor mode - nextCursor of the previous page
+    ) {
+        log.debug("Entered ReactiveAccountManagementController.getTransactionHistory()");
+        Mono<TransactionHistoryResponse> response = "cursor".equalsIgnoreCase(pagination) || cursor != null
+                ? accountService.getTransactionHistoryByCursor(accountId, transactionType, startDate, endDate, cursor, size)
+                : accountService.getTransactionHistory(accountId, transactionType, startDate, endDate, page, size);
+        return response.map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/{accountId}/transactions/export")
+    public ResponseEntity<Flux<String>> exportTransactions(
+            @PathVariable Long accountId,
+            @RequestParam(required = false) String transactionType, // Optional filter for transaction type
+            @RequestParam(required = false) LocalDateTime startDate, // Optional filter for start date
+            @RequestParam(required = false) LocalDateTime endDate,   // Optional filter for end date
+            @RequestParam(defaultValue = "ndjson") String format // "ndjson" or "csv"
+    ) {
+        log.debug("Entered ReactiveAccountManagementController.exportTransactions()");
+        ExportFormat exportFormat = ExportFormat.fromValue(format);
+        Flux<String> body = exportFormat == ExportFormat.CSV
+                ? accountService.exportTransactionsAsCsv(accountId, transactionType, startDate, endDate)
+                : accountService.exportTransactionsAsNdjson(accountId, transactionType, startDate, endDate);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions-" + accountId + "." + exportFormat.getFileExtension() + "\"")
+                .body(body);
+    }
+}
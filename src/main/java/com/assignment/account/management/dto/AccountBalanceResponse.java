@@ -0,0 +1,22 @@
+package com.assignment.account.management.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Setter
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AccountBalanceResponse {
+
+    private Long accountId;
+    private LocalDateTime asOf;
+    private BigDecimal balance;
+    private LocalDateTime snapshotAt; // snapshot the balance was rebuilt from, absent if none was taken yet
+
+}
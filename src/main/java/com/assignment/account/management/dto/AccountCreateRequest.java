@@ -2,6 +2,7 @@ package com.assignment.account.management.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -20,6 +21,7 @@ public class AccountCreateRequest {
 
     @NotNull(message = "Initial balance is required.")
     @DecimalMin(value = "0", inclusive = true, message = "Initial balance must be zero or a positive number.")
+    @Digits(integer = 16, fraction = 2, message = "Initial balance must have at most 16 digits before and 2 after the decimal point.")
     @Schema(description = "Initial balance for the new account", example = "100.00", required = true)
     private BigDecimal initialBalance;
 
@@ -0,0 +1,15 @@
+package com.assignment.account.management.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+@Builder
+public class AccountImportFailure {
+
+    private long line; // Line of the import file, the CSV header being line 1
+    private String error;
+
+}
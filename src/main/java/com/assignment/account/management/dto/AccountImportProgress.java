@@ -0,0 +1,17 @@
+package com.assignment.account.management.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+@Builder
+public class AccountImportProgress {
+
+    private long linesRead;
+    private long imported; // Accounts committed so far
+    private long failed; // Rows rejected or in a batch that failed to insert
+    private boolean complete; // Set on the last record of the report only
+
+}
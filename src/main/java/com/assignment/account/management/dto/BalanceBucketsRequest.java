@@ -0,0 +1,20 @@
+package com.assignment.account.management.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+public class BalanceBucketsRequest {
+
+    @NotNull(message = "buckets is required.")
+    @Min(value = 0, message = "buckets must be between 0 and 64.")
+    @Max(value = 64, message = "buckets must be between 0 and 64.")
+    @Schema(description = "Sub-balances that credits are spread across, 0 to turn high-volume mode off", example = "16", required = true)
+    private Integer buckets;
+
+}
@@ -0,0 +1,14 @@
+package com.assignment.account.management.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+public class BatchTransactionItem extends TransactionRequest {
+
+    @NotNull(message = "accountId must be specified.")
+    private Long accountId;
+
+}
@@ -0,0 +1,19 @@
+package com.assignment.account.management.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+public class BatchTransactionRequest {
+
+    @NotEmpty(message = "At least one transaction is required.")
+    @Size(max = 10000, message = "A batch can contain at most 10000 transactions.")
+    private List<@Valid BatchTransactionItem> transactions;
+
+}
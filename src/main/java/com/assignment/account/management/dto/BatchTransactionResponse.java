@@ -0,0 +1,18 @@
+package com.assignment.account.management.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+@Builder
+public class BatchTransactionResponse {
+
+    private List<BatchTransactionResult> results; // One result per request item, in request order
+    private int processed;
+    private int failed;
+
+}
@@ -0,0 +1,20 @@
+package com.assignment.account.management.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+@Builder
+public class BatchTransactionResult {
+
+    public static final String PROCESSED = "PROCESSED";
+    public static final String FAILED = "FAILED";
+
+    private int index; // Position of the item in the request
+    private Long accountId;
+    private String status; // PROCESSED or FAILED
+    private TransactionResponse transaction;
+    private String error;
+}
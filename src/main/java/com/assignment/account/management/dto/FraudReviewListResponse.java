@@ -0,0 +1,21 @@
+package com.assignment.account.management.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FraudReviewListResponse {
+
+    private List<FraudReviewResponse> reviews;
+    private Integer currentPage; // Current page number (per-account reviews)
+    private Integer totalPages;  // Total number of pages (per-account reviews)
+    private Long totalReviews; // Total number of reviews (per-account reviews)
+
+}
@@ -0,0 +1,27 @@
+package com.assignment.account.management.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Setter
+@Getter
+@Builder
+public class FraudReviewResponse {
+
+    private Long transactionId;
+    private Long accountId;
+    private BigDecimal amount;
+    private LocalDateTime postedAt;
+    private int riskScore; // Number of review rules the posting tripped
+    private List<String> reasons; // DAILY_LIMIT_EXCEEDED, HIGH_VELOCITY, LARGE_AMOUNT
+    private long recentDebitCount; // Debits to the account within the velocity window, the posting included
+    private BigDecimal recentDebitTotal;
+    private String status;
+    private LocalDateTime createdAt;
+
+}
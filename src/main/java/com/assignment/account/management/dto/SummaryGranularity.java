@@ -0,0 +1,25 @@
+package com.assignment.account.management.dto;
+
+import com.assignment.account.management.exception.InvalidSummaryRequestException;
+
+import java.time.LocalDate;
+
+public enum SummaryGranularity {
+
+    DAY,
+    MONTH;
+
+    // First day of the period the date falls in
+    public LocalDate periodStart(LocalDate date) {
+        return this == MONTH ? date.withDayOfMonth(1) : date;
+    }
+
+    public static SummaryGranularity fromValue(String value) {
+        for (SummaryGranularity granularity : values()) {
+            if (granularity.name().equalsIgnoreCase(value)) {
+                return granularity;
+            }
+        }
+        throw new InvalidSummaryRequestException("Unsupported granularity: " + value + ". Allowed values are 'day' or 'month'.");
+    }
+}
@@ -1,20 +1,23 @@
 package com.assignment.account.management.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 @Setter
 @Getter
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class TransactionHistoryResponse {
 
     private List<TransactionDetails> transactions; // List of transactions
-    private int currentPage; // Current page number
-    private int totalPages;  // Total number of pages
-    private long totalTransactions; // Total number of transactions
+    private Integer currentPage; // Current page number (offset paging)
+    private Integer totalPages;  // Total number of pages (offset paging)
+    private Long totalTransactions; // Total number of transactions (offset paging)
+    private Boolean hasNext; // Whether more transactions follow (cursor paging)
+    private String nextCursor; // Token for the next page (cursor paging)
 
 }
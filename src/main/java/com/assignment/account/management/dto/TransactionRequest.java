@@ -1,5 +1,6 @@
 package com.assignment.account.management.dto;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.Getter;
@@ -12,6 +13,7 @@ import java.math.BigDecimal;
 public class TransactionRequest {
 
     @Positive(message = "amount must be a positive number.")
+    @Digits(integer = 16, fraction = 2, message = "amount must have at most 16 digits before and 2 after the decimal point.")
     private BigDecimal amount;
 
     @NotNull(message = "Transaction type must be specified.")
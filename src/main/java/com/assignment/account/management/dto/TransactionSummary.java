@@ -0,0 +1,23 @@
+package com.assignment.account.management.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Setter
+@Getter
+@Builder
+public class TransactionSummary {
+
+    private LocalDate periodStart; // First day of the day or month summarized
+    private long creditCount;
+    private BigDecimal creditTotal;
+    private long debitCount;
+    private BigDecimal debitTotal;
+    private long flaggedCount; // Transactions flagged for review, of either type
+    private BigDecimal flaggedTotal;
+
+}
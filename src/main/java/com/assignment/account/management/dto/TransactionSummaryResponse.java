@@ -0,0 +1,21 @@
+package com.assignment.account.management.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Setter
+@Getter
+@Builder
+public class TransactionSummaryResponse {
+
+    private Long accountId;
+    private LocalDate from;
+    private LocalDate to;
+    private SummaryGranularity granularity;
+    private List<TransactionSummary> periods; // Oldest first; periods without transactions are left out
+
+}
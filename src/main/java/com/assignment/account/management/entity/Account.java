@@ -4,7 +4,7 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.math.BigDecimal;
+import java.time.LocalDate;
 
 @Entity
 @Table
@@ -17,13 +17,26 @@ public class Account extends  BaseEntity {
     @Column(name = "accountId", nullable = false)
     private Long accountId;
 
-    private BigDecimal initialBalance;
+    @Column(precision = Money.PRECISION, scale = Money.SCALE)
+    private Money initialBalance;
 
-    private BigDecimal currentBalance;
+    @Column(precision = Money.PRECISION, scale = Money.SCALE)
+    private Money currentBalance;
 
     private String status;
 
     private String accountHolderName;
 
+    // Running total of today's withdrawals, maintained with every debit
+    private LocalDate dailyWithdrawalDate;
+
+    @Column(precision = Money.PRECISION, scale = Money.SCALE)
+    private Money dailyWithdrawalTotal;
+
+    // Number of BalanceBucket rows holding part of the balance, 0 unless the account is high-volume
+    private int balanceBuckets;
+
+    @Version
+    private Long version;
 
 }
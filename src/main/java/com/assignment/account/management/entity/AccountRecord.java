@@ -0,0 +1,47 @@
+package com.assignment.account.management.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * R2DBC mapping of the account table for the reactive stack; {@link Account} is the JPA one.
+ */
+@Table("account")
+@Setter
+@Getter
+public class AccountRecord {
+
+    @Id
+    private Long accountId;
+
+    private Money initialBalance;
+
+    private Money currentBalance;
+
+    private String status;
+
+    private String accountHolderName;
+
+    private LocalDate dailyWithdrawalDate;
+
+    private Money dailyWithdrawalTotal;
+
+    private int balanceBuckets;
+
+    @Version
+    private Long version;
+
+    @Column("created_date")
+    private LocalDateTime createdAt;
+
+    @Column("updated_date")
+    private LocalDateTime updatedAt;
+
+}
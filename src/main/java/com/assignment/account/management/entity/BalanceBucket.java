@@ -0,0 +1,39 @@
+package com.assignment.account.management.entity;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * One sub-balance of a high-volume account. Credits land on a bucket instead of the account row,
+ * so concurrent credits contend on one of {@link Account#getBalanceBuckets()} rows rather than one.
+ */
+@Entity
+@Table(name = "account_balance_bucket")
+@IdClass(BalanceBucket.Key.class)
+@Setter
+@Getter
+public class BalanceBucket {
+
+    @Id
+    private Long accountId;
+
+    @Id
+    private int bucket;
+
+    @Column(precision = Money.PRECISION, scale = Money.SCALE, nullable = false)
+    private Money balance;
+
+    @Getter
+    @Setter
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        private Long accountId;
+
+        private int bucket;
+    }
+}
@@ -0,0 +1,61 @@
+package com.assignment.account.management.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A posting flagged for review, as evaluated by the fraud review pipeline. Keyed by the
+ * transaction, so a posting evaluated twice is reviewed once.
+ */
+@Entity
+@Table(name = "fraud_review", indexes = {
+        @Index(name = "idx_fraud_review_status_score", columnList = "status, riskScore, createdAt"),
+        @Index(name = "idx_fraud_review_account", columnList = "accountId, transactionId")
+})
+@Setter
+@Getter
+public class FraudReview implements Persistable<Long> {
+
+    public static final String PENDING = "PENDING";
+
+    @Id
+    private Long transactionId;
+    private Long accountId;
+    @Column(precision = Money.PRECISION, scale = Money.SCALE)
+    private Money amount;
+    private LocalDateTime postedAt;
+    // Number of rules the posting tripped; the queue is worked riskiest first
+    private int riskScore;
+    // Comma-separated rule names
+    private String reasons;
+    // Debits to the account within the velocity window before the posting, itself included
+    private long recentDebitCount;
+    @Column(precision = Money.PRECISION, scale = Money.SCALE)
+    private Money recentDebitTotal;
+    private String status;
+    private LocalDateTime createdAt;
+
+    // Reviews are inserted once and only ever updated after being loaded, so save() can skip the existence check select
+    @Transient
+    private boolean isNew = true;
+
+    @Override
+    public Long getId() {
+        return transactionId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
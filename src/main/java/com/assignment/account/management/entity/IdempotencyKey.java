@@ -0,0 +1,43 @@
+package com.assignment.account.management.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_key", indexes = {
+        @Index(name = "idx_idempotency_key_expires_at", columnList = "expiresAt")
+})
+@Setter
+@Getter
+public class IdempotencyKey implements Persistable<String> {
+
+    @Id
+    private String idempotencyKey;
+    private Long accountId;
+    private Long transactionId;
+    private LocalDateTime expiresAt;
+
+    // Keys are always inserted, never updated, so save() can skip the existence check select
+    @Transient
+    private boolean isNew = true;
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
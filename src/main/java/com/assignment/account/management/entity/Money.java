@@ -0,0 +1,80 @@
+package com.assignment.account.management.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * An amount of money as a whole number of minor units (cents), the scale every money column is
+ * stored with. Arithmetic is plain long arithmetic; a result outside what a DECIMAL(18,2) column
+ * holds throws {@link ArithmeticException} instead of wrapping or failing at the database, so
+ * every result is exactly what BigDecimal would give.
+ */
+public record Money(long minorUnits) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+
+    // Digits a money column holds; every such value fits in a long of minor units
+    public static final int PRECISION = 18;
+
+    public static final Money ZERO = new Money(0);
+
+    private static final long MAX_MINOR_UNITS = 999_999_999_999_999_999L;
+
+    private static final long MINOR_PER_UNIT = 100;
+
+    public Money {
+        if (minorUnits > MAX_MINOR_UNITS || minorUnits < -MAX_MINOR_UNITS) {
+            throw new ArithmeticException("Money overflow: " + minorUnits + " minor units");
+        }
+    }
+
+    // Throws IllegalArgumentException for amounts with more than two decimals or beyond the column's range
+    public static Money of(BigDecimal amount) {
+        try {
+            return ofMinor(amount.movePointRight(SCALE).longValueExact());
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("Amount " + amount.toPlainString() + " is not a whole number of cents or is out of range.", ex);
+        }
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    // Both operands are within the column's range, so the long sum cannot wrap before the range check
+    public Money plus(Money other) {
+        return other.minorUnits == 0 ? this : ofMinor(minorUnits + other.minorUnits);
+    }
+
+    public Money minus(Money other) {
+        return other.minorUnits == 0 ? this : ofMinor(minorUnits - other.minorUnits);
+    }
+
+    public Money negate() {
+        return ofMinor(-minorUnits);
+    }
+
+    public boolean isLessThan(Money other) {
+        return minorUnits < other.minorUnits;
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return minorUnits > other.minorUnits;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    // Plain decimal with two fraction digits, as BigDecimal.toPlainString prints a DECIMAL(p,2) column
+    @Override
+    public String toString() {
+        long units = Math.abs(minorUnits / MINOR_PER_UNIT);
+        long cents = Math.abs(minorUnits % MINOR_PER_UNIT);
+        return (minorUnits < 0 ? "-" : "") + units + (cents < 10 ? ".0" : ".") + cents;
+    }
+}
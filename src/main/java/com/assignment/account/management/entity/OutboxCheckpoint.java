@@ -0,0 +1,19 @@
+package com.assignment.account.management.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+@Entity
+@Table(name = "outbox_checkpoint")
+@Setter
+@Getter
+public class OutboxCheckpoint {
+
+    @Id
+    private String sinkName;
+    private long lastRelaySequence;
+
+}
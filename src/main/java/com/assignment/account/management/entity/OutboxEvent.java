@@ -0,0 +1,32 @@
+package com.assignment.account.management.entity;
+
+import com.assignment.account.management.config.IdGeneratorBlocks;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_event", indexes = {
+        @Index(name = "idx_outbox_event_created_at", columnList = "createdAt"),
+        @Index(name = "idx_outbox_event_relay_sequence", columnList = "relaySequence", unique = true)
+})
+@Setter
+@Getter
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "outbox_event_id")
+    @TableGenerator(name = "outbox_event_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "outbox_event", allocationSize = IdGeneratorBlocks.ALLOCATION_SIZE)
+    private Long eventId;
+    private Long accountId;
+    private String eventType;
+    // JSON body of the event
+    private String payload;
+    private LocalDateTime createdAt;
+    // Set by the relay once it finds the event committed; sinks get events in this order
+    private Long relaySequence;
+
+}
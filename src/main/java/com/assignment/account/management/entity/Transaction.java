@@ -1,26 +1,37 @@
 package com.assignment.account.management.entity;
 
+import com.assignment.account.management.config.IdGeneratorBlocks;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transaction")
+@Table(name = "transaction", indexes = {
+        @Index(name = "idx_transaction_account", columnList = "accountId, transactionId"),
+        @Index(name = "idx_transaction_account_type", columnList = "accountId, type, transactionId"),
+        @Index(name = "idx_transaction_account_timestamp", columnList = "accountId, timestamp"),
+        @Index(name = "idx_transaction_account_type_timestamp", columnList = "accountId, type, timestamp"),
+        @Index(name = "idx_transaction_timestamp", columnList = "timestamp")
+})
 @Setter
 @Getter
 public class Transaction {
 
+    // Pooled table-backed ids let Hibernate batch inserts, which IDENTITY columns prevent
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "transaction_id")
+    @TableGenerator(name = "transaction_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "transaction", allocationSize = IdGeneratorBlocks.ALLOCATION_SIZE)
     private Long transactionId;
     private Long accountId;
-    private BigDecimal amount;
+    @Column(precision = Money.PRECISION, scale = Money.SCALE)
+    private Money amount;
     private String type; // "in" for credit, "out" for debit
     private LocalDateTime timestamp;
-    private BigDecimal balanceAfterTransaction;
+    @Column(precision = Money.PRECISION, scale = Money.SCALE)
+    private Money balanceAfterTransaction;
     private boolean flaggedForReview;
 
 }
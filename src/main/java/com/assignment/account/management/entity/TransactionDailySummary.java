@@ -0,0 +1,77 @@
+package com.assignment.account.management.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * The transactions posted to an account on one day, rolled up: credits and debits by type, and
+ * separately those flagged for review. Kept up to date from the outbox, see TransactionSummaryService.
+ */
+@Entity
+@Table(name = "transaction_daily_summary", indexes = {
+        @Index(name = "idx_transaction_daily_summary_date", columnList = "summaryDate")
+})
+@IdClass(TransactionDailySummary.Key.class)
+@Setter
+@Getter
+public class TransactionDailySummary {
+
+    @Id
+    private Long accountId;
+
+    @Id
+    private LocalDate summaryDate;
+
+    private long creditCount;
+
+    @Column(precision = Money.PRECISION, scale = Money.SCALE, nullable = false)
+    private Money creditTotal = Money.ZERO;
+
+    private long debitCount;
+
+    @Column(precision = Money.PRECISION, scale = Money.SCALE, nullable = false)
+    private Money debitTotal = Money.ZERO;
+
+    private long flaggedCount;
+
+    @Column(precision = Money.PRECISION, scale = Money.SCALE, nullable = false)
+    private Money flaggedTotal = Money.ZERO;
+
+    // Adds count transactions of the given type and flag totalling amount; a negative count and amount take them out
+    public void add(String type, boolean flaggedForReview, long count, Money amount) {
+        if ("out".equalsIgnoreCase(type)) {
+            debitCount += count;
+            debitTotal = debitTotal.plus(amount);
+        } else {
+            creditCount += count;
+            creditTotal = creditTotal.plus(amount);
+        }
+        if (flaggedForReview) {
+            flaggedCount += count;
+            flaggedTotal = flaggedTotal.plus(amount);
+        }
+    }
+
+    public boolean isEmpty() {
+        return creditCount == 0 && debitCount == 0;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        private Long accountId;
+
+        private LocalDate summaryDate;
+    }
+}
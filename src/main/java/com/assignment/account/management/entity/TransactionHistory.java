@@ -1,24 +1,32 @@
 package com.assignment.account.management.entity;
 
+import com.assignment.account.management.config.IdGeneratorBlocks;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
+// Balance of an account once every transaction with a timestamp up to snapshotAt is applied
 @Entity
-@Table
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "uk_transaction_history_account_snapshot", columnNames = {"accountId", "snapshotAt"})
+})
 @Setter
 @Getter
 public class TransactionHistory extends  BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    @Column(name = "accountId", nullable = false)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "transaction_history_id")
+    @TableGenerator(name = "transaction_history_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "transaction_history", allocationSize = IdGeneratorBlocks.ALLOCATION_SIZE)
+    private Long snapshotId;
+
     private Long accountId;
 
-    private BigDecimal initialBalance;
+    private LocalDateTime snapshotAt;
 
-    private BigDecimal currentBalance;
+    @Column(precision = Money.PRECISION, scale = Money.SCALE)
+    private Money balance;
 
 }
@@ -0,0 +1,39 @@
+package com.assignment.account.management.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * R2DBC mapping of the transaction table for the reactive stack; {@link Transaction} is the JPA one.
+ */
+@Table("transaction")
+@Setter
+@Getter
+public class TransactionRecord implements Persistable<Long> {
+
+    // Taken from the same id_generator blocks Hibernate uses, before the insert
+    @Id
+    private Long transactionId;
+    private Long accountId;
+    private Money amount;
+    private String type; // "in" for credit, "out" for debit
+    private LocalDateTime timestamp;
+    private Money balanceAfterTransaction;
+    private boolean flaggedForReview;
+
+    @Override
+    public Long getId() {
+        return transactionId;
+    }
+
+    // Transactions are only ever inserted
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
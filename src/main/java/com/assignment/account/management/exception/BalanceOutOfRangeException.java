@@ -0,0 +1,7 @@
+package com.assignment.account.management.exception;
+
+public class BalanceOutOfRangeException extends RuntimeException {
+    public BalanceOutOfRangeException(String message) {
+        super(message);
+    }
+}
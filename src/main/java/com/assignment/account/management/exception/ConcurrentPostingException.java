@@ -0,0 +1,8 @@
+package com.assignment.account.management.exception;
+
+public class ConcurrentPostingException extends RuntimeException {
+
+    public ConcurrentPostingException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.assignment.account.management.exception;
+
+public class InvalidSummaryRequestException extends RuntimeException {
+
+    public InvalidSummaryRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package com.assignment.account.management.exception;
+
+import java.util.Map;
+
+/**
+ * Request turned away before any work was done. Thrown as shared instances without a stack
+ * trace, carrying a ready-made response body, so rejecting a request allocates nothing.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final Map<String, String> errorResponse;
+
+    public TooManyRequestsException(String message) {
+        super(message, null, false, false);
+        this.errorResponse = Map.of("error", message);
+    }
+
+    public Map<String, String> getErrorResponse() {
+        return errorResponse;
+    }
+}
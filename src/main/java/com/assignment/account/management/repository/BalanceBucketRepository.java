@@ -0,0 +1,37 @@
+package com.assignment.account.management.repository;
+
+import com.assignment.account.management.entity.BalanceBucket;
+import com.assignment.account.management.entity.Money;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface BalanceBucketRepository extends JpaRepository<BalanceBucket, BalanceBucket.Key> {
+
+    // Native so the increment happens in the row rather than as a read-modify-write of the entity
+    @Modifying
+    @Query(value = "UPDATE account_balance_bucket SET balance = balance + :amount "
+            + "WHERE account_id = :accountId AND bucket = :bucket", nativeQuery = true)
+    int credit(@Param("accountId") Long accountId, @Param("bucket") int bucket, @Param("amount") BigDecimal amount);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM BalanceBucket b WHERE b.accountId = :accountId ORDER BY b.bucket")
+    List<BalanceBucket> findAllByAccountIdForUpdate(@Param("accountId") Long accountId);
+
+    // One statement, so the account row and its buckets are read as of the same moment
+    @Query(value = "SELECT a.current_balance + COALESCE((SELECT SUM(b.balance) FROM account_balance_bucket b "
+            + "WHERE b.account_id = a.account_id), 0) FROM account a WHERE a.account_id = :accountId", nativeQuery = true)
+    BigDecimal findTotalBalanceAmount(@Param("accountId") Long accountId);
+
+    default Money findTotalBalance(Long accountId) {
+        return Money.of(findTotalBalanceAmount(accountId));
+    }
+}
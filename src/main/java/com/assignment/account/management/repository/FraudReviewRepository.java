@@ -0,0 +1,27 @@
+package com.assignment.account.management.repository;
+
+import com.assignment.account.management.entity.FraudReview;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface FraudReviewRepository extends JpaRepository<FraudReview, Long> {
+
+    @Query("SELECT r.transactionId FROM FraudReview r WHERE r.transactionId IN :transactionIds")
+    List<Long> findExistingTransactionIds(@Param("transactionIds") Collection<Long> transactionIds);
+
+    // Read off idx_fraud_review_status_score
+    List<FraudReview> findByStatusOrderByRiskScoreDescCreatedAtAsc(String status, Limit limit);
+
+    Page<FraudReview> findByAccountId(Long accountId, Pageable pageable);
+
+    Page<FraudReview> findByAccountIdAndStatus(Long accountId, String status, Pageable pageable);
+}
@@ -0,0 +1,16 @@
+package com.assignment.account.management.repository;
+
+import com.assignment.account.management.entity.JournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JournalCheckpointRepository extends JpaRepository<JournalCheckpoint, String> {
+
+    @Modifying
+    @Query("UPDATE JournalCheckpoint c SET c.lastSequence = :lastSequence WHERE c.journalName = :journalName")
+    int advance(@Param("journalName") String journalName, @Param("lastSequence") long lastSequence);
+}
@@ -0,0 +1,31 @@
+package com.assignment.account.management.repository;
+
+import com.assignment.account.management.entity.OutboxCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface OutboxCheckpointRepository extends JpaRepository<OutboxCheckpoint, String> {
+
+    // Never moves a checkpoint back, e.g. past events a sink recorded as applied in its own transaction
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxCheckpoint c SET c.lastRelaySequence = :lastRelaySequence "
+            + "WHERE c.sinkName = :sinkName AND c.lastRelaySequence < :lastRelaySequence")
+    int advance(@Param("sinkName") String sinkName, @Param("lastRelaySequence") long lastRelaySequence);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM OutboxCheckpoint c WHERE c.sinkName = :sinkName")
+    Optional<OutboxCheckpoint> findByIdForUpdate(@Param("sinkName") String sinkName);
+
+    @Query("SELECT MIN(c.lastRelaySequence) FROM OutboxCheckpoint c")
+    Long findSlowestRelaySequence();
+}
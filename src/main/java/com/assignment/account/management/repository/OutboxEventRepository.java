@@ -0,0 +1,37 @@
+package com.assignment.account.management.repository;
+
+import com.assignment.account.management.entity.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    List<OutboxEvent> findByRelaySequenceIsNullOrderByEventIdAsc(Limit limit);
+
+    @Query("SELECT MAX(e.relaySequence) FROM OutboxEvent e")
+    Long findLastRelaySequence();
+
+    List<OutboxEvent> findByRelaySequenceGreaterThanOrderByRelaySequenceAsc(Long afterRelaySequence, Limit limit);
+
+    List<OutboxEvent> findByRelaySequenceBetweenOrderByRelaySequenceAsc(Long fromRelaySequence, Long toRelaySequence, Limit limit);
+
+    // Events the relay has not sequenced yet count as after any sequence
+    @Query("SELECT e.payload FROM OutboxEvent e WHERE e.eventType = :eventType "
+            + "AND (e.relaySequence IS NULL OR e.relaySequence > :afterRelaySequence)")
+    List<String> findPayloadsByEventTypeAfter(@Param("eventType") String eventType,
+                                              @Param("afterRelaySequence") long afterRelaySequence);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.relaySequence <= :relayedSequence AND e.createdAt < :before")
+    int deleteRelayed(@Param("relayedSequence") long relayedSequence, @Param("before") LocalDateTime before);
+}
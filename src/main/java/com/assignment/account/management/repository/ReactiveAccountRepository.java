@@ -0,0 +1,26 @@
+package com.assignment.account.management.repository;
+
+import com.assignment.account.management.entity.AccountRecord;
+import com.assignment.account.management.entity.Money;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+@Repository
+public interface ReactiveAccountRepository extends R2dbcRepository<AccountRecord, Long> {
+
+    @Query("SELECT * FROM account WHERE account_id = :accountId FOR UPDATE")
+    Mono<AccountRecord> findByIdForUpdate(Long accountId);
+
+    // The account row plus its balance buckets, read in one statement
+    @Query("SELECT a.current_balance + COALESCE((SELECT SUM(b.balance) FROM account_balance_bucket b "
+            + "WHERE b.account_id = a.account_id), 0) FROM account a WHERE a.account_id = :accountId")
+    Mono<BigDecimal> findTotalBalanceAmount(Long accountId);
+
+    default Mono<Money> findTotalBalance(Long accountId) {
+        return findTotalBalanceAmount(accountId).map(Money::of);
+    }
+}
@@ -0,0 +1,24 @@
+package com.assignment.account.management.repository;
+
+import com.assignment.account.management.entity.Money;
+import com.assignment.account.management.entity.TransactionRecord;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Repository
+public interface ReactiveTransactionRepository extends R2dbcRepository<TransactionRecord, Long> {
+
+    @Query("SELECT COALESCE(SUM(amount), 0) FROM transaction WHERE account_id = :accountId AND type = 'out' "
+            + "AND timestamp >= :start AND timestamp < :end")
+    Mono<BigDecimal> findTotalWithdrawalsBetween(Long accountId, LocalDateTime start, LocalDateTime end);
+
+    default Mono<Money> findTotalWithdrawalsForToday(Long accountId, LocalDate date) {
+        return findTotalWithdrawalsBetween(accountId, date.atStartOfDay(), date.plusDays(1).atStartOfDay()).map(Money::of);
+    }
+}
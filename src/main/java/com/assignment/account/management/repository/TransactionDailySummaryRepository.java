@@ -0,0 +1,21 @@
+package com.assignment.account.management.repository;
+
+import com.assignment.account.management.entity.TransactionDailySummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface TransactionDailySummaryRepository extends JpaRepository<TransactionDailySummary, TransactionDailySummary.Key> {
+
+    List<TransactionDailySummary> findByAccountIdAndSummaryDateBetweenOrderBySummaryDateAsc(Long accountId, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM TransactionDailySummary s WHERE s.summaryDate = :summaryDate")
+    int deleteBySummaryDate(@Param("summaryDate") LocalDate summaryDate);
+}
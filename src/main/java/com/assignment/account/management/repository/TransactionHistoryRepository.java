@@ -0,0 +1,20 @@
+package com.assignment.account.management.repository;
+
+import com.assignment.account.management.entity.TransactionHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface TransactionHistoryRepository extends JpaRepository<TransactionHistory, Long> {
+
+    // Served by the (account_id, snapshot_at) unique index
+    Optional<TransactionHistory> findFirstByAccountIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(Long accountId,
+                                                                                                     LocalDateTime asOf);
+
+    @Query("SELECT MAX(h.snapshotAt) FROM TransactionHistory h")
+    Optional<LocalDateTime> findLatestSnapshotAt();
+}
@@ -1,27 +1,148 @@
 package com.assignment.account.management.repository;
 
+import com.assignment.account.management.dto.TransactionDetails;
+import com.assignment.account.management.entity.Money;
 import com.assignment.account.management.entity.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
-    Page<Transaction> findByAccountIdAndType(Long accountId, String type, Pageable pageable);
+    // History pages are read straight into TransactionDetails, so no managed entities are created or dirty-checked.
+    // The casts hand over the columns' BigDecimal as read, without going through Money.
+    String DETAILS = "SELECT new com.assignment.account.management.dto.TransactionDetails("
+            + "t.transactionId, CAST(t.amount AS BigDecimal), t.type, t.timestamp, CAST(t.balanceAfterTransaction AS BigDecimal)) "
+            + "FROM Transaction t ";
 
-    Page<Transaction> findByAccountIdAndTimestampBetween(Long accountId, LocalDateTime start, LocalDateTime end, Pageable pageable);
+    Page<Transaction> findByAccountId(Long accountId, Pageable pageable);
 
-    Page<Transaction> findByAccountIdAndTypeAndTimestampBetween(Long accountId, String type, LocalDateTime start, LocalDateTime end, Pageable pageable);
+    // Read off idx_transaction_account; null for an account without transactions
+    @Query("SELECT MAX(t.transactionId) FROM Transaction t WHERE t.accountId = :accountId")
+    Long findLastTransactionId(@Param("accountId") Long accountId);
 
-    Page<Transaction> findByAccountId(Long accountId, Pageable pageable);
+    @Query(value = DETAILS + "WHERE t.accountId = :accountId",
+            countQuery = "SELECT COUNT(t) FROM Transaction t WHERE t.accountId = :accountId")
+    Page<TransactionDetails> findDetailsByAccountId(@Param("accountId") Long accountId, Pageable pageable);
+
+    @Query(value = DETAILS + "WHERE t.accountId = :accountId AND t.type = :type",
+            countQuery = "SELECT COUNT(t) FROM Transaction t WHERE t.accountId = :accountId AND t.type = :type")
+    Page<TransactionDetails> findDetailsByAccountIdAndType(@Param("accountId") Long accountId, @Param("type") String type,
+                                                           Pageable pageable);
+
+    @Query(value = DETAILS + "WHERE t.accountId = :accountId AND t.timestamp BETWEEN :start AND :end",
+            countQuery = "SELECT COUNT(t) FROM Transaction t WHERE t.accountId = :accountId AND t.timestamp BETWEEN :start AND :end")
+    Page<TransactionDetails> findDetailsByAccountIdAndTimestampBetween(@Param("accountId") Long accountId, @Param("start") LocalDateTime start,
+                                                                       @Param("end") LocalDateTime end, Pageable pageable);
+
+    @Query(value = DETAILS + "WHERE t.accountId = :accountId AND t.type = :type AND t.timestamp BETWEEN :start AND :end",
+            countQuery = "SELECT COUNT(t) FROM Transaction t "
+                    + "WHERE t.accountId = :accountId AND t.type = :type AND t.timestamp BETWEEN :start AND :end")
+    Page<TransactionDetails> findDetailsByAccountIdAndTypeAndTimestampBetween(@Param("accountId") Long accountId, @Param("type") String type,
+                                                                              @Param("start") LocalDateTime start,
+                                                                              @Param("end") LocalDateTime end, Pageable pageable);
+
+    @Query(DETAILS + "WHERE t.accountId = :accountId AND t.transactionId < :transactionId")
+    Slice<TransactionDetails> findDetailsByAccountIdAndTransactionIdLessThan(@Param("accountId") Long accountId,
+                                                                             @Param("transactionId") Long transactionId, Pageable pageable);
+
+    @Query(DETAILS + "WHERE t.accountId = :accountId AND t.type = :type AND t.transactionId < :transactionId")
+    Slice<TransactionDetails> findDetailsByAccountIdAndTypeAndTransactionIdLessThan(@Param("accountId") Long accountId, @Param("type") String type,
+                                                                                    @Param("transactionId") Long transactionId, Pageable pageable);
+
+    @Query(DETAILS + "WHERE t.accountId = :accountId AND t.timestamp BETWEEN :start AND :end AND t.transactionId < :transactionId")
+    Slice<TransactionDetails> findDetailsByAccountIdAndTimestampBetweenAndTransactionIdLessThan(@Param("accountId") Long accountId,
+                                                                                                @Param("start") LocalDateTime start,
+                                                                                                @Param("end") LocalDateTime end,
+                                                                                                @Param("transactionId") Long transactionId,
+                                                                                                Pageable pageable);
+
+    @Query(DETAILS + "WHERE t.accountId = :accountId AND t.type = :type AND t.timestamp BETWEEN :start AND :end "
+            + "AND t.transactionId < :transactionId")
+    Slice<TransactionDetails> findDetailsByAccountIdAndTypeAndTimestampBetweenAndTransactionIdLessThan(@Param("accountId") Long accountId,
+                                                                                                       @Param("type") String type,
+                                                                                                       @Param("start") LocalDateTime start,
+                                                                                                       @Param("end") LocalDateTime end,
+                                                                                                       @Param("transactionId") Long transactionId,
+                                                                                                       Pageable pageable);
+
+    // Forward-only streams for exports; the fetch size keeps the driver from buffering the whole result
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<Transaction> streamByAccountIdOrderByTransactionIdAsc(Long accountId);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<Transaction> streamByAccountIdAndTypeOrderByTransactionIdAsc(Long accountId, String type);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<Transaction> streamByAccountIdAndTimestampBetweenOrderByTransactionIdAsc(Long accountId, LocalDateTime start, LocalDateTime end);
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<Transaction> streamByAccountIdAndTypeAndTimestampBetweenOrderByTransactionIdAsc(Long accountId, String type,
+                                                                                          LocalDateTime start, LocalDateTime end);
+
+    // Range predicate on the raw column so idx_transaction_account_type_timestamp can be used
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.accountId = :accountId AND t.type = 'out' AND t.timestamp >= :start AND t.timestamp < :end")
+    BigDecimal findTotalWithdrawalsBetween(@Param("accountId") Long accountId, @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    // Net effect on the balance of an account's transactions in (after, upTo], read off idx_transaction_account_timestamp
+    @Query("SELECT COALESCE(SUM(CASE WHEN LOWER(t.type) = 'out' THEN -t.amount ELSE t.amount END), 0) FROM Transaction t "
+            + "WHERE t.accountId = :accountId AND t.timestamp > :after AND t.timestamp <= :upTo")
+    BigDecimal findNetAmountBetween(@Param("accountId") Long accountId, @Param("after") LocalDateTime after,
+                                    @Param("upTo") LocalDateTime upTo);
+
+    @Query("SELECT COALESCE(SUM(CASE WHEN LOWER(t.type) = 'out' THEN -t.amount ELSE t.amount END), 0) FROM Transaction t "
+            + "WHERE t.accountId = :accountId AND t.timestamp <= :upTo")
+    BigDecimal findNetAmountUpTo(@Param("accountId") Long accountId, @Param("upTo") LocalDateTime upTo);
+
+    @Query("SELECT DISTINCT t.accountId FROM Transaction t WHERE t.timestamp > :after AND t.timestamp <= :upTo")
+    List<Long> findAccountIdsWithTransactionsBetween(@Param("after") LocalDateTime after, @Param("upTo") LocalDateTime upTo);
+
+    // Counts and totals of the transactions in [start, end) per account, type and review flag, read off idx_transaction_timestamp
+    @Query("SELECT t.accountId AS accountId, LOWER(t.type) AS type, t.flaggedForReview AS flaggedForReview, "
+            + "COUNT(t) AS count, SUM(t.amount) AS amount FROM Transaction t WHERE t.timestamp >= :start AND t.timestamp < :end "
+            + "GROUP BY t.accountId, LOWER(t.type), t.flaggedForReview")
+    List<TransactionTotals> findTotalsBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    // Debits of the accounts since the given time, for the fraud review velocity check; types are stored in the case they were sent
+    @Query("SELECT t FROM Transaction t WHERE t.accountId IN :accountIds AND LOWER(t.type) = 'out' AND t.timestamp >= :since")
+    List<Transaction> findDebitsSince(@Param("accountIds") Collection<Long> accountIds, @Param("since") LocalDateTime since);
+
+    // Flagged postings in (after, upTo] that never made it into the review queue
+    @Query("SELECT t FROM Transaction t WHERE t.flaggedForReview = true AND t.timestamp > :after AND t.timestamp <= :upTo "
+            + "AND NOT EXISTS (SELECT r.transactionId FROM FraudReview r WHERE r.transactionId = t.transactionId)")
+    List<Transaction> findUnreviewedFlaggedBetween(@Param("after") LocalDateTime after, @Param("upTo") LocalDateTime upTo);
+
+    default Money findTotalWithdrawalsForToday(Long accountId, LocalDate date) {
+        return Money.of(findTotalWithdrawalsBetween(accountId, date.atStartOfDay(), date.plusDays(1).atStartOfDay()));
+    }
+
+    interface TransactionTotals {
+
+        Long getAccountId();
+
+        String getType();
+
+        boolean isFlaggedForReview();
+
+        long getCount();
 
-    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.accountId = :accountId AND t.type = 'out' AND DATE(t.timestamp) = :date")
-    BigDecimal findTotalWithdrawalsForToday(@Param("accountId") Long accountId, @Param("date") LocalDate date);
+        BigDecimal getAmount();
+    }
 }
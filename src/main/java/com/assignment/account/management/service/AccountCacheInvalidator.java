@@ -0,0 +1,20 @@
+package com.assignment.account.management.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+public class AccountCacheInvalidator {
+
+    private final EncodedResponseCache encodedResponseCache;
+
+    public AccountCacheInvalidator(EncodedResponseCache encodedResponseCache) {
+        this.encodedResponseCache = encodedResponseCache;
+    }
+
+    // Runs after commit, so a read between eviction and commit cannot re-cache the old balance
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        encodedResponseCache.evict(event.accountId());
+    }
+}
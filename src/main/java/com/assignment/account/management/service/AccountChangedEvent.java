@@ -0,0 +1,5 @@
+package com.assignment.account.management.service;
+
+// Published whenever an account row changes; listeners run after the change commits
+public record AccountChangedEvent(Long accountId) {
+}
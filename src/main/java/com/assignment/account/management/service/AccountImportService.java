@@ -0,0 +1,436 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.AccountCreateRequest;
+import com.assignment.account.management.dto.AccountImportFailure;
+import com.assignment.account.management.dto.AccountImportProgress;
+import com.assignment.account.management.dto.ExportFormat;
+import com.assignment.account.management.entity.Account;
+import com.assignment.account.management.entity.Money;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk account onboarding from an NDJSON or CSV file. The file is read one line at a time and
+ * each row is validated against the {@link AccountCreateRequest} constraints; valid rows are
+ * grouped into batches that worker threads insert with one JDBC batch and one commit each,
+ * spreading batches round-robin over the shards. At most two batches per worker are in flight,
+ * so memory stays constant whatever the size of the file. Failures and progress are written to
+ * the report as NDJSON while the import runs.
+ */
+@Service
+@Slf4j
+public class AccountImportService {
+
+    static final String CSV_HOLDER_NAME = "accountHolderName";
+
+    static final String CSV_INITIAL_BALANCE = "initialBalance";
+
+    private static final String INSERT_ACCOUNT = "INSERT INTO account (created_date, initial_balance, current_balance, status, "
+            + "account_holder_name, daily_withdrawal_date, daily_withdrawal_total, balance_buckets, version) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, 0, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AccountShards accountShards;
+
+    private final TransactionOutbox transactionOutbox;
+
+    private final Validator validator;
+
+    private final ObjectMapper objectMapper;
+
+    private final int batchSize;
+
+    private final int workers;
+
+    private final Counter importedRows;
+
+    private final Counter failedRows;
+
+    public AccountImportService(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            AccountShards accountShards,
+            TransactionOutbox transactionOutbox,
+            Validator validator,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${account.import.batch.size}") int batchSize,
+            @Value("${account.import.workers}") int workers) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.accountShards = accountShards;
+        this.transactionOutbox = transactionOutbox;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.workers = workers;
+        this.importedRows = rows(meterRegistry, "imported");
+        this.failedRows = rows(meterRegistry, "failed");
+    }
+
+    // Returns the final progress record, which is also the last line of the report
+    public AccountImportProgress importAccounts(InputStream inputStream, ExportFormat format, OutputStream reportStream)
+            throws IOException {
+        long started = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        ImportReport report = new ImportReport(objectMapper.getFactory().createGenerator(reportStream));
+        long lineNumber = 0;
+        RowParser parser;
+        if (format == ExportFormat.CSV) {
+            lineNumber++;
+            report.lineRead();
+            try {
+                parser = new CsvRowParser(reader.readLine());
+            } catch (IllegalArgumentException ex) {
+                report.failed(lineNumber, ex.getMessage());
+                AccountImportProgress result = report.complete();
+                report.rethrowIfBroken();
+                return result;
+            }
+        } else {
+            parser = new NdjsonRowParser();
+        }
+        Semaphore inFlight = new Semaphore(workers * 2);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(workers,
+                Thread.ofPlatform().name("account-import-", 0).daemon().factory())) {
+            List<ImportRow> batch = new ArrayList<>(batchSize);
+            String line;
+            while (!report.isBroken() && (line = reader.readLine()) != null) {
+                lineNumber++;
+                report.lineRead();
+                if (line.isBlank()) {
+                    continue;
+                }
+                ImportRow row = parseRow(parser, lineNumber, line, report);
+                if (row == null) {
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    submit(executor, inFlight, batch, report);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(executor, inFlight, batch, report);
+            }
+        }
+
+        AccountImportProgress result = report.complete();
+        log.info("Imported {} accounts from {} lines in {} ms, {} rows failed", result.getImported(), result.getLinesRead(),
+                (System.nanoTime() - started) / 1_000_000, result.getFailed());
+        report.rethrowIfBroken();
+        return result;
+    }
+
+    // Null when the row was rejected, which the report has been told about
+    private ImportRow parseRow(RowParser parser, long lineNumber, String line, ImportReport report) {
+        AccountCreateRequest request;
+        try {
+            request = parser.parse(line);
+        } catch (IllegalArgumentException ex) {
+            report.failed(lineNumber, ex.getMessage());
+            return null;
+        }
+        String violations = validator.validate(request).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(" "));
+        if (!violations.isEmpty()) {
+            report.failed(lineNumber, violations);
+            return null;
+        }
+        return new ImportRow(lineNumber, request);
+    }
+
+    // Blocks the reader while every worker already has a batch queued behind the one it is inserting
+    private void submit(ExecutorService executor, Semaphore inFlight, List<ImportRow> batch, ImportReport report) {
+        inFlight.acquireUninterruptibly();
+        int shard = accountShards.nextShard();
+        executor.execute(() -> {
+            try {
+                int inserted = accountShards.onShard(shard, () -> transactionTemplate.execute(status -> insert(batch)));
+                report.imported(inserted);
+            } catch (RuntimeException ex) {
+                log.warn("Import batch of lines {} to {} failed", batch.get(0).line(), batch.get(batch.size() - 1).line(), ex);
+                String error = "Batch insert failed: " + NestedExceptionUtils.getMostSpecificCause(ex).getMessage();
+                batch.forEach(row -> report.failed(row.line(), error));
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private int insert(List<ImportRow> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        List<Account> accounts = batch.stream().map(row -> toAccount(row.request(), now, today)).toList();
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_ACCOUNT, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        Account account = accounts.get(i);
+                        statement.setTimestamp(1, Timestamp.valueOf(account.getCreatedAt()));
+                        statement.setBigDecimal(2, account.getInitialBalance().toBigDecimal());
+                        statement.setBigDecimal(3, account.getCurrentBalance().toBigDecimal());
+                        statement.setString(4, account.getStatus());
+                        statement.setString(5, account.getAccountHolderName());
+                        statement.setDate(6, Date.valueOf(account.getDailyWithdrawalDate()));
+                        statement.setBigDecimal(7, account.getDailyWithdrawalTotal().toBigDecimal());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return accounts.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != accounts.size()) {
+            throw new IllegalStateException("Expected " + accounts.size() + " generated account ids, got " + keys.size());
+        }
+        for (int i = 0; i < accounts.size(); i++) {
+            accounts.get(i).setAccountId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+        transactionOutbox.accountsCreated(accounts);
+        return accounts.size();
+    }
+
+    // Mirrors AccountManagementService.createAccount
+    private static Account toAccount(AccountCreateRequest request, LocalDateTime now, LocalDate today) {
+        Account account = new Account();
+        account.setAccountHolderName(request.getAccountHolderName());
+        Money initialBalance = Money.of(request.getInitialBalance());
+        account.setInitialBalance(initialBalance);
+        account.setCurrentBalance(initialBalance);
+        account.setStatus("ACTIVE");
+        account.setDailyWithdrawalDate(today);
+        account.setDailyWithdrawalTotal(Money.ZERO);
+        account.setCreatedAt(now);
+        return account;
+    }
+
+    private static Counter rows(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("account.import.rows")
+                .description("Rows of account import files, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record ImportRow(long line, AccountCreateRequest request) {
+    }
+
+    // Throws IllegalArgumentException for a malformed row
+    private interface RowParser {
+        AccountCreateRequest parse(String line);
+    }
+
+    private class NdjsonRowParser implements RowParser {
+
+        private final ObjectReader reader = objectMapper.readerFor(AccountCreateRequest.class);
+
+        @Override
+        public AccountCreateRequest parse(String line) {
+            try {
+                AccountCreateRequest request = reader.readValue(line);
+                if (request == null) {
+                    throw new IllegalArgumentException("Expected a JSON object.");
+                }
+                return request;
+            } catch (JsonProcessingException ex) {
+                throw new IllegalArgumentException("Malformed JSON: " + ex.getOriginalMessage());
+            }
+        }
+    }
+
+    // Columns are found by the header line, in any order; fields may be double-quoted, with "" for a quote
+    private static class CsvRowParser implements RowParser {
+
+        private final int holderNameColumn;
+
+        private final int initialBalanceColumn;
+
+        CsvRowParser(String header) {
+            List<String> columns = header != null ? fields(header.strip()) : List.of();
+            this.holderNameColumn = columns.indexOf(CSV_HOLDER_NAME);
+            this.initialBalanceColumn = columns.indexOf(CSV_INITIAL_BALANCE);
+            if (holderNameColumn < 0 || initialBalanceColumn < 0) {
+                throw new IllegalArgumentException("The CSV header must name the " + CSV_HOLDER_NAME + " and "
+                        + CSV_INITIAL_BALANCE + " columns.");
+            }
+        }
+
+        @Override
+        public AccountCreateRequest parse(String line) {
+            List<String> fields = fields(line);
+            if (fields.size() <= Math.max(holderNameColumn, initialBalanceColumn)) {
+                throw new IllegalArgumentException("Expected at least " + (Math.max(holderNameColumn, initialBalanceColumn) + 1)
+                        + " fields, found " + fields.size() + ".");
+            }
+            AccountCreateRequest request = new AccountCreateRequest();
+            request.setAccountHolderName(fields.get(holderNameColumn));
+            String initialBalance = fields.get(initialBalanceColumn).trim();
+            if (!initialBalance.isEmpty()) {
+                try {
+                    request.setInitialBalance(new BigDecimal(initialBalance));
+                } catch (NumberFormatException ex) {
+                    throw new IllegalArgumentException("Initial balance is not a number: " + initialBalance);
+                }
+            }
+            return request;
+        }
+
+        private static List<String> fields(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted field.");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    /**
+     * NDJSON report shared by the reader and the workers. A progress record follows every committed
+     * batch. Once the client stops reading, writing stops and the import winds down.
+     */
+    private class ImportReport {
+
+        private final JsonGenerator generator;
+
+        private final AtomicLong linesRead = new AtomicLong();
+
+        private final AtomicLong imported = new AtomicLong();
+
+        private final AtomicLong failed = new AtomicLong();
+
+        private volatile IOException broken;
+
+        ImportReport(JsonGenerator generator) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator = generator;
+        }
+
+        void lineRead() {
+            linesRead.incrementAndGet();
+        }
+
+        void imported(int count) {
+            importedRows.increment(count);
+            imported.addAndGet(count);
+            write(progress(false));
+        }
+
+        void failed(long line, String error) {
+            failedRows.increment();
+            failed.incrementAndGet();
+            write(AccountImportFailure.builder().line(line).error(error).build());
+        }
+
+        AccountImportProgress complete() {
+            AccountImportProgress progress = progress(true);
+            write(progress);
+            return progress;
+        }
+
+        boolean isBroken() {
+            return broken != null;
+        }
+
+        void rethrowIfBroken() throws IOException {
+            if (broken != null) {
+                throw broken;
+            }
+        }
+
+        private AccountImportProgress progress(boolean complete) {
+            return AccountImportProgress.builder()
+                    .linesRead(linesRead.get())
+                    .imported(imported.get())
+                    .failed(failed.get())
+                    .complete(complete)
+                    .build();
+        }
+
+        private synchronized void write(Object record) {
+            if (broken != null) {
+                return;
+            }
+            try {
+                generator.writeObject(record);
+                generator.writeRaw('\n');
+                generator.flush();
+            } catch (IOException ex) {
+                broken = ex;
+            }
+        }
+    }
+}
@@ -2,24 +2,47 @@ package com.assignment.account.management.service;
 
 import com.assignment.account.management.dto.*;
 import com.assignment.account.management.entity.Account;
+import com.assignment.account.management.entity.IdempotencyKey;
+import com.assignment.account.management.entity.Money;
 import com.assignment.account.management.entity.Transaction;
 import com.assignment.account.management.exception.AccountNotFoundException;
+import com.assignment.account.management.exception.BalanceOutOfRangeException;
+import com.assignment.account.management.exception.ConcurrentPostingException;
+import com.assignment.account.management.exception.IdempotencyKeyReusedException;
 import com.assignment.account.management.exception.InsufficientFundsException;
+import com.assignment.account.management.exception.InvalidCursorException;
 import com.assignment.account.management.repository.AccountRepository;
 import com.assignment.account.management.repository.TransactionRepository;
-import jakarta.transaction.Transactional;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
@@ -30,161 +53,638 @@ public class AccountManagementService {
 
     private final TransactionRepository transactionRepository;
 
-    private final BigDecimal dailyWithdrawalLimit;
+    private final TransactionPostingEngine postingEngine;
+
+    private final Money dailyWithdrawalLimit;
+
+    private final int batchAccountsPerTransaction;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TransactionMetrics transactionMetrics;
+
+    private final IdempotencyStore idempotencyStore;
+
+    // Present only when transaction.posting.mode=journal
+    private final JournaledPostingEngine journaledPostingEngine;
+
+    private final AccountShards accountShards;
+
+    private final TransactionOutbox transactionOutbox;
+
+    private final BalanceBuckets balanceBuckets;
 
     public AccountManagementService(
             AccountRepository accountRepository,
             TransactionRepository transactionRepository,
-            @Value("${transaction.daily.withdrawal.limit}") BigDecimal dailyWithdrawalLimit) {
+            TransactionPostingEngine postingEngine,
+            ApplicationEventPublisher eventPublisher,
+            TransactionMetrics transactionMetrics,
+            IdempotencyStore idempotencyStore,
+            @Nullable JournaledPostingEngine journaledPostingEngine,
+            AccountShards accountShards,
+            TransactionOutbox transactionOutbox,
+            BalanceBuckets balanceBuckets,
+            @Value("${transaction.daily.withdrawal.limit}") BigDecimal dailyWithdrawalLimit,
+            @Value("${transaction.batch.accounts.per.transaction}") int batchAccountsPerTransaction) {
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
-        this.dailyWithdrawalLimit = dailyWithdrawalLimit;
+        this.postingEngine = postingEngine;
+        this.dailyWithdrawalLimit = Money.of(dailyWithdrawalLimit);
+        this.batchAccountsPerTransaction = batchAccountsPerTransaction;
+        this.eventPublisher = eventPublisher;
+        this.transactionMetrics = transactionMetrics;
+        this.idempotencyStore = idempotencyStore;
+        this.journaledPostingEngine = journaledPostingEngine;
+        this.accountShards = accountShards;
+        this.transactionOutbox = transactionOutbox;
+        this.balanceBuckets = balanceBuckets;
     }
 
+    // The account and its outbox event commit together
+    @Transactional
     public AccountCreateResponse createAccount(AccountCreateRequest accountCreateRequest) {
         Account account = new Account();
 
         account.setAccountHolderName(accountCreateRequest.getAccountHolderName());
-        account.setInitialBalance(accountCreateRequest.getInitialBalance());
-        account.setCurrentBalance(accountCreateRequest.getInitialBalance());
+        Money initialBalance = Money.of(accountCreateRequest.getInitialBalance());
+        account.setInitialBalance(initialBalance);
+        account.setCurrentBalance(initialBalance);
         account.setStatus("ACTIVE");
+        account.setDailyWithdrawalDate(LocalDate.now());
+        account.setDailyWithdrawalTotal(Money.ZERO);
 
-        Account savedAccount = accountRepository.save(account);
+        Account savedAccount = accountShards.onShard(accountShards.nextShard(), () -> {
+            Account saved = accountRepository.save(account);
+            transactionOutbox.accountCreated(saved);
+            return saved;
+        });
+        eventPublisher.publishEvent(new AccountChangedEvent(savedAccount.getAccountId()));
 
         return AccountCreateResponse.builder().accountId(savedAccount.getAccountId())
                 .accountHolderName(savedAccount.getAccountHolderName())
-                .balance(savedAccount.getCurrentBalance())
+                .balance(savedAccount.getCurrentBalance().toBigDecimal())
                 .status(savedAccount.getStatus())
                 .build();
 
     }
 
     public AccountSearchResponse getAccountDetails(Long accountId) {
-        Account account = accountRepository.findById(accountId)
+        Account account = accountShards.on(accountId, () -> accountRepository.findById(accountId))
                 .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + accountId));
+        Money balance = accountShards.on(accountId, () -> balanceBuckets.balanceOf(account));
 
         return AccountSearchResponse.builder()
                 .accountId(account.getAccountId())
                 .accountHolderName(account.getAccountHolderName())
-                .balance(account.getCurrentBalance())
+                .balance(balance.toBigDecimal())
                 .status(account.getStatus())
                 .build();
     }
 
 
-    public void  updateAccount(Long accountId, AccountUpdateRequest accountUpdateRequest) {
+    // Sequenced with the account's postings, whose version bumps would otherwise fail the save
+    public void updateAccount(Long accountId, AccountUpdateRequest accountUpdateRequest) {
+        String accountHolderName = accountUpdateRequest.getAccountHolderName();
+        if (journaledPostingEngine != null) {
+            accountShards.on(accountId, () -> journaledPostingEngine.update(accountId, ledgerAccount -> {
+                ledgerAccount.setAccountHolderName(accountHolderName);
+                return rename(accountId, accountHolderName);
+            }));
+        } else {
+            accountShards.on(accountId, () -> postingEngine.execute(accountId, () -> rename(accountId, accountHolderName)));
+        }
+        eventPublisher.publishEvent(new AccountChangedEvent(accountId));
+    }
 
+    private Account rename(Long accountId, String accountHolderName) {
         Account account = accountRepository.findById(accountId)
-                    .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + accountId));
-            account.setAccountHolderName(accountUpdateRequest.getAccountHolderName());
-            accountRepository.save(account);
-
+                .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + accountId));
+        account.setAccountHolderName(accountHolderName);
+        return accountRepository.save(account);
     }
 
+    // Sequenced with the account's postings, so the event carries the balance they leave
     public void suspendAccount(Long accountId) {
-        Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + accountId));
+        if (journaledPostingEngine != null) {
+            // The row's balance trails the ledger's until the flusher catches up, so only its status is written
+            accountShards.on(accountId, () -> journaledPostingEngine.update(accountId, ledgerAccount -> {
+                Account account = accountRepository.findById(accountId)
+                        .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + accountId));
+                account.setStatus("SUSPENDED");
+                ledgerAccount.setStatus("SUSPENDED");
+                transactionOutbox.accountSuspended(ledgerAccount);
+                return accountRepository.save(account);
+            }));
+        } else {
+            accountShards.on(accountId, () -> postingEngine.execute(accountId, () -> {
+                // Buckets are folded in, so the event carries the whole balance
+                Account account = findAccountForPosting(accountId)
+                        .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + accountId));
+                account.setStatus("SUSPENDED");
+                transactionOutbox.accountSuspended(account);
+                return accountRepository.save(account);
+            }));
+        }
+        eventPublisher.publishEvent(new AccountChangedEvent(accountId));
+    }
 
-        account.setStatus("SUSPENDED");
-        accountRepository.save(account);
+    /**
+     * Puts the account in high-volume mode with the given number of balance buckets, or takes it
+     * out with 0. Whatever the buckets hold moves to the account row first, so the balance is unchanged.
+     */
+    public void setBalanceBuckets(Long accountId, int buckets) {
+        if (journaledPostingEngine != null) {
+            // The journal's ledger already keeps postings off the account row
+            throw new IllegalStateException("Balance buckets need transaction.posting.mode=direct");
+        }
+        accountShards.on(accountId, () -> postingEngine.execute(accountId, () -> {
+            Account account = findAccountForPosting(accountId)
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + accountId));
+            balanceBuckets.resize(account, buckets);
+            return accountRepository.save(account);
+        }));
+        eventPublisher.publishEvent(new AccountChangedEvent(accountId));
     }
 
-    @Transactional
     public TransactionResponse processTransaction(Long accountId, TransactionRequest transactionRequest) {
+        return processTransaction(accountId, transactionRequest, null);
+    }
+
+    public TransactionResponse processTransaction(Long accountId, TransactionRequest transactionRequest, String idempotencyKey) {
+        return accountShards.on(accountId, () -> processOnShard(accountId, transactionRequest, idempotencyKey));
+    }
+
+    private TransactionResponse processOnShard(Long accountId, TransactionRequest transactionRequest, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            IdempotencyStore.validate(idempotencyKey);
+            // A retry this node already answered costs one in-memory lookup and no database round trip
+            TransactionResponse previous = idempotencyStore.find(idempotencyKey);
+            if (previous != null) {
+                return replay(accountId, transactionRequest, previous);
+            }
+        }
+        if (journaledPostingEngine != null) {
+            TransactionResponse response = postToJournal(accountId, transactionRequest, idempotencyKey);
+            journaledPostingEngine.awaitDurable();
+            return response;
+        }
+        // Serialized per account, retried on optimistic lock conflicts
+        try {
+            int bucket = "in".equalsIgnoreCase(transactionRequest.getType()) ? balanceBuckets.pickBucket(accountId) : -1;
+            if (bucket >= 0) {
+                TransactionResponse response = postingEngine.execute(accountId, bucket,
+                        () -> postToBucket(accountId, bucket, transactionRequest, idempotencyKey));
+                // Null when the bucket was gone, the account having been resized elsewhere
+                if (response != null) {
+                    return response;
+                }
+            }
+            return postingEngine.execute(accountId, () -> postTransaction(accountId, transactionRequest, idempotencyKey));
+        } catch (InsufficientFundsException ex) {
+            transactionMetrics.insufficientFunds(1);
+            throw ex;
+        } catch (ConcurrentPostingException ex) {
+            transactionMetrics.concurrentUpdate();
+            throw ex;
+        } catch (DataIntegrityViolationException ex) {
+            // A retry on another node committed the same key first and the duplicate key rolled this one back
+            if (idempotencyKey == null) {
+                throw ex;
+            }
+            return replayStored(accountId, transactionRequest, idempotencyKey, ex);
+        }
+    }
+
+    public BatchTransactionResponse processTransactions(BatchTransactionRequest batchTransactionRequest) {
+        List<BatchTransactionItem> items = batchTransactionRequest.getTransactions();
+
+        BatchTransactionResult[] results = new BatchTransactionResult[items.size()];
+        if (journaledPostingEngine != null) {
+            // Appended item by item and made durable with a single sync for the whole request
+            for (int index = 0; index < items.size(); index++) {
+                BatchTransactionItem item = items.get(index);
+                try {
+                    results[index] = BatchTransactionResult.builder()
+                            .index(index)
+                            .accountId(item.getAccountId())
+                            .status(BatchTransactionResult.PROCESSED)
+                            .transaction(postToJournal(item.getAccountId(), item, null))
+                            .build();
+                } catch (InsufficientFundsException | AccountNotFoundException | IllegalArgumentException
+                         | BalanceOutOfRangeException | ConcurrentPostingException ex) {
+                    results[index] = failedResult(index, item, ex.getMessage());
+                }
+            }
+            journaledPostingEngine.awaitDurable();
+            return batchResponse(results);
+        }
+
+        // Group item positions per account, keeping each account's postings in request order
+        Map<Long, List<Integer>> itemsByAccount = new LinkedHashMap<>();
+        for (int index = 0; index < items.size(); index++) {
+            itemsByAccount.computeIfAbsent(items.get(index).getAccountId(), id -> new ArrayList<>()).add(index);
+        }
+
+        // Chunks never span shards, so each database transaction stays on one
+        Map<Integer, List<Long>> accountsByShard = itemsByAccount.keySet().stream()
+                .collect(Collectors.groupingBy(accountShards::shardOf, TreeMap::new, Collectors.toList()));
+        accountsByShard.forEach((shard, accountIds) -> {
+            for (int from = 0; from < accountIds.size(); from += batchAccountsPerTransaction) {
+                List<Long> chunk = accountIds.subList(from, Math.min(from + batchAccountsPerTransaction, accountIds.size()));
+                try {
+                    accountShards.onShard(shard, () -> postingEngine.execute(chunk, () -> postBatch(chunk, itemsByAccount, items)))
+                            .forEach((index, result) -> results[index] = result);
+                } catch (ConcurrentPostingException ex) {
+                    transactionMetrics.concurrentUpdate();
+                    chunk.forEach(accountId -> itemsByAccount.get(accountId)
+                            .forEach(index -> results[index] = failedResult(index, items.get(index), ex.getMessage())));
+                }
+            }
+        });
+
+        return batchResponse(results);
+    }
+
+    private BatchTransactionResponse batchResponse(BatchTransactionResult[] results) {
+        int failed = (int) Arrays.stream(results).filter(result -> BatchTransactionResult.FAILED.equals(result.getStatus())).count();
+        return BatchTransactionResponse.builder()
+                .results(Arrays.asList(results))
+                .processed(results.length - failed)
+                .failed(failed)
+                .build();
+    }
+
+    private TransactionResponse postTransaction(Long accountId, TransactionRequest transactionRequest, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            // A concurrent retry on this node waited on the account stripe and finds the first response here
+            TransactionResponse previous = idempotencyStore.find(idempotencyKey);
+            if (previous != null) {
+                return replay(accountId, transactionRequest, previous);
+            }
+        }
+
         // Fetch the account details
-        Account account = accountRepository.findById(accountId)
+        Account account = findAccountForPosting(accountId)
                 .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + accountId));
 
-        // Check transaction type and process accordingly
-        boolean flaggedForReview = false;
-        BigDecimal newBalance = account.getCurrentBalance();
-        if ("in".equalsIgnoreCase(transactionRequest.getType())) {
-            newBalance = newBalance.add(transactionRequest.getAmount());
-        } else if ("out".equalsIgnoreCase(transactionRequest.getType())) {
-            if (newBalance.compareTo(transactionRequest.getAmount()) < 0) {
-                throw new InsufficientFundsException("Insufficient funds to process the transaction.");
+        Transaction transaction = applyPosting(account, transactionRequest);
+
+        // Update account balance and save the transaction record
+        accountRepository.save(account);
+        return recordPosting(accountId, transaction, idempotencyKey);
+    }
+
+    // A credit to a high-volume account changes one bucket row and leaves the account row alone
+    private TransactionResponse postToBucket(Long accountId, int bucket, TransactionRequest transactionRequest, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            TransactionResponse previous = idempotencyStore.find(idempotencyKey);
+            if (previous != null) {
+                return replay(accountId, transactionRequest, previous);
             }
+        }
 
-            BigDecimal dailyTotalWithdrawals = transactionRepository.findTotalWithdrawalsForToday(accountId, LocalDate.now());
-            BigDecimal newTotalWithdrawals = dailyTotalWithdrawals.add(transactionRequest.getAmount());
+        Money amount = Money.of(transactionRequest.getAmount());
+        // Includes every posting committed before this one; credits committing alongside it may be missing
+        Money newBalance = balanceBuckets.credit(accountId, bucket, amount);
+        if (newBalance == null) {
+            return null;
+        }
+        return recordPosting(accountId, newTransaction(accountId, transactionRequest.getType(), amount, newBalance, false),
+                idempotencyKey);
+    }
 
-            flaggedForReview = newTotalWithdrawals.compareTo(dailyWithdrawalLimit) > 0;
+    private TransactionResponse recordPosting(Long accountId, Transaction transaction, String idempotencyKey) {
+        transactionRepository.save(transaction);
+        transactionOutbox.transactionsPosted(List.of(transaction));
+        if (idempotencyKey != null) {
+            idempotencyStore.record(idempotencyKey, accountId, transaction.getTransactionId());
+        }
+        eventPublisher.publishEvent(new AccountChangedEvent(accountId));
+        if (transaction.isFlaggedForReview()) {
+            eventPublisher.publishEvent(FlaggedPostingEvent.of(transaction));
+        }
 
-            newBalance = newBalance.subtract(transactionRequest.getAmount());
-        } else {
-            throw new IllegalArgumentException("Invalid transaction type. Allowed types are 'in' or 'out'.");
+        TransactionResponse response = convertEntityToResponse(transaction);
+        // Counted and indexed on commit, so a posting retried after a lock conflict is seen once
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                transactionMetrics.posted(response.getType(), response.getFlaggedForReview());
+                if (idempotencyKey != null) {
+                    idempotencyStore.remember(idempotencyKey, response);
+                }
+            }
+        });
+        return response;
+    }
+
+    // Validated against the journal's in-memory ledger; the database catches up in the background
+    private TransactionResponse postToJournal(Long accountId, TransactionRequest transactionRequest, String idempotencyKey) {
+        try {
+            return journaledPostingEngine.execute(accountId, account -> {
+                if (idempotencyKey != null) {
+                    TransactionResponse previous = journaledResponse(idempotencyKey);
+                    if (previous != null) {
+                        return replay(accountId, transactionRequest, previous);
+                    }
+                }
+                Transaction transaction = applyPosting(account, transactionRequest);
+                journaledPostingEngine.append(account, transaction, idempotencyKey);
+                TransactionResponse response = convertEntityToResponse(transaction);
+                transactionMetrics.posted(response.getType(), response.getFlaggedForReview());
+                if (idempotencyKey != null) {
+                    idempotencyStore.remember(idempotencyKey, response);
+                }
+                return response;
+            });
+        } catch (InsufficientFundsException ex) {
+            transactionMetrics.insufficientFunds(1);
+            throw ex;
+        } catch (ConcurrentPostingException ex) {
+            transactionMetrics.concurrentUpdate();
+            throw ex;
         }
+    }
 
-        // Update account balance
-        account.setCurrentBalance(newBalance);
-        accountRepository.save(account);
+    // Without the primary key to catch a duplicate, a key is looked up in the journal and then in the database
+    private TransactionResponse journaledResponse(String idempotencyKey) {
+        TransactionResponse previous = idempotencyStore.find(idempotencyKey);
+        if (previous != null) {
+            return previous;
+        }
+        // Checked before the database, since the flusher records the key before it leaves the journal
+        Optional<JournalEntry> pending = journaledPostingEngine.pending(idempotencyKey);
+        if (pending.isPresent()) {
+            return convertEntityToResponse(pending.get().toTransaction());
+        }
+        Optional<IdempotencyKey> stored = ReplicaRouting.primary(() -> idempotencyStore.findRecord(idempotencyKey));
+        if (stored.isEmpty()) {
+            return null;
+        }
+        if (stored.get().getExpiresAt().isBefore(LocalDateTime.now())) {
+            idempotencyStore.releaseIfExpired(idempotencyKey);
+            return null;
+        }
+        return storedResponse(stored.get()).orElseThrow(() -> new IllegalStateException(
+                "Transaction " + stored.get().getTransactionId() + " of Idempotency-Key " + idempotencyKey + " not found"));
+    }
+
+    private TransactionResponse replayStored(Long accountId, TransactionRequest transactionRequest, String idempotencyKey,
+                                             DataIntegrityViolationException cause) {
+        // The conflicting key was committed on the primary moments ago
+        IdempotencyKey stored = ReplicaRouting.primary(() -> idempotencyStore.findRecord(idempotencyKey)).orElseThrow(() -> cause);
+        if (stored.getExpiresAt().isBefore(LocalDateTime.now())) {
+            // The key outlived its TTL before the purge job got to it, so this is a new posting
+            idempotencyStore.releaseIfExpired(idempotencyKey);
+            return processOnShard(accountId, transactionRequest, idempotencyKey);
+        }
+        return replay(accountId, transactionRequest, storedResponse(stored).orElseThrow(() -> cause));
+    }
+
+    private Optional<TransactionResponse> storedResponse(IdempotencyKey stored) {
+        Optional<TransactionResponse> previous = ReplicaRouting.primary(() -> transactionRepository.findById(stored.getTransactionId()))
+                .map(this::convertEntityToResponse);
+        previous.ifPresent(response -> idempotencyStore.remember(stored.getIdempotencyKey(), response));
+        return previous;
+    }
+
+    // Returns the original response, provided the retry asks for the same posting
+    private TransactionResponse replay(Long accountId, TransactionRequest transactionRequest, TransactionResponse previous) {
+        if (!previous.getAccountId().equals(accountId)
+                || previous.getAmount().compareTo(transactionRequest.getAmount()) != 0
+                || !previous.getType().equalsIgnoreCase(transactionRequest.getType())) {
+            throw new IdempotencyKeyReusedException("Idempotency-Key was already used for a different transaction.");
+        }
+        transactionMetrics.replayed();
+        return previous;
+    }
+
+    private Map<Integer, BatchTransactionResult> postBatch(List<Long> accountIds, Map<Long, List<Integer>> itemsByAccount,
+                                                          List<BatchTransactionItem> items) {
+        Map<Long, Account> accounts = findAccountsForPosting(accountIds).stream()
+                .collect(Collectors.toMap(Account::getAccountId, Function.identity()));
+
+        Map<Integer, BatchTransactionResult> results = new HashMap<>();
+        Map<Integer, Transaction> postedTransactions = new LinkedHashMap<>();
+        int insufficientFunds = 0;
+        for (Long accountId : accountIds) {
+            Account account = accounts.get(accountId);
+            for (Integer index : itemsByAccount.get(accountId)) {
+                BatchTransactionItem item = items.get(index);
+                if (account == null) {
+                    results.put(index, failedResult(index, item, "Account not found with ID: " + accountId));
+                    continue;
+                }
+                try {
+                    postedTransactions.put(index, applyPosting(account, item));
+                } catch (InsufficientFundsException ex) {
+                    insufficientFunds++;
+                    results.put(index, failedResult(index, item, ex.getMessage()));
+                } catch (IllegalArgumentException | BalanceOutOfRangeException ex) {
+                    results.put(index, failedResult(index, item, ex.getMessage()));
+                }
+            }
+        }
 
-        // Save the transaction in the transaction table
+        // One flush for the whole chunk, so the inserts go out as JDBC batches
+        accountRepository.saveAll(accounts.values());
+        transactionOutbox.transactionsPosted(transactionRepository.saveAll(postedTransactions.values()));
+
+        postedTransactions.values().stream().map(Transaction::getAccountId).distinct()
+                .forEach(accountId -> eventPublisher.publishEvent(new AccountChangedEvent(accountId)));
+        postedTransactions.values().stream().filter(Transaction::isFlaggedForReview)
+                .forEach(transaction -> eventPublisher.publishEvent(FlaggedPostingEvent.of(transaction)));
+
+        // Counted on commit, so a chunk retried after a lock conflict is not counted twice
+        int rejected = insufficientFunds;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                postedTransactions.values().forEach(transaction ->
+                        transactionMetrics.posted(transaction.getType(), transaction.isFlaggedForReview()));
+                transactionMetrics.insufficientFunds(rejected);
+            }
+        });
+
+        postedTransactions.forEach((index, transaction) -> results.put(index, BatchTransactionResult.builder()
+                .index(index)
+                .accountId(transaction.getAccountId())
+                .status(BatchTransactionResult.PROCESSED)
+                .transaction(convertEntityToResponse(transaction))
+                .build()));
+        return results;
+    }
+
+    // Validates the posting and applies it to the account, returning the unsaved transaction record
+    private Transaction applyPosting(Account account, TransactionRequest transactionRequest) {
+        LocalDate today = LocalDate.now();
+        Money amount = Money.of(transactionRequest.getAmount());
+        PostingOutcome outcome = PostingOutcome.apply(account.getCurrentBalance(), account.getDailyWithdrawalDate(),
+                account.getDailyWithdrawalTotal(), transactionRequest.getType(), amount, dailyWithdrawalLimit, today,
+                () -> dailyWithdrawalsSoFar(account, today));
+
+        // Saved with the balance, so the counter commits or rolls back with the posting
+        account.setDailyWithdrawalDate(outcome.dailyWithdrawalDate());
+        account.setDailyWithdrawalTotal(outcome.dailyWithdrawalTotal());
+        account.setCurrentBalance(outcome.newBalance());
+
+        return newTransaction(account.getAccountId(), transactionRequest.getType(), amount, outcome.newBalance(),
+                outcome.flaggedForReview());
+    }
+
+    private static Transaction newTransaction(Long accountId, String type, Money amount, Money balanceAfterTransaction,
+                                              boolean flaggedForReview) {
         Transaction transaction = new Transaction();
         transaction.setAccountId(accountId);
-        transaction.setAmount(transactionRequest.getAmount());
-        transaction.setType(transactionRequest.getType());
-        transaction.setTimestamp(LocalDateTime.now());
-        transaction.setBalanceAfterTransaction(newBalance);
+        transaction.setAmount(amount);
+        transaction.setType(type);
+        // Truncated to the column's precision, so a replayed response matches the original one
+        transaction.setTimestamp(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        transaction.setBalanceAfterTransaction(balanceAfterTransaction);
         transaction.setFlaggedForReview(flaggedForReview);
+        return transaction;
+    }
 
-        // Save the transaction record
-        transactionRepository.save(transaction);
-
-        // Return transaction details
+    private TransactionResponse convertEntityToResponse(Transaction transaction) {
         TransactionResponse response = new TransactionResponse();
-        response.setAccountId(accountId);
-        response.setAmount(transactionRequest.getAmount());
-        response.setType(transactionRequest.getType());
-        response.setTimestamp(LocalDateTime.now());
-        response.setNewBalance(newBalance);
-        response.setFlaggedForReview(flaggedForReview);
-
+        response.setAccountId(transaction.getAccountId());
+        response.setAmount(transaction.getAmount().toBigDecimal());
+        response.setType(transaction.getType());
+        response.setTimestamp(transaction.getTimestamp());
+        response.setNewBalance(transaction.getBalanceAfterTransaction().toBigDecimal());
+        response.setFlaggedForReview(transaction.isFlaggedForReview());
         return response;
     }
 
+    private BatchTransactionResult failedResult(int index, BatchTransactionItem item, String error) {
+        return BatchTransactionResult.builder()
+                .index(index)
+                .accountId(item.getAccountId())
+                .status(BatchTransactionResult.FAILED)
+                .error(error)
+                .build();
+    }
+
+    private Money dailyWithdrawalsSoFar(Account account, LocalDate today) {
+        if (account.getDailyWithdrawalDate() == null) {
+            // Accounts created before the running counter existed are seeded once from the ledger
+            return transactionRepository.findTotalWithdrawalsForToday(account.getAccountId(), today);
+        }
+        return today.equals(account.getDailyWithdrawalDate()) ? account.getDailyWithdrawalTotal() : Money.ZERO;
+    }
+
+    // Postings through the account row see the whole balance, the buckets of high-volume accounts folded in
+    private List<Account> findAccountsForPosting(List<Long> accountIds) {
+        List<Account> accounts = postingEngine.getLockMode() == TransactionPostingEngine.LockMode.PESSIMISTIC
+                ? accountRepository.findAllByIdForUpdate(accountIds)
+                : accountRepository.findAllById(accountIds);
+        accounts.forEach(balanceBuckets::fold);
+        return accounts;
+    }
+
+    private Optional<Account> findAccountForPosting(Long accountId) {
+        Optional<Account> account = postingEngine.getLockMode() == TransactionPostingEngine.LockMode.PESSIMISTIC
+                ? accountRepository.findByIdForUpdate(accountId)
+                : accountRepository.findById(accountId);
+        account.ifPresent(balanceBuckets::fold);
+        return account;
+    }
 
+    // Read-only so the session skips flushing; the repository returns TransactionDetails rather than entities
+    @Transactional(readOnly = true)
     public TransactionHistoryResponse getTransactionHistory(Long accountId, String transactionType,
                                                             LocalDateTime startDate, LocalDateTime endDate, int page, int size) {
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("transactionId").descending());
 
-        Page<Transaction> transactionPage;
+        Page<TransactionDetails> transactionPage = accountShards.on(accountId,
+                () -> findTransactionPage(accountId, transactionType, startDate, endDate, pageable));
+
+        return  TransactionHistoryResponse.builder()
+                .currentPage(transactionPage.getNumber())
+                .totalPages(transactionPage.getTotalPages())
+                .totalTransactions(transactionPage.getTotalElements())
+                .transactions(transactionPage.getContent()).build();
+    }
+
+    @Transactional(readOnly = true)
+    public TransactionHistoryResponse getTransactionHistoryByCursor(Long accountId, String transactionType,
+                                                                    LocalDateTime startDate, LocalDateTime endDate,
+                                                                    String cursor, int size) {
 
+        // Keyset paging: seek below the last seen transactionId instead of skipping rows, and skip the count
+        Long beforeTransactionId = cursor == null ? Long.MAX_VALUE : decodeCursor(cursor);
+        Pageable pageable = PageRequest.of(0, size, Sort.by("transactionId").descending());
+
+        Slice<TransactionDetails> transactionSlice = accountShards.on(accountId,
+                () -> findTransactionSlice(accountId, transactionType, startDate, endDate, beforeTransactionId, pageable));
+
+        List<TransactionDetails> transactionDetails = transactionSlice.getContent();
+
+        String nextCursor = transactionSlice.hasNext()
+                ? encodeCursor(transactionDetails.get(transactionDetails.size() - 1).getTransactionId())
+                : null;
+
+        return TransactionHistoryResponse.builder()
+                .hasNext(transactionSlice.hasNext())
+                .nextCursor(nextCursor)
+                .transactions(transactionDetails).build();
+    }
+
+    private Page<TransactionDetails> findTransactionPage(Long accountId, String transactionType,
+                                                         LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        if (startDate != null && endDate == null) {
+            endDate = LocalDateTime.now();
+        }
         if (transactionType == null && startDate != null) {
-            if(endDate == null) {
-                endDate = LocalDateTime.now();
-            }
-            transactionPage = transactionRepository.findByAccountIdAndTimestampBetween(
-                    accountId, startDate, endDate, pageable);
+            return transactionRepository.findDetailsByAccountIdAndTimestampBetween(accountId, startDate, endDate, pageable);
         } else if (transactionType != null && startDate != null) {
-            if(endDate == null) {
-                endDate = LocalDateTime.now();
-            }
-            transactionPage = transactionRepository.findByAccountIdAndTypeAndTimestampBetween(
+            return transactionRepository.findDetailsByAccountIdAndTypeAndTimestampBetween(
                     accountId, transactionType, startDate, endDate, pageable);
         } else if (transactionType != null) {
-            transactionPage = transactionRepository.findByAccountIdAndType(accountId, transactionType, pageable);
-        }  else {
-            transactionPage = transactionRepository.findByAccountId(accountId, pageable);
+            return transactionRepository.findDetailsByAccountIdAndType(accountId, transactionType, pageable);
         }
+        return transactionRepository.findDetailsByAccountId(accountId, pageable);
+    }
 
-        List<TransactionDetails> transactionDetails = transactionPage.getContent().stream()
-                .map(this::convertEntityToDto).toList();
+    private Slice<TransactionDetails> findTransactionSlice(Long accountId, String transactionType, LocalDateTime startDate,
+                                                           LocalDateTime endDate, Long beforeTransactionId, Pageable pageable) {
+        if (startDate != null && endDate == null) {
+            endDate = LocalDateTime.now();
+        }
+        if (transactionType == null && startDate != null) {
+            return transactionRepository.findDetailsByAccountIdAndTimestampBetweenAndTransactionIdLessThan(
+                    accountId, startDate, endDate, beforeTransactionId, pageable);
+        } else if (transactionType != null && startDate != null) {
+            return transactionRepository.findDetailsByAccountIdAndTypeAndTimestampBetweenAndTransactionIdLessThan(
+                    accountId, transactionType, startDate, endDate, beforeTransactionId, pageable);
+        } else if (transactionType != null) {
+            return transactionRepository.findDetailsByAccountIdAndTypeAndTransactionIdLessThan(
+                    accountId, transactionType, beforeTransactionId, pageable);
+        }
+        return transactionRepository.findDetailsByAccountIdAndTransactionIdLessThan(accountId, beforeTransactionId, pageable);
+    }
 
-        return  TransactionHistoryResponse.builder()
-                .currentPage(transactionPage.getNumber())
-                .totalPages(transactionPage.getTotalPages())
-                .totalTransactions(transactionPage.getTotalElements())
-                .transactions(transactionDetails).build();
+    static String encodeCursor(Long transactionId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(transactionId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static Long decodeCursor(String cursor) {
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
     }
 
-    private TransactionDetails convertEntityToDto(Transaction transaction) {
+    TransactionDetails convertEntityToDto(Transaction transaction) {
         return TransactionDetails.builder()
                 .transactionId(transaction.getTransactionId())
-                .amount(transaction.getAmount())
+                .amount(transaction.getAmount().toBigDecimal())
                 .timestamp(transaction.getTimestamp())
-                .balanceAfterTransaction(transaction.getBalanceAfterTransaction())
+                .balanceAfterTransaction(transaction.getBalanceAfterTransaction().toBigDecimal())
                 .type(transaction.getType())
                 .build();
     }
@@ -0,0 +1,101 @@
+package com.assignment.account.management.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Range partitioning of accounts across databases, enabled with account.sharding.enabled=true.
+ * Shard {@code n} owns account ids from {@code n * range.size}, which it hands out itself, and
+ * holds every transaction, idempotency key and snapshot of the accounts it owns. Work is routed
+ * by running it through {@link #on}: the routing datasource picks the shard when a transaction
+ * runs its first statement, so a database transaction stays on one shard for its whole life.
+ */
+@Component
+public class AccountShards {
+
+    private static final ThreadLocal<Route> CURRENT = new ThreadLocal<>();
+
+    private final int count;
+
+    private final long rangeSize;
+
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    public AccountShards(
+            @Value("${account.sharding.enabled}") boolean enabled,
+            @Value("${account.sharding.urls}") List<String> urls,
+            @Value("${account.sharding.range.size}") long rangeSize) {
+        // The primary datasource is shard 0, the listed databases follow it
+        this.count = enabled ? urls.size() + 1 : 1;
+        this.rangeSize = rangeSize;
+    }
+
+    // Shard the current thread is routed to; unrouted work goes to shard 0
+    public static int current() {
+        Route route = CURRENT.get();
+        return route != null ? route.shard() : 0;
+    }
+
+    // Account the current thread is routed for, null for shard-wide work
+    public static Long currentAccount() {
+        Route route = CURRENT.get();
+        return route != null ? route.accountId() : null;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    // The last shard also takes ids past the end of its range, so an unknown id is simply not found
+    public int shardOf(Long accountId) {
+        return (int) Math.min(Math.max(accountId, 0) / rangeSize, count - 1);
+    }
+
+    public long rangeStart(int shard) {
+        return shard * rangeSize;
+    }
+
+    // New accounts are spread round-robin
+    public int nextShard() {
+        return Math.floorMod(nextShard.getAndIncrement(), count);
+    }
+
+    public <T> T on(Long accountId, Supplier<T> action) {
+        return routed(new Route(shardOf(accountId), accountId), action);
+    }
+
+    public <T> T onShard(int shard, Supplier<T> action) {
+        return routed(new Route(shard, null), action);
+    }
+
+    // Fan-out for work that spans accounts, one shard after the other
+    public <T> List<T> onEveryShard(Supplier<T> action) {
+        List<T> results = new ArrayList<>(count);
+        for (int shard = 0; shard < count; shard++) {
+            results.add(onShard(shard, action));
+        }
+        return results;
+    }
+
+    private static <T> T routed(Route route, Supplier<T> action) {
+        Route previous = CURRENT.get();
+        CURRENT.set(route);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    private record Route(int shard, Long accountId) {
+    }
+}
@@ -0,0 +1,112 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.entity.Account;
+import com.assignment.account.management.entity.BalanceBucket;
+import com.assignment.account.management.entity.Money;
+import com.assignment.account.management.repository.BalanceBucketRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sub-balances of high-volume accounts. A credit to such an account adds to one of its buckets,
+ * picked at random, and leaves the account row alone, so concurrent credits queue per bucket
+ * instead of on one row. Anything that checks or rewrites the balance on the account row first
+ * folds the buckets into it while holding their row locks; the buckets only ever grow between
+ * folds, so a debit checked against the folded balance cannot overdraw the account.
+ */
+@Component
+public class BalanceBuckets {
+
+    private final BalanceBucketRepository balanceBucketRepository;
+
+    // Bucket counts of the high-volume accounts this node has seen; a stale count only sends a
+    // credit down the account row path once, see credit
+    private final Map<Long, Integer> bucketCounts = new ConcurrentHashMap<>();
+
+    public BalanceBuckets(BalanceBucketRepository balanceBucketRepository) {
+        this.balanceBucketRepository = balanceBucketRepository;
+    }
+
+    /**
+     * The bucket a credit to the account should go to, or -1 if the account is not known here to
+     * be high-volume and the credit has to go through the account row.
+     */
+    public int pickBucket(Long accountId) {
+        Integer buckets = bucketCounts.get(accountId);
+        return buckets == null ? -1 : ThreadLocalRandom.current().nextInt(buckets);
+    }
+
+    /**
+     * Adds the amount to the bucket and returns the account's balance including it and every
+     * posting committed before it, or null if the bucket no longer exists because the account was
+     * resized on another node.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Money credit(Long accountId, int bucket, Money amount) {
+        if (balanceBucketRepository.credit(accountId, bucket, amount.toBigDecimal()) == 0) {
+            bucketCounts.remove(accountId);
+            return null;
+        }
+        return balanceBucketRepository.findTotalBalance(accountId);
+    }
+
+    // The whole balance, for reads that do not go through fold
+    public Money balanceOf(Account account) {
+        return account.getBalanceBuckets() == 0
+                ? account.getCurrentBalance()
+                : balanceBucketRepository.findTotalBalance(account.getAccountId());
+    }
+
+    /**
+     * Moves the buckets' balance onto the account row. The buckets stay locked until the
+     * transaction ends, so credits that arrive meanwhile wait and land on the emptied buckets.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<BalanceBucket> fold(Account account) {
+        remember(account);
+        if (account.getBalanceBuckets() == 0) {
+            return List.of();
+        }
+        List<BalanceBucket> buckets = balanceBucketRepository.findAllByAccountIdForUpdate(account.getAccountId());
+        Money folded = Money.ZERO;
+        for (BalanceBucket bucket : buckets) {
+            folded = folded.plus(bucket.getBalance());
+            bucket.setBalance(Money.ZERO);
+        }
+        account.setCurrentBalance(account.getCurrentBalance().plus(folded));
+        return buckets;
+    }
+
+    // Folds the account and leaves it with the given number of empty buckets; the caller saves the account
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void resize(Account account, int buckets) {
+        for (BalanceBucket bucket : fold(account)) {
+            if (bucket.getBucket() >= buckets) {
+                balanceBucketRepository.delete(bucket);
+            }
+        }
+        for (int index = account.getBalanceBuckets(); index < buckets; index++) {
+            BalanceBucket bucket = new BalanceBucket();
+            bucket.setAccountId(account.getAccountId());
+            bucket.setBucket(index);
+            bucket.setBalance(Money.ZERO);
+            balanceBucketRepository.save(bucket);
+        }
+        account.setBalanceBuckets(buckets);
+        remember(account);
+    }
+
+    private void remember(Account account) {
+        if (account.getBalanceBuckets() > 0) {
+            bucketCounts.put(account.getAccountId(), account.getBalanceBuckets());
+        } else {
+            bucketCounts.remove(account.getAccountId());
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.AccountBalanceResponse;
+import com.assignment.account.management.entity.Account;
+import com.assignment.account.management.entity.Money;
+import com.assignment.account.management.entity.TransactionHistory;
+import com.assignment.account.management.exception.AccountNotFoundException;
+import com.assignment.account.management.repository.AccountRepository;
+import com.assignment.account.management.repository.TransactionHistoryRepository;
+import com.assignment.account.management.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Periodic per-account balance snapshots and point-in-time balances built from them. A balance
+ * as of some time is the nearest snapshot at or before it plus the transactions posted between
+ * the two, so the rows read are bounded by the snapshot interval rather than the account's age.
+ */
+@Service
+@Slf4j
+public class BalanceSnapshotService {
+
+    // Lower bound for the first run, before any snapshot exists
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final TransactionHistoryRepository transactionHistoryRepository;
+
+    private final TransactionRepository transactionRepository;
+
+    private final AccountRepository accountRepository;
+
+    private final JournaledPostingEngine journaledPostingEngine;
+
+    private final AccountShards accountShards;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Duration settleDelay;
+
+    private final int accountsPerTransaction;
+
+    // Cutoff of the last completed run per shard; transactions after it are what the next run snapshots
+    private final Map<Integer, LocalDateTime> watermarks = new ConcurrentHashMap<>();
+
+    public BalanceSnapshotService(
+            TransactionHistoryRepository transactionHistoryRepository,
+            TransactionRepository transactionRepository,
+            AccountRepository accountRepository,
+            @Nullable JournaledPostingEngine journaledPostingEngine,
+            AccountShards accountShards,
+            PlatformTransactionManager transactionManager,
+            @Value("${transaction.snapshot.settle.delay}") Duration settleDelay,
+            @Value("${transaction.snapshot.accounts.per.transaction}") int accountsPerTransaction) {
+        this.transactionHistoryRepository = transactionHistoryRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountRepository = accountRepository;
+        this.journaledPostingEngine = journaledPostingEngine;
+        this.accountShards = accountShards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settleDelay = settleDelay;
+        this.accountsPerTransaction = accountsPerTransaction;
+    }
+
+    public AccountBalanceResponse getBalanceAsOf(Long accountId, LocalDateTime asOf) {
+        return accountShards.on(accountId, () -> balanceAsOf(accountId, asOf));
+    }
+
+    private AccountBalanceResponse balanceAsOf(Long accountId, LocalDateTime asOf) {
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + accountId));
+        if (account.getCreatedAt() != null && asOf.isBefore(account.getCreatedAt())) {
+            throw new AccountNotFoundException("Account " + accountId + " did not exist at " + asOf);
+        }
+
+        Optional<TransactionHistory> snapshot = transactionHistoryRepository
+                .findFirstByAccountIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(accountId, asOf);
+        return AccountBalanceResponse.builder()
+                .accountId(accountId)
+                .asOf(asOf)
+                .balance(balanceAt(account, snapshot, asOf).toBigDecimal())
+                .snapshotAt(snapshot.map(TransactionHistory::getSnapshotAt).orElse(null))
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${transaction.snapshot.interval}", initialDelayString = "${transaction.snapshot.interval}")
+    public void takeScheduledSnapshots() {
+        // Transactions commit shortly after their timestamp, so the cutoff trails the clock
+        takeSnapshots(LocalDateTime.now().minus(settleDelay).truncatedTo(ChronoUnit.MICROS));
+    }
+
+    /**
+     * Snapshots every account with transactions since the previous run, as of cutoff. Returns the
+     * number of snapshots written; nothing is written while the write-behind journal still holds
+     * postings from before the cutoff.
+     */
+    public int takeSnapshots(LocalDateTime cutoff) {
+        if (journaledPostingEngine != null && journaledPostingEngine.hasUnflushedPostingsUpTo(cutoff)) {
+            log.info("Skipping balance snapshots as of {}: the posting journal has not been flushed that far", cutoff);
+            return 0;
+        }
+        int written = accountShards.onEveryShard(() -> ReplicaRouting.primary(() -> snapshotShard(cutoff))).stream().mapToInt(Integer::intValue).sum();
+        log.debug("Wrote {} balance snapshots as of {}", written, cutoff);
+        return written;
+    }
+
+    private int snapshotShard(LocalDateTime cutoff) {
+        int shard = AccountShards.current();
+        LocalDateTime after = watermarks.containsKey(shard)
+                ? watermarks.get(shard)
+                : transactionHistoryRepository.findLatestSnapshotAt().orElse(EPOCH);
+        if (!cutoff.isAfter(after)) {
+            return 0;
+        }
+
+        List<Long> accountIds = transactionRepository.findAccountIdsWithTransactionsBetween(after, cutoff);
+        int written = 0;
+        for (int from = 0; from < accountIds.size(); from += accountsPerTransaction) {
+            List<Long> chunk = accountIds.subList(from, Math.min(from + accountsPerTransaction, accountIds.size()));
+            written += transactionTemplate.execute(status -> snapshotChunk(chunk, cutoff));
+        }
+        watermarks.put(shard, cutoff);
+        return written;
+    }
+
+    private int snapshotChunk(List<Long> accountIds, LocalDateTime cutoff) {
+        List<TransactionHistory> snapshots = new ArrayList<>(accountIds.size());
+        for (Account account : accountRepository.findAllById(accountIds)) {
+            Optional<TransactionHistory> previous = transactionHistoryRepository
+                    .findFirstByAccountIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(account.getAccountId(), cutoff);
+            if (previous.isPresent() && previous.get().getSnapshotAt().equals(cutoff)) {
+                continue;
+            }
+            TransactionHistory snapshot = new TransactionHistory();
+            snapshot.setAccountId(account.getAccountId());
+            snapshot.setSnapshotAt(cutoff);
+            snapshot.setBalance(balanceAt(account, previous, cutoff));
+            snapshots.add(snapshot);
+        }
+        transactionHistoryRepository.saveAll(snapshots);
+        return snapshots.size();
+    }
+
+    private Money balanceAt(Account account, Optional<TransactionHistory> snapshot, LocalDateTime asOf) {
+        if (snapshot.isPresent()) {
+            return snapshot.get().getBalance().plus(Money.of(transactionRepository.findNetAmountBetween(
+                    account.getAccountId(), snapshot.get().getSnapshotAt(), asOf)));
+        }
+        // Not snapshotted yet: the account's whole history, which the next run bounds
+        return account.getInitialBalance().plus(Money.of(transactionRepository.findNetAmountUpTo(account.getAccountId(), asOf)));
+    }
+}
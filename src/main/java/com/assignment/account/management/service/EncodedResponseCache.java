@@ -0,0 +1,156 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.config.CacheConfig;
+import com.assignment.account.management.dto.AccountSearchResponse;
+import com.assignment.account.management.dto.TransactionHistoryResponse;
+import com.assignment.account.management.entity.Account;
+import com.assignment.account.management.exception.AccountNotFoundException;
+import com.assignment.account.management.repository.AccountRepository;
+import com.assignment.account.management.repository.TransactionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Serialized account and first-page history responses, kept as the bytes sent to the client
+ * together with their ETag, so a poll for an unchanged account costs neither a query nor a
+ * serialization. ETags are derived from what the response was read from: the account's version
+ * and last transaction id (bucket credits leave the account row alone), and for a history page
+ * the newest transaction on it. Entries are tagged with their account's generation, which
+ * {@link #evict} advances once a change commits; an entry from an older generation is a miss, so
+ * a response read before a change commits and cached after it is never served. Entries live in
+ * the accounts and historyPages caches of the cache manager, so spring.cache.type=none turns
+ * this off like any other cache.
+ */
+@Component
+public class EncodedResponseCache {
+
+    // Generations are kept per slot rather than per account; accounts sharing a slot only cost each other misses
+    private static final int GENERATION_SLOT_BITS = 16;
+
+    private final AccountRepository accountRepository;
+
+    private final TransactionRepository transactionRepository;
+
+    private final AccountManagementService accountManagementService;
+
+    private final BalanceBuckets balanceBuckets;
+
+    private final AccountShards accountShards;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Cache accounts;
+
+    private final Cache firstHistoryPages;
+
+    private final AtomicLongArray generations = new AtomicLongArray(1 << GENERATION_SLOT_BITS);
+
+    public EncodedResponseCache(
+            AccountRepository accountRepository,
+            TransactionRepository transactionRepository,
+            AccountManagementService accountManagementService,
+            BalanceBuckets balanceBuckets,
+            AccountShards accountShards,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            CacheManager cacheManager) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountManagementService = accountManagementService;
+        this.balanceBuckets = balanceBuckets;
+        this.accountShards = accountShards;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.accounts = cache(cacheManager, CacheConfig.ACCOUNTS_CACHE);
+        this.firstHistoryPages = cache(cacheManager, CacheConfig.HISTORY_PAGES_CACHE);
+    }
+
+    public EncodedResponse account(Long accountId) {
+        EncodedResponse cached = current(accounts.get(accountId, EncodedResponse.class), accountId);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = generation(accountId);
+        // One transaction, so the version, the balance and the last transaction id are read from the same state
+        EncodedResponse loaded = accountShards.on(accountId, () -> readOnlyTransaction.execute(status -> {
+            Account account = accountRepository.findById(accountId)
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + accountId));
+            Long lastTransactionId = transactionRepository.findLastTransactionId(accountId);
+            AccountSearchResponse response = AccountSearchResponse.builder()
+                    .accountId(account.getAccountId())
+                    .accountHolderName(account.getAccountHolderName())
+                    .balance(balanceBuckets.balanceOf(account).toBigDecimal())
+                    .status(account.getStatus())
+                    .build();
+            String etag = "\"a" + accountId + "-" + account.getVersion() + "-" + (lastTransactionId != null ? lastTransactionId : 0) + "\"";
+            return encode(etag, response, generation);
+        }));
+        accounts.put(accountId, loaded);
+        return loaded;
+    }
+
+    // The newest page of the unfiltered history, the one clients poll
+    public EncodedResponse firstHistoryPage(Long accountId, int size) {
+        HistoryKey key = new HistoryKey(accountId, size);
+        EncodedResponse cached = current(firstHistoryPages.get(key, EncodedResponse.class), accountId);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = generation(accountId);
+        TransactionHistoryResponse response = accountManagementService.getTransactionHistory(accountId, null, null, null, 0, size);
+        long newestTransactionId = response.getTransactions().isEmpty() ? 0 : response.getTransactions().get(0).getTransactionId();
+        EncodedResponse loaded = encode("\"h" + accountId + "-" + newestTransactionId + "-" + size + "\"", response, generation);
+        firstHistoryPages.put(key, loaded);
+        return loaded;
+    }
+
+    // Called once a change to the account has committed
+    public void evict(Long accountId) {
+        generations.incrementAndGet(slot(accountId));
+        accounts.evict(accountId);
+    }
+
+    // A cache manager that does not know the name is treated as caching switched off
+    private static Cache cache(CacheManager cacheManager, String name) {
+        return Objects.requireNonNullElseGet(cacheManager.getCache(name), () -> new NoOpCache(name));
+    }
+
+    private EncodedResponse current(EncodedResponse cached, Long accountId) {
+        return cached != null && cached.generation() == generation(accountId) ? cached : null;
+    }
+
+    private long generation(Long accountId) {
+        return generations.get(slot(accountId));
+    }
+
+    private static int slot(Long accountId) {
+        return (int) ((accountId * 0x9E3779B97F4A7C15L) >>> (64 - GENERATION_SLOT_BITS));
+    }
+
+    private EncodedResponse encode(String etag, Object response, long generation) {
+        try {
+            return new EncodedResponse(etag, objectMapper.writeValueAsBytes(response), generation);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize " + response.getClass().getSimpleName(), ex);
+        }
+    }
+
+    // Body as sent, already serialized; callers must not modify it
+    public record EncodedResponse(String etag, byte[] body, long generation) {
+    }
+
+    private record HistoryKey(Long accountId, int size) {
+    }
+}
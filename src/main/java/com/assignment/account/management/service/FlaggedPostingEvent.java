@@ -0,0 +1,15 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.entity.Money;
+import com.assignment.account.management.entity.Transaction;
+
+import java.time.LocalDateTime;
+
+// Published for every posting flagged for review; listeners run after the posting commits
+public record FlaggedPostingEvent(Long transactionId, Long accountId, Money amount, LocalDateTime postedAt) {
+
+    public static FlaggedPostingEvent of(Transaction transaction) {
+        return new FlaggedPostingEvent(transaction.getTransactionId(), transaction.getAccountId(),
+                transaction.getAmount(), transaction.getTimestamp());
+    }
+}
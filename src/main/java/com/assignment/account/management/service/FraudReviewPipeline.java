@@ -0,0 +1,298 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.entity.FraudReview;
+import com.assignment.account.management.entity.Money;
+import com.assignment.account.management.entity.Transaction;
+import com.assignment.account.management.repository.FraudReviewRepository;
+import com.assignment.account.management.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates postings flagged for review off the posting path. A flagged posting is offered to a
+ * bounded queue once it commits; a background thread takes the queue in batches, runs the review
+ * rules against each batch with one query per shard and writes the results to the review queue
+ * table. A full queue drops the posting rather than hold up processTransaction, and the
+ * reconciler later picks up anything dropped, or lost in a restart, from the transaction table.
+ */
+@Component
+@Slf4j
+public class FraudReviewPipeline implements SmartLifecycle {
+
+    public static final String DAILY_LIMIT_EXCEEDED = "DAILY_LIMIT_EXCEEDED";
+
+    public static final String HIGH_VELOCITY = "HIGH_VELOCITY";
+
+    public static final String LARGE_AMOUNT = "LARGE_AMOUNT";
+
+    private final FraudReviewRepository fraudReviewRepository;
+
+    private final TransactionRepository transactionRepository;
+
+    private final AccountShards accountShards;
+
+    private final ObjectProvider<JournaledPostingEngine> journaledPostingEngine;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<FlaggedPostingEvent> queue;
+
+    private final int batchSize;
+
+    private final Duration velocityWindow;
+
+    private final long velocityDebits;
+
+    private final Money largeAmount;
+
+    private final Duration reconcileSettleDelay;
+
+    private final Duration reconcileLookback;
+
+    private final Counter dropped;
+
+    private final Counter reviewed;
+
+    // Cutoff of the last completed reconcile run per shard
+    private final Map<Integer, LocalDateTime> watermarks = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+
+    private Thread worker;
+
+    public FraudReviewPipeline(
+            FraudReviewRepository fraudReviewRepository,
+            TransactionRepository transactionRepository,
+            AccountShards accountShards,
+            ObjectProvider<JournaledPostingEngine> journaledPostingEngine,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${transaction.review.queue.capacity}") int queueCapacity,
+            @Value("${transaction.review.batch.size}") int batchSize,
+            @Value("${transaction.review.velocity.window}") Duration velocityWindow,
+            @Value("${transaction.review.velocity.debits}") long velocityDebits,
+            @Value("${transaction.review.large.amount}") BigDecimal largeAmount,
+            @Value("${transaction.review.reconcile.settle.delay}") Duration reconcileSettleDelay,
+            @Value("${transaction.review.reconcile.lookback}") Duration reconcileLookback) {
+        this.fraudReviewRepository = fraudReviewRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountShards = accountShards;
+        this.journaledPostingEngine = journaledPostingEngine;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.velocityWindow = velocityWindow;
+        this.velocityDebits = velocityDebits;
+        this.largeAmount = Money.of(largeAmount);
+        this.reconcileSettleDelay = reconcileSettleDelay;
+        this.reconcileLookback = reconcileLookback;
+        this.dropped = Counter.builder("account.transactions.review.dropped")
+                .description("Flagged postings not queued because the review queue was full, left to the reconciler")
+                .register(meterRegistry);
+        this.reviewed = Counter.builder("account.transactions.review.evaluated")
+                .description("Flagged postings evaluated into the review queue table")
+                .register(meterRegistry);
+        Gauge.builder("account.transactions.review.queued", queue, BlockingQueue::size)
+                .description("Flagged postings waiting for evaluation")
+                .register(meterRegistry);
+    }
+
+    // Never waits: the posting has committed and its caller is still on the posting path
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlaggedPosting(FlaggedPostingEvent event) {
+        if (!queue.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Evaluates flagged postings committed between the previous run's cutoff and the settle
+     * delay ago that are not in the review queue table yet. Returns the number evaluated; nothing
+     * is done while the write-behind journal still holds postings from before the cutoff.
+     */
+    @Scheduled(fixedDelayString = "${transaction.review.reconcile.interval}", initialDelayString = "${transaction.review.reconcile.interval}")
+    public int reconcile() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(reconcileSettleDelay).truncatedTo(ChronoUnit.MICROS);
+        JournaledPostingEngine journal = journaledPostingEngine.getIfAvailable();
+        if (journal != null && journal.hasUnflushedPostingsUpTo(cutoff)) {
+            log.info("Skipping fraud review reconciliation up to {}: the posting journal has not been flushed that far", cutoff);
+            return 0;
+        }
+        int evaluated = accountShards.onEveryShard(() -> ReplicaRouting.primary(() -> reconcileShard(cutoff))).stream()
+                .mapToInt(Integer::intValue).sum();
+        if (evaluated > 0) {
+            log.info("Reconciled {} flagged postings missing from the review queue", evaluated);
+        }
+        return evaluated;
+    }
+
+    private int reconcileShard(LocalDateTime cutoff) {
+        int shard = AccountShards.current();
+        LocalDateTime after = watermarks.getOrDefault(shard, cutoff.minus(reconcileLookback));
+        List<FlaggedPostingEvent> missed = transactionRepository.findUnreviewedFlaggedBetween(after, cutoff).stream()
+                .map(FlaggedPostingEvent::of)
+                .toList();
+        int evaluated = 0;
+        for (int from = 0; from < missed.size(); from += batchSize) {
+            List<FlaggedPostingEvent> chunk = missed.subList(from, Math.min(from + batchSize, missed.size()));
+            evaluated += transactionTemplate.execute(status -> evaluateOnShard(chunk));
+        }
+        watermarks.put(shard, cutoff);
+        return evaluated;
+    }
+
+    // Evaluates whatever is queued now; the worker thread does the same continuously
+    public int drain() {
+        List<FlaggedPostingEvent> batch = new ArrayList<>(batchSize);
+        int evaluated = 0;
+        while (queue.drainTo(batch, batchSize) > 0) {
+            evaluated += evaluate(batch);
+            batch.clear();
+        }
+        return evaluated;
+    }
+
+    private int evaluate(List<FlaggedPostingEvent> batch) {
+        Map<Integer, List<FlaggedPostingEvent>> byShard = batch.stream()
+                .collect(Collectors.groupingBy(event -> accountShards.shardOf(event.accountId())));
+        int evaluated = 0;
+        for (Map.Entry<Integer, List<FlaggedPostingEvent>> shard : byShard.entrySet()) {
+            evaluated += accountShards.onShard(shard.getKey(), () -> ReplicaRouting.primary(
+                    () -> transactionTemplate.execute(status -> evaluateOnShard(shard.getValue()))));
+        }
+        return evaluated;
+    }
+
+    private int evaluateOnShard(List<FlaggedPostingEvent> postings) {
+        Set<Long> existing = new HashSet<>(fraudReviewRepository.findExistingTransactionIds(
+                postings.stream().map(FlaggedPostingEvent::transactionId).toList()));
+        Map<Long, FlaggedPostingEvent> fresh = new LinkedHashMap<>();
+        postings.stream()
+                .filter(posting -> !existing.contains(posting.transactionId()))
+                .forEach(posting -> fresh.putIfAbsent(posting.transactionId(), posting));
+        if (fresh.isEmpty()) {
+            return 0;
+        }
+
+        // One read of the batch's accounts' recent debits serves every posting in it
+        LocalDateTime since = fresh.values().stream().map(FlaggedPostingEvent::postedAt).min(LocalDateTime::compareTo)
+                .orElseThrow().minus(velocityWindow);
+        Map<Long, List<Transaction>> debits = transactionRepository.findDebitsSince(
+                        fresh.values().stream().map(FlaggedPostingEvent::accountId).collect(Collectors.toSet()), since)
+                .stream().collect(Collectors.groupingBy(Transaction::getAccountId));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<FraudReview> reviews = fresh.values().stream()
+                .map(posting -> review(posting, debits.getOrDefault(posting.accountId(), List.of()), now))
+                .toList();
+        fraudReviewRepository.saveAll(reviews);
+        reviewed.increment(reviews.size());
+        return reviews.size();
+    }
+
+    private FraudReview review(FlaggedPostingEvent posting, List<Transaction> accountDebits, LocalDateTime now) {
+        LocalDateTime windowStart = posting.postedAt().minus(velocityWindow);
+        long recentCount = 0;
+        Money recentTotal = Money.ZERO;
+        for (Transaction debit : accountDebits) {
+            if (debit.getTimestamp().isAfter(windowStart) && !debit.getTimestamp().isAfter(posting.postedAt())) {
+                recentCount++;
+                recentTotal = recentTotal.plus(debit.getAmount());
+            }
+        }
+
+        // Flagging itself means the posting took the account past its daily withdrawal limit
+        List<String> reasons = new ArrayList<>(3);
+        reasons.add(DAILY_LIMIT_EXCEEDED);
+        if (recentCount >= velocityDebits) {
+            reasons.add(HIGH_VELOCITY);
+        }
+        if (!posting.amount().isLessThan(largeAmount)) {
+            reasons.add(LARGE_AMOUNT);
+        }
+
+        FraudReview review = new FraudReview();
+        review.setTransactionId(posting.transactionId());
+        review.setAccountId(posting.accountId());
+        review.setAmount(posting.amount());
+        review.setPostedAt(posting.postedAt());
+        review.setRiskScore(reasons.size());
+        review.setReasons(String.join(",", reasons));
+        review.setRecentDebitCount(recentCount);
+        review.setRecentDebitTotal(recentTotal);
+        review.setStatus(FraudReview.PENDING);
+        review.setCreatedAt(now);
+        return review;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform().name("fraud-review").daemon().start(this::evaluateLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void evaluateLoop() {
+        List<FlaggedPostingEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                FlaggedPostingEvent first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                evaluate(batch);
+            } catch (InterruptedException ex) {
+                // stop() ends the loop; what is still queued is left to the reconciler
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Fraud review of {} flagged postings failed, leaving them to the reconciler", batch.size(), ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.FraudReviewListResponse;
+import com.assignment.account.management.dto.FraudReviewResponse;
+import com.assignment.account.management.entity.FraudReview;
+import com.assignment.account.management.exception.AccountNotFoundException;
+import com.assignment.account.management.repository.AccountRepository;
+import com.assignment.account.management.repository.FraudReviewRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reads the review queue table that {@link FraudReviewPipeline} fills.
+ */
+@Service
+public class FraudReviewService {
+
+    // Riskiest first, then oldest first, matching idx_fraud_review_status_score
+    private static final Comparator<FraudReview> QUEUE_ORDER = Comparator.comparingInt(FraudReview::getRiskScore).reversed()
+            .thenComparing(FraudReview::getCreatedAt);
+
+    private final FraudReviewRepository fraudReviewRepository;
+
+    private final AccountRepository accountRepository;
+
+    private final AccountShards accountShards;
+
+    public FraudReviewService(FraudReviewRepository fraudReviewRepository, AccountRepository accountRepository,
+                              AccountShards accountShards) {
+        this.fraudReviewRepository = fraudReviewRepository;
+        this.accountRepository = accountRepository;
+        this.accountShards = accountShards;
+    }
+
+    // The first size reviews in the status across every shard; each shard's repository call runs on its own
+    public FraudReviewListResponse getReviewQueue(String status, int size) {
+        List<FraudReview> reviews = accountShards.onEveryShard(
+                        () -> fraudReviewRepository.findByStatusOrderByRiskScoreDescCreatedAtAsc(status, Limit.of(size))).stream()
+                .flatMap(List::stream)
+                .sorted(QUEUE_ORDER)
+                .limit(size)
+                .toList();
+        return FraudReviewListResponse.builder()
+                .reviews(reviews.stream().map(FraudReviewService::toResponse).toList())
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public FraudReviewListResponse getAccountReviews(Long accountId, String status, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("transactionId").descending());
+        Page<FraudReview> reviews = accountShards.on(accountId, () -> {
+            if (!accountRepository.existsById(accountId)) {
+                throw new AccountNotFoundException("Account not found with ID: " + accountId);
+            }
+            return status == null
+                    ? fraudReviewRepository.findByAccountId(accountId, pageable)
+                    : fraudReviewRepository.findByAccountIdAndStatus(accountId, status, pageable);
+        });
+        return FraudReviewListResponse.builder()
+                .reviews(reviews.getContent().stream().map(FraudReviewService::toResponse).toList())
+                .currentPage(reviews.getNumber())
+                .totalPages(reviews.getTotalPages())
+                .totalReviews(reviews.getTotalElements())
+                .build();
+    }
+
+    private static FraudReviewResponse toResponse(FraudReview review) {
+        return FraudReviewResponse.builder()
+                .transactionId(review.getTransactionId())
+                .accountId(review.getAccountId())
+                .amount(review.getAmount().toBigDecimal())
+                .postedAt(review.getPostedAt())
+                .riskScore(review.getRiskScore())
+                .reasons(Arrays.asList(review.getReasons().split(",")))
+                .recentDebitCount(review.getRecentDebitCount())
+                .recentDebitTotal(review.getRecentDebitTotal().toBigDecimal())
+                .status(review.getStatus())
+                .createdAt(review.getCreatedAt())
+                .build();
+    }
+}
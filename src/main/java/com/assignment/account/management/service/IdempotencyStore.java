@@ -0,0 +1,101 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.TransactionResponse;
+import com.assignment.account.management.entity.IdempotencyKey;
+import com.assignment.account.management.exception.InvalidIdempotencyKeyException;
+import com.assignment.account.management.repository.IdempotencyKeyRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Dedupe store behind the Idempotency-Key header. Responses of committed postings are kept in a
+ * bounded in-memory index so a retry on this node is answered without touching the database;
+ * the idempotency_key table is the durable, cross-node record that the index falls back to.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private final Duration ttl;
+
+    private final Cache<String, TransactionResponse> responses;
+
+    private final AccountShards accountShards;
+
+    public IdempotencyStore(
+            IdempotencyKeyRepository idempotencyKeyRepository,
+            AccountShards accountShards,
+            @Value("${transaction.idempotency.ttl}") Duration ttl,
+            @Value("${transaction.idempotency.cache.size}") long cacheSize) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.accountShards = accountShards;
+        this.ttl = ttl;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public static void validate(String key) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException(
+                    "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters.");
+        }
+    }
+
+    public TransactionResponse find(String key) {
+        return responses.getIfPresent(key);
+    }
+
+    public void remember(String key, TransactionResponse response) {
+        responses.put(key, response);
+    }
+
+    // Joins the posting's transaction, so the insert is flushed with the posting and shares its fate
+    public void record(String key, Long accountId, Long transactionId) {
+        IdempotencyKey record = new IdempotencyKey();
+        record.setIdempotencyKey(key);
+        record.setAccountId(accountId);
+        record.setTransactionId(transactionId);
+        record.setExpiresAt(LocalDateTime.now().plus(ttl));
+        idempotencyKeyRepository.save(record);
+    }
+
+    public Optional<IdempotencyKey> findRecord(String key) {
+        return idempotencyKeyRepository.findById(key);
+    }
+
+    // Those of the given keys that already have a record, expired or not
+    public List<String> recorded(Collection<String> keys) {
+        return keys.isEmpty() ? List.of() : idempotencyKeyRepository.findExistingKeys(keys);
+    }
+
+    // Frees a key whose record outlived its TTL but has not been purged yet
+    public boolean releaseIfExpired(String key) {
+        return idempotencyKeyRepository.deleteIfExpired(key, LocalDateTime.now()) > 0;
+    }
+
+    @Scheduled(fixedDelayString = "${transaction.idempotency.purge.interval}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = accountShards.onEveryShard(() -> idempotencyKeyRepository.deleteExpired(now)).stream()
+                .mapToInt(Integer::intValue).sum();
+        if (purged > 0) {
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+}
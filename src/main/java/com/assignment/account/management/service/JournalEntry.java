@@ -0,0 +1,99 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.entity.Account;
+import com.assignment.account.management.entity.Money;
+import com.assignment.account.management.entity.Transaction;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * One acknowledged posting as written to the journal: the transaction row plus the account
+ * state it leaves behind, so the flusher can write both without re-reading the account.
+ */
+public record JournalEntry(long sequence, Long accountId, String type, Money amount, LocalDateTime timestamp,
+                           Money balanceAfterTransaction, boolean flaggedForReview,
+                           LocalDate dailyWithdrawalDate, Money dailyWithdrawalTotal, String idempotencyKey) {
+
+    static JournalEntry of(Account account, Transaction transaction, String idempotencyKey) {
+        return new JournalEntry(0, transaction.getAccountId(), transaction.getType(), transaction.getAmount(),
+                transaction.getTimestamp(), transaction.getBalanceAfterTransaction(), transaction.isFlaggedForReview(),
+                account.getDailyWithdrawalDate(), account.getDailyWithdrawalTotal(), idempotencyKey);
+    }
+
+    JournalEntry withSequence(long sequence) {
+        return new JournalEntry(sequence, accountId, type, amount, timestamp, balanceAfterTransaction, flaggedForReview,
+                dailyWithdrawalDate, dailyWithdrawalTotal, idempotencyKey);
+    }
+
+    Transaction toTransaction() {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(accountId);
+        transaction.setType(type);
+        transaction.setAmount(amount);
+        transaction.setTimestamp(timestamp);
+        transaction.setBalanceAfterTransaction(balanceAfterTransaction);
+        transaction.setFlaggedForReview(flaggedForReview);
+        return transaction;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(sequence);
+        out.writeLong(accountId);
+        out.writeUTF(type);
+        writeDecimal(out, amount);
+        out.writeLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(timestamp.getNano());
+        writeDecimal(out, balanceAfterTransaction);
+        out.writeBoolean(flaggedForReview);
+        out.writeBoolean(dailyWithdrawalDate != null);
+        if (dailyWithdrawalDate != null) {
+            out.writeLong(dailyWithdrawalDate.toEpochDay());
+        }
+        out.writeBoolean(dailyWithdrawalTotal != null);
+        if (dailyWithdrawalTotal != null) {
+            writeDecimal(out, dailyWithdrawalTotal);
+        }
+        out.writeBoolean(idempotencyKey != null);
+        if (idempotencyKey != null) {
+            out.writeUTF(idempotencyKey);
+        }
+    }
+
+    static JournalEntry readFrom(DataInput in) throws IOException {
+        long sequence = in.readLong();
+        long accountId = in.readLong();
+        String type = in.readUTF();
+        Money amount = readDecimal(in);
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        Money balanceAfterTransaction = readDecimal(in);
+        boolean flaggedForReview = in.readBoolean();
+        LocalDate dailyWithdrawalDate = in.readBoolean() ? LocalDate.ofEpochDay(in.readLong()) : null;
+        Money dailyWithdrawalTotal = in.readBoolean() ? readDecimal(in) : null;
+        String idempotencyKey = in.readBoolean() ? in.readUTF() : null;
+        return new JournalEntry(sequence, accountId, type, amount, timestamp, balanceAfterTransaction, flaggedForReview,
+                dailyWithdrawalDate, dailyWithdrawalTotal, idempotencyKey);
+    }
+
+    // Written as a scaled decimal, the format journals had before Money, so older segments still replay
+    private static void writeDecimal(DataOutput out, Money money) throws IOException {
+        BigDecimal value = money.toBigDecimal();
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(value.scale());
+        out.writeShort(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static Money readDecimal(DataInput in) throws IOException {
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readUnsignedShort()];
+        in.readFully(unscaled);
+        return Money.of(new BigDecimal(new BigInteger(unscaled), scale));
+    }
+}
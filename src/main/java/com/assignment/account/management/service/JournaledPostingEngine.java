@@ -0,0 +1,395 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.entity.Account;
+import com.assignment.account.management.entity.JournalCheckpoint;
+import com.assignment.account.management.entity.Transaction;
+import com.assignment.account.management.exception.AccountNotFoundException;
+import com.assignment.account.management.exception.ConcurrentPostingException;
+import com.assignment.account.management.exception.IdempotencyKeyReusedException;
+import com.assignment.account.management.repository.AccountRepository;
+import com.assignment.account.management.repository.JournalCheckpointRepository;
+import com.assignment.account.management.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Write-behind posting mode, enabled with transaction.posting.mode=journal. Postings are
+ * validated against an in-memory ledger, appended to the local {@link TransactionJournal} and
+ * acknowledged once the journal is on disk. A background flusher group-commits balances,
+ * transaction rows and the journal checkpoint to the database, one transaction per batch, and
+ * entries past the checkpoint are replayed on startup before postings are accepted.
+ * The ledger assumes this node is the only one posting to the accounts it holds.
+ */
+@Component
+@ConditionalOnProperty(name = "transaction.posting.mode", havingValue = "journal")
+@Slf4j
+public class JournaledPostingEngine implements SmartLifecycle {
+
+    private final TransactionPostingEngine postingEngine;
+
+    private final AccountRepository accountRepository;
+
+    private final TransactionRepository transactionRepository;
+
+    private final JournalCheckpointRepository checkpointRepository;
+
+    private final IdempotencyStore idempotencyStore;
+
+    private final TransactionOutbox transactionOutbox;
+
+    private final BalanceBuckets balanceBuckets;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Path directory;
+
+    private final String journalName;
+
+    private final int segmentSize;
+
+    private final int flushBatchSize;
+
+    private final Duration flushInterval;
+
+    private final int maxPending;
+
+    // Accounts with postings the database may not have yet, guarded by the account's stripe
+    private final Map<Long, LedgerAccount> ledger = new ConcurrentHashMap<>();
+
+    // Idempotency keys of journaled postings the database has no record of yet
+    private final Map<String, JournalEntry> pendingKeys = new ConcurrentHashMap<>();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private volatile TransactionJournal journal;
+
+    private volatile boolean running;
+
+    private Thread flusher;
+
+    public JournaledPostingEngine(
+            TransactionPostingEngine postingEngine,
+            AccountRepository accountRepository,
+            TransactionRepository transactionRepository,
+            JournalCheckpointRepository checkpointRepository,
+            IdempotencyStore idempotencyStore,
+            AccountShards accountShards,
+            TransactionOutbox transactionOutbox,
+            BalanceBuckets balanceBuckets,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            @Value("${transaction.journal.directory}") Path directory,
+            @Value("${transaction.journal.name}") String journalName,
+            @Value("${transaction.journal.segment.size}") DataSize segmentSize,
+            @Value("${transaction.journal.flush.batch.size}") int flushBatchSize,
+            @Value("${transaction.journal.flush.interval}") Duration flushInterval,
+            @Value("${transaction.journal.max.pending}") int maxPending) {
+        if (!postingEngine.isSequenced()) {
+            throw new IllegalStateException("transaction.posting.mode=journal needs transaction.posting.lock.stripes > 0");
+        }
+        // A flush commits postings of many accounts in one database transaction
+        if (accountShards.count() > 1) {
+            throw new IllegalStateException("transaction.posting.mode=journal does not support account.sharding.enabled=true");
+        }
+        this.postingEngine = postingEngine;
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.idempotencyStore = idempotencyStore;
+        this.transactionOutbox = transactionOutbox;
+        this.balanceBuckets = balanceBuckets;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.directory = directory;
+        this.journalName = journalName;
+        this.segmentSize = (int) segmentSize.toBytes();
+        this.flushBatchSize = flushBatchSize;
+        this.flushInterval = flushInterval;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Runs the posting under the account's stripe against a working copy of its ledger state.
+     * The copy replaces the ledger state only if the posting reaches {@link #append}, so a
+     * rejected posting leaves the ledger untouched. Call {@link #awaitDurable} before acknowledging.
+     */
+    public <T> T execute(Long accountId, Function<Account, T> posting) {
+        if (journal.pendingCount() >= maxPending) {
+            throw new ConcurrentPostingException("Posting journal backlog is full, please retry.");
+        }
+        return postingEngine.sequenced(accountId, () -> posting.apply(copyOf(ledgerAccount(accountId).account)));
+    }
+
+    // Called from inside execute once the posting has been applied to the working copy
+    public void append(Account account, Transaction transaction, String idempotencyKey) {
+        JournalEntry unsequenced = JournalEntry.of(account, transaction, idempotencyKey);
+        // Postings of one account are sequenced, so a key already taken here was used on another account
+        if (idempotencyKey != null && pendingKeys.putIfAbsent(idempotencyKey, unsequenced) != null) {
+            throw new IdempotencyKeyReusedException("Idempotency-Key was already used for a different transaction.");
+        }
+        JournalEntry entry;
+        try {
+            entry = journal.append(unsequenced);
+        } catch (RuntimeException ex) {
+            if (idempotencyKey != null) {
+                pendingKeys.remove(idempotencyKey);
+            }
+            throw ex;
+        }
+        if (idempotencyKey != null) {
+            pendingKeys.put(idempotencyKey, entry);
+        }
+        LedgerAccount ledgerAccount = ledger.get(account.getAccountId());
+        ledgerAccount.account = account;
+        ledgerAccount.lastSequence = entry.sequence();
+    }
+
+    /**
+     * Runs a change to the account row other than a posting, in its own database transaction,
+     * with neither a posting nor a flush of the account in between. The change is given a working
+     * copy of the ledger state, whose balance includes postings not flushed yet, and the copy
+     * replaces the ledger state once the transaction commits.
+     */
+    public <T> T update(Long accountId, Function<Account, T> change) {
+        // The flush lock is taken before the stripe, as the flusher does when it evicts
+        flushLock.lock();
+        try {
+            return postingEngine.sequenced(accountId, () -> {
+                Account account = copyOf(ledgerAccount(accountId).account);
+                T result = ReplicaRouting.primary(() -> transactionTemplate.execute(status -> change.apply(account)));
+                ledger.get(accountId).account = account;
+                return result;
+            });
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // The journaled posting that took the key, until the flusher has recorded the key in the database
+    public Optional<JournalEntry> pending(String idempotencyKey) {
+        return Optional.ofNullable(pendingKeys.get(idempotencyKey));
+    }
+
+    public void awaitDurable() {
+        journal.sync(journal.lastSequence());
+    }
+
+    // True while postings made at or before the given time may still be missing from the database
+    public boolean hasUnflushedPostingsUpTo(LocalDateTime time) {
+        return journal.oldestUnflushed().map(entry -> !entry.timestamp().isAfter(time)).orElse(false);
+    }
+
+    // Flushes everything durable to the database before returning
+    public void drain() {
+        while (flushBatch() > 0) {
+            // keep going until the journal has nothing durable left
+        }
+    }
+
+    @Override
+    public void start() {
+        long checkpoint = ReplicaRouting.primary(() -> checkpointRepository.findById(journalName))
+                .map(JournalCheckpoint::getLastSequence)
+                .orElseGet(() -> {
+                    JournalCheckpoint created = new JournalCheckpoint();
+                    created.setJournalName(journalName);
+                    return checkpointRepository.save(created).getLastSequence();
+                });
+        try {
+            journal = new TransactionJournal(directory, segmentSize, checkpoint);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not open the posting journal in " + directory, ex);
+        }
+        int replay = journal.pendingCount();
+        drain();
+        if (replay > 0) {
+            log.info("Replayed {} journal entries past checkpoint {}", replay, checkpoint);
+        }
+        running = true;
+        flusher = Thread.ofPlatform().name("journal-flusher").daemon().start(this::flushLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+            drain();
+            journal.close();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            log.warn("Could not close the posting journal", ex);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Replays before the web server takes requests and drains after it has stopped
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void flushLoop() {
+        while (running) {
+            try {
+                if (flushBatch() < flushBatchSize) {
+                    LockSupport.parkNanos(flushInterval.toNanos());
+                }
+            } catch (DataIntegrityViolationException ex) {
+                // Acknowledged postings are never dropped; the retry leaves out idempotency keys recorded in the meantime
+                log.error("Journal flush from entry {} violated a constraint, retrying",
+                        journal.oldestUnflushed().map(JournalEntry::sequence).orElse(null), ex);
+                LockSupport.parkNanos(flushInterval.toNanos());
+            } catch (RuntimeException ex) {
+                // The batch stays in the journal and is retried, so an outage only delays the write-behind
+                log.warn("Journal flush failed, retrying", ex);
+                LockSupport.parkNanos(flushInterval.toNanos());
+            }
+        }
+    }
+
+    private int flushBatch() {
+        flushLock.lock();
+        try {
+            List<JournalEntry> batch = journal.pending(flushBatchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            transactionTemplate.executeWithoutResult(status -> write(batch));
+            long flushedSequence = batch.get(batch.size() - 1).sequence();
+            journal.flushed(flushedSequence);
+            batch.stream().filter(entry -> entry.idempotencyKey() != null).forEach(entry -> pendingKeys.computeIfPresent(
+                    entry.idempotencyKey(), (key, pending) -> pending.sequence() == entry.sequence() ? null : pending));
+            evict(batch, flushedSequence);
+            return batch.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(List<JournalEntry> batch) {
+        // The last entry per account carries the balance and daily counter the account ends up with
+        Map<Long, JournalEntry> latest = new LinkedHashMap<>();
+        batch.forEach(entry -> latest.put(entry.accountId(), entry));
+        for (Account account : accountRepository.findAllById(latest.keySet())) {
+            JournalEntry entry = latest.get(account.getAccountId());
+            account.setCurrentBalance(entry.balanceAfterTransaction());
+            account.setDailyWithdrawalDate(entry.dailyWithdrawalDate());
+            account.setDailyWithdrawalTotal(entry.dailyWithdrawalTotal());
+        }
+
+        List<Transaction> transactions = transactionRepository.saveAll(
+                batch.stream().map(JournalEntry::toTransaction).toList());
+        // A key recorded by another node, or before a restart, would fail the batch on every retry
+        Set<String> recordedKeys = new HashSet<>(idempotencyStore.recorded(
+                batch.stream().map(JournalEntry::idempotencyKey).filter(key -> key != null).toList()));
+        for (int i = 0; i < batch.size(); i++) {
+            JournalEntry entry = batch.get(i);
+            if (entry.idempotencyKey() == null) {
+                continue;
+            }
+            if (recordedKeys.add(entry.idempotencyKey())) {
+                idempotencyStore.record(entry.idempotencyKey(), entry.accountId(), transactions.get(i).getTransactionId());
+            } else {
+                log.warn("Idempotency-Key {} of journal entry {} is already recorded, flushing the posting without it",
+                        entry.idempotencyKey(), entry.sequence());
+            }
+        }
+        transactionOutbox.transactionsPosted(transactions);
+
+        checkpointRepository.advance(journalName, batch.get(batch.size() - 1).sequence());
+        latest.keySet().forEach(accountId -> eventPublisher.publishEvent(new AccountChangedEvent(accountId)));
+        transactions.stream().filter(Transaction::isFlaggedForReview)
+                .forEach(transaction -> eventPublisher.publishEvent(FlaggedPostingEvent.of(transaction)));
+    }
+
+    // Accounts with nothing left in the journal are reloaded from the database on their next posting
+    private void evict(List<JournalEntry> batch, long flushedSequence) {
+        batch.stream().map(JournalEntry::accountId).distinct().forEach(accountId ->
+                postingEngine.sequenced(accountId, () -> {
+                    LedgerAccount ledgerAccount = ledger.get(accountId);
+                    if (ledgerAccount != null && ledgerAccount.lastSequence <= flushedSequence) {
+                        ledger.remove(accountId);
+                    }
+                    return null;
+                }));
+    }
+
+    private LedgerAccount ledgerAccount(Long accountId) {
+        LedgerAccount ledgerAccount = ledger.get(accountId);
+        if (ledgerAccount == null) {
+            // Loaded under the stripe, so no other posting can race this account's first load
+            // The ledger is the balance of record, so it is never loaded from a replica
+            ledgerAccount = new LedgerAccount(ReplicaRouting.primary(() -> transactionTemplate.execute(status -> loadAccount(accountId))));
+            ledger.put(accountId, ledgerAccount);
+        }
+        return ledgerAccount;
+    }
+
+    // Balance buckets left from direct mode are folded in, since journal postings go to the ledger's balance only
+    private Account loadAccount(Long accountId) {
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + accountId));
+        if (account.getBalanceBuckets() == 0) {
+            return account;
+        }
+        balanceBuckets.fold(account);
+        return accountRepository.save(account);
+    }
+
+    private static Account copyOf(Account account) {
+        Account copy = new Account();
+        copy.setAccountId(account.getAccountId());
+        copy.setAccountHolderName(account.getAccountHolderName());
+        copy.setInitialBalance(account.getInitialBalance());
+        copy.setCurrentBalance(account.getCurrentBalance());
+        copy.setStatus(account.getStatus());
+        copy.setDailyWithdrawalDate(account.getDailyWithdrawalDate());
+        copy.setDailyWithdrawalTotal(account.getDailyWithdrawalTotal());
+        copy.setVersion(account.getVersion());
+        return copy;
+    }
+
+    private static final class LedgerAccount {
+
+        private Account account;
+
+        private long lastSequence;
+
+        private LedgerAccount(Account account) {
+            this.account = account;
+        }
+    }
+}
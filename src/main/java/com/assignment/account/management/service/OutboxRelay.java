@@ -0,0 +1,156 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.entity.OutboxCheckpoint;
+import com.assignment.account.management.entity.OutboxEvent;
+import com.assignment.account.management.repository.OutboxCheckpointRepository;
+import com.assignment.account.management.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Delivers outbox events to every {@link OutboxSink}, shard by shard, in batches. Event ids are
+ * handed out at insert but become visible at commit, so a smaller id can turn up after a larger
+ * one was relayed. Each run therefore first numbers the events committed since the last one with
+ * a relay sequence, and sinks are fed and checkpointed in that order. Run it on one node only.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "transaction.outbox.relay.enabled", havingValue = "true")
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final OutboxCheckpointRepository checkpointRepository;
+
+    private final List<OutboxSink> sinks;
+
+    private final AccountShards accountShards;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final Duration retention;
+
+    // Last event handed to each sink, per shard and sink name
+    private final Map<Integer, Map<String, Long>> positions = new ConcurrentHashMap<>();
+
+    public OutboxRelay(
+            OutboxEventRepository outboxEventRepository,
+            OutboxCheckpointRepository checkpointRepository,
+            List<OutboxSink> sinks,
+            AccountShards accountShards,
+            PlatformTransactionManager transactionManager,
+            @Value("${transaction.outbox.relay.batch.size}") int batchSize,
+            @Value("${transaction.outbox.retention}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.sinks = sinks;
+        this.accountShards = accountShards;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${transaction.outbox.relay.interval}")
+    public void relayScheduled() {
+        relay();
+    }
+
+    // Returns the number of events handed to sinks, counting each sink separately
+    public synchronized int relay() {
+        return accountShards.onEveryShard(() -> ReplicaRouting.primary(this::relayShard)).stream()
+                .mapToInt(Integer::intValue).sum();
+    }
+
+    private int relayShard() {
+        int shard = AccountShards.current();
+        try {
+            sequence();
+        } catch (RuntimeException ex) {
+            // Events sequenced so far are still relayed; the rest are picked up on the next run
+            log.warn("Outbox sequencing failed on shard {}", shard, ex);
+        }
+        Map<String, Long> shardPositions = positions.computeIfAbsent(shard, key -> new ConcurrentHashMap<>());
+        int relayed = 0;
+        for (OutboxSink sink : sinks) {
+            long position = shardPositions.computeIfAbsent(sink.name(), name -> startPosition(shard, sink));
+            try {
+                List<OutboxEvent> events;
+                do {
+                    events = outboxEventRepository.findByRelaySequenceGreaterThanOrderByRelaySequenceAsc(
+                            position, Limit.of(batchSize));
+                    if (events.isEmpty()) {
+                        break;
+                    }
+                    sink.publish(shard, events);
+                    position = events.get(events.size() - 1).getRelaySequence();
+                    checkpointRepository.advance(sink.name(), position);
+                    shardPositions.put(sink.name(), position);
+                    relayed += events.size();
+                } while (events.size() == batchSize);
+            } catch (IOException | RuntimeException ex) {
+                // Retried from the checkpoint on the next run
+                log.warn("Outbox sink {} failed on shard {} after event {}", sink.name(), shard, position, ex);
+            }
+        }
+        return relayed;
+    }
+
+    /**
+     * Numbers the events that have committed but not been sequenced yet, continuing from the
+     * largest sequence given out. An event still being written is invisible here and is numbered
+     * by the run that first finds it committed, after everything relayed before it.
+     */
+    private void sequence() {
+        List<OutboxEvent> sequenced;
+        do {
+            sequenced = transactionTemplate.execute(status -> {
+                List<OutboxEvent> committed = outboxEventRepository.findByRelaySequenceIsNullOrderByEventIdAsc(Limit.of(batchSize));
+                long next = Optional.ofNullable(outboxEventRepository.findLastRelaySequence()).orElse(0L);
+                for (OutboxEvent event : committed) {
+                    event.setRelaySequence(++next);
+                }
+                return committed;
+            });
+        } while (sequenced.size() == batchSize);
+    }
+
+    private long startPosition(int shard, OutboxSink sink) {
+        long lastRelaySequence = checkpointRepository.findById(sink.name())
+                .map(OutboxCheckpoint::getLastRelaySequence)
+                .orElseGet(() -> {
+                    OutboxCheckpoint created = new OutboxCheckpoint();
+                    created.setSinkName(sink.name());
+                    return checkpointRepository.save(created).getLastRelaySequence();
+                });
+        sink.resume(shard, lastRelaySequence);
+        return lastRelaySequence;
+    }
+
+    // Events every sink has been given are kept for the retention period, so consumers can resume from them
+    @Scheduled(fixedDelayString = "${transaction.outbox.purge.interval}")
+    public int purgeRelayed() {
+        LocalDateTime before = LocalDateTime.now().minus(retention);
+        int purged = accountShards.onEveryShard(() -> {
+            Long slowest = ReplicaRouting.primary(checkpointRepository::findSlowestRelaySequence);
+            return slowest == null ? 0 : outboxEventRepository.deleteRelayed(slowest, before);
+        }).stream().mapToInt(Integer::intValue).sum();
+        log.debug("Purged {} relayed outbox events", purged);
+        return purged;
+    }
+}
@@ -0,0 +1,22 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.entity.OutboxEvent;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination for outbox events. {@link OutboxRelay} hands each sink the events of one shard in
+ * the order it found them committed and records how far it got under the sink's name, so a sink that throws gets
+ * the same batch again: delivery is at least once.
+ */
+public interface OutboxSink {
+
+    String name();
+
+    // Called once per shard before the first batch, with the relay sequence of the last event this sink was given
+    default void resume(int shard, long lastRelaySequence) {
+    }
+
+    void publish(int shard, List<OutboxEvent> events) throws IOException;
+}
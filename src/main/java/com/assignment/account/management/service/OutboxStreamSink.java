@@ -0,0 +1,161 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.entity.OutboxEvent;
+import com.assignment.account.management.exception.InvalidCursorException;
+import com.assignment.account.management.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes relayed outbox events to server-sent event subscribers. Each event's id is a resume
+ * cursor holding the last relay sequence seen per shard; a subscriber that reconnects with it gets the
+ * events relayed since from the outbox table, then the live stream, with nothing skipped or repeated.
+ */
+@Component
+public class OutboxStreamSink implements OutboxSink {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final AccountShards accountShards;
+
+    private final int batchSize;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    // Last event relayed per shard, guarded by this
+    private final long[] relayed;
+
+    public OutboxStreamSink(OutboxEventRepository outboxEventRepository, AccountShards accountShards,
+                            @Value("${transaction.outbox.relay.batch.size}") int batchSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.accountShards = accountShards;
+        this.batchSize = batchSize;
+        this.relayed = new long[accountShards.count()];
+    }
+
+    @Override
+    public String name() {
+        return "stream";
+    }
+
+    @Override
+    public synchronized void resume(int shard, long lastRelaySequence) {
+        relayed[shard] = Math.max(relayed[shard], lastRelaySequence);
+    }
+
+    @Override
+    public void publish(int shard, List<OutboxEvent> events) {
+        List<Subscriber> current;
+        synchronized (this) {
+            relayed[shard] = events.get(events.size() - 1).getRelaySequence();
+            current = List.copyOf(subscribers);
+        }
+        current.forEach(subscriber -> subscriber.send(shard, events));
+    }
+
+    /**
+     * Without a cursor the subscriber starts with the next relayed event. Replays from the
+     * outbox table run on the calling thread before the emitter is returned.
+     */
+    public SseEmitter subscribe(String cursor) {
+        Subscriber subscriber = new Subscriber(new SseEmitter());
+        long[] upTo;
+        subscriber.lock.lock();
+        try {
+            // Registered and bounded together, so every event past upTo reaches it through publish
+            synchronized (this) {
+                upTo = relayed.clone();
+                subscriber.positions = cursor == null ? upTo.clone() : decodeCursor(cursor);
+                subscribers.add(subscriber);
+            }
+            subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+            subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+            subscriber.emitter.onError(ex -> subscribers.remove(subscriber));
+            for (int shard = 0; shard < upTo.length && !subscriber.closed; shard++) {
+                replay(subscriber, shard, upTo[shard]);
+            }
+        } finally {
+            subscriber.lock.unlock();
+        }
+        return subscriber.emitter;
+    }
+
+    private void replay(Subscriber subscriber, int shard, long upTo) {
+        while (!subscriber.closed && subscriber.positions[shard] < upTo) {
+            long from = subscriber.positions[shard] + 1;
+            List<OutboxEvent> events = accountShards.onShard(shard, () -> ReplicaRouting.primary(
+                    () -> outboxEventRepository.findByRelaySequenceBetweenOrderByRelaySequenceAsc(from, upTo, Limit.of(batchSize))));
+            if (events.isEmpty()) {
+                return;
+            }
+            subscriber.sendLocked(shard, events);
+        }
+    }
+
+    private long[] decodeCursor(String cursor) {
+        try {
+            long[] positions = Arrays.stream(cursor.split(",")).mapToLong(Long::parseLong).toArray();
+            if (positions.length == relayed.length) {
+                return positions;
+            }
+        } catch (NumberFormatException ex) {
+            // reported below
+        }
+        throw new InvalidCursorException("Invalid event cursor: " + cursor);
+    }
+
+    private class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private long[] positions;
+
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void send(int shard, List<OutboxEvent> events) {
+            lock.lock();
+            try {
+                sendLocked(shard, events);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Skips what the subscriber already has, so replay and live delivery can overlap
+        void sendLocked(int shard, List<OutboxEvent> events) {
+            for (OutboxEvent event : events) {
+                if (closed || event.getRelaySequence() <= positions[shard]) {
+                    continue;
+                }
+                positions[shard] = event.getRelaySequence();
+                try {
+                    emitter.send(SseEmitter.event()
+                            .id(Arrays.stream(positions).mapToObj(String::valueOf).collect(Collectors.joining(",")))
+                            .name(event.getEventType())
+                            .data(event.getPayload(), MediaType.APPLICATION_JSON));
+                } catch (IOException | IllegalStateException ex) {
+                    // Disconnected; the client resumes with the last cursor it received
+                    closed = true;
+                    subscribers.remove(this);
+                    emitter.completeWithError(ex);
+                }
+            }
+        }
+    }
+}
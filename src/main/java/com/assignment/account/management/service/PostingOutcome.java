@@ -0,0 +1,45 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.entity.Money;
+import com.assignment.account.management.exception.BalanceOutOfRangeException;
+import com.assignment.account.management.exception.InsufficientFundsException;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+/**
+ * Balance and daily withdrawal counter of an account after one posting. The posting rules live
+ * here so the blocking and the reactive services apply exactly the same ones.
+ */
+record PostingOutcome(Money newBalance, LocalDate dailyWithdrawalDate, Money dailyWithdrawalTotal,
+                      boolean flaggedForReview) {
+
+    // withdrawnToday is only asked for debits that the balance covers
+    static PostingOutcome apply(Money balance, LocalDate dailyWithdrawalDate, Money dailyWithdrawalTotal,
+                                String type, Money amount, Money dailyWithdrawalLimit, LocalDate today,
+                                Supplier<Money> withdrawnToday) {
+        // Check transaction type and process accordingly
+        if ("in".equalsIgnoreCase(type)) {
+            return new PostingOutcome(credited(balance, amount), dailyWithdrawalDate, dailyWithdrawalTotal, false);
+        } else if ("out".equalsIgnoreCase(type)) {
+            if (balance.isLessThan(amount)) {
+                throw new InsufficientFundsException("Insufficient funds to process the transaction.");
+            }
+
+            Money newTotalWithdrawals = withdrawnToday.get().plus(amount);
+            boolean flaggedForReview = newTotalWithdrawals.isGreaterThan(dailyWithdrawalLimit);
+
+            return new PostingOutcome(balance.minus(amount), today, newTotalWithdrawals, flaggedForReview);
+        }
+        throw new IllegalArgumentException("Invalid transaction type. Allowed types are 'in' or 'out'.");
+    }
+
+    // A valid credit can still take the balance past what a money column holds
+    static Money credited(Money balance, Money amount) {
+        try {
+            return balance.plus(amount);
+        } catch (ArithmeticException ex) {
+            throw new BalanceOutOfRangeException("The credit would take the balance past the largest amount an account can hold.");
+        }
+    }
+}
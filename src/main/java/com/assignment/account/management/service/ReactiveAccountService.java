@@ -0,0 +1,494 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.config.IdGeneratorBlocks;
+import com.assignment.account.management.dto.AccountCreateRequest;
+import com.assignment.account.management.dto.AccountCreateResponse;
+import com.assignment.account.management.dto.AccountSearchResponse;
+import com.assignment.account.management.dto.AccountUpdateRequest;
+import com.assignment.account.management.dto.TransactionDetails;
+import com.assignment.account.management.dto.TransactionHistoryResponse;
+import com.assignment.account.management.dto.TransactionRequest;
+import com.assignment.account.management.dto.TransactionResponse;
+import com.assignment.account.management.entity.AccountRecord;
+import com.assignment.account.management.entity.Money;
+import com.assignment.account.management.entity.TransactionRecord;
+import com.assignment.account.management.exception.AccountNotFoundException;
+import com.assignment.account.management.exception.ConcurrentPostingException;
+import com.assignment.account.management.exception.IdempotencyKeyReusedException;
+import com.assignment.account.management.repository.ReactiveAccountRepository;
+import com.assignment.account.management.repository.ReactiveTransactionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link AccountManagementService} behind the reactive controller,
+ * on R2DBC. Postings follow the same rules ({@link PostingOutcome}), write the same rows,
+ * including idempotency keys and outbox events, and draw transaction and event ids from the
+ * same id_generator blocks as Hibernate, so both stacks can run against one database. There are no
+ * in-process lock stripes: concurrent postings to an account are settled by the version column
+ * (or a row lock in pessimistic mode) and retried. Every posting goes through the account row,
+ * with the balance buckets of a high-volume account folded into it as {@link BalanceBuckets} does.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAccountService {
+
+    private final ReactiveAccountRepository accountRepository;
+
+    private final ReactiveTransactionRepository transactionRepository;
+
+    private final R2dbcEntityTemplate entityTemplate;
+
+    private final DatabaseClient databaseClient;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionMetrics transactionMetrics;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TransactionPostingEngine.LockMode lockMode;
+
+    private final int maxRetries;
+
+    private final Money dailyWithdrawalLimit;
+
+    private final Duration idempotencyTtl;
+
+    private final IdBlock transactionIds = new IdBlock("transaction");
+
+    private final IdBlock outboxEventIds = new IdBlock("outbox_event");
+
+    public ReactiveAccountService(
+            ReactiveAccountRepository accountRepository,
+            ReactiveTransactionRepository transactionRepository,
+            R2dbcEntityTemplate entityTemplate,
+            ReactiveTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            TransactionMetrics transactionMetrics,
+            ApplicationEventPublisher eventPublisher,
+            AccountShards accountShards,
+            @Value("${transaction.posting.mode}") String postingMode,
+            @Value("${transaction.posting.lock.mode}") String lockMode,
+            @Value("${transaction.posting.max.retries}") int maxRetries,
+            @Value("${transaction.daily.withdrawal.limit}") BigDecimal dailyWithdrawalLimit,
+            @Value("${transaction.idempotency.ttl}") Duration idempotencyTtl) {
+        if (accountShards.count() > 1 || !"direct".equalsIgnoreCase(postingMode)) {
+            throw new IllegalStateException("The reactive profile supports transaction.posting.mode=direct without account sharding");
+        }
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.entityTemplate = entityTemplate;
+        this.databaseClient = entityTemplate.getDatabaseClient();
+        this.transactionalOperator = TransactionalOperator.create(transactionManager);
+        this.objectMapper = objectMapper;
+        this.transactionMetrics = transactionMetrics;
+        this.eventPublisher = eventPublisher;
+        this.lockMode = TransactionPostingEngine.LockMode.valueOf(lockMode.toUpperCase());
+        this.maxRetries = maxRetries;
+        this.dailyWithdrawalLimit = Money.of(dailyWithdrawalLimit);
+        this.idempotencyTtl = idempotencyTtl;
+    }
+
+    public Mono<AccountCreateResponse> createAccount(AccountCreateRequest accountCreateRequest) {
+        AccountRecord account = new AccountRecord();
+        account.setAccountHolderName(accountCreateRequest.getAccountHolderName());
+        Money initialBalance = Money.of(accountCreateRequest.getInitialBalance());
+        account.setInitialBalance(initialBalance);
+        account.setCurrentBalance(initialBalance);
+        account.setStatus("ACTIVE");
+        account.setDailyWithdrawalDate(LocalDate.now());
+        account.setDailyWithdrawalTotal(Money.ZERO);
+        account.setCreatedAt(LocalDateTime.now());
+
+        return accountRepository.save(account)
+                .flatMap(saved -> writeOutbox(TransactionOutbox.ACCOUNT_CREATED, saved.getAccountId(), accountPayload(saved))
+                        .thenReturn(saved))
+                .as(transactionalOperator::transactional)
+                .doOnNext(saved -> eventPublisher.publishEvent(new AccountChangedEvent(saved.getAccountId())))
+                .map(saved -> AccountCreateResponse.builder().accountId(saved.getAccountId())
+                        .accountHolderName(saved.getAccountHolderName())
+                        .balance(saved.getCurrentBalance().toBigDecimal())
+                        .status(saved.getStatus())
+                        .build());
+    }
+
+    public Mono<AccountSearchResponse> getAccountDetails(Long accountId) {
+        return findAccount(accountId).flatMap(account -> account.getBalanceBuckets() == 0
+                ? Mono.just(accountPayload(account))
+                : accountRepository.findTotalBalance(accountId).map(balance -> {
+                    account.setCurrentBalance(balance);
+                    return accountPayload(account);
+                }));
+    }
+
+    public Mono<Void> updateAccount(Long accountId, AccountUpdateRequest accountUpdateRequest) {
+        return findAccount(accountId)
+                .flatMap(account -> {
+                    account.setAccountHolderName(accountUpdateRequest.getAccountHolderName());
+                    account.setUpdatedAt(LocalDateTime.now());
+                    return accountRepository.save(account);
+                })
+                .doOnNext(account -> eventPublisher.publishEvent(new AccountChangedEvent(accountId)))
+                .then();
+    }
+
+    public Mono<Void> suspendAccount(Long accountId) {
+        return findAccount(accountId)
+                .flatMap(this::foldBuckets)
+                .flatMap(account -> {
+                    account.setStatus("SUSPENDED");
+                    account.setUpdatedAt(LocalDateTime.now());
+                    return accountRepository.save(account);
+                })
+                .flatMap(account -> writeOutbox(TransactionOutbox.ACCOUNT_SUSPENDED, accountId, accountPayload(account)))
+                .as(transactionalOperator::transactional)
+                .doOnSuccess(ignored -> eventPublisher.publishEvent(new AccountChangedEvent(accountId)));
+    }
+
+    public Mono<TransactionResponse> processTransaction(Long accountId, TransactionRequest transactionRequest, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            IdempotencyStore.validate(idempotencyKey);
+        }
+        return nextId(transactionIds)
+                .flatMap(transactionId -> Mono.defer(() -> post(accountId, transactionRequest, idempotencyKey, transactionId))
+                        .as(transactionalOperator::transactional)
+                        .retryWhen(Retry.backoff(maxRetries, Duration.ofMillis(1))
+                                .filter(OptimisticLockingFailureException.class::isInstance)
+                                .doBeforeRetry(signal -> transactionMetrics.concurrentUpdate())
+                                .onRetryExhaustedThrow((spec, signal) -> new ConcurrentPostingException(
+                                        "Concurrent update on account " + accountId + ", please retry.")))
+                        // Committed by now, so the review pipeline never sees a posting that rolled back
+                        .doOnNext(response -> {
+                            if (Boolean.TRUE.equals(response.getFlaggedForReview())) {
+                                eventPublisher.publishEvent(new FlaggedPostingEvent(transactionId, accountId,
+                                        Money.of(response.getAmount()), response.getTimestamp()));
+                            }
+                        }))
+                .doOnNext(response -> {
+                    transactionMetrics.posted(response.getType(), response.getFlaggedForReview());
+                    eventPublisher.publishEvent(new AccountChangedEvent(accountId));
+                })
+                // The key's insert lost to a posting that already used it
+                .onErrorResume(DataIntegrityViolationException.class, ex -> idempotencyKey == null
+                        ? Mono.error(ex)
+                        : replayStored(accountId, transactionRequest, idempotencyKey, ex));
+    }
+
+    private Mono<TransactionResponse> post(Long accountId, TransactionRequest transactionRequest, String idempotencyKey,
+                                           Long transactionId) {
+        Mono<AccountRecord> account = lockMode == TransactionPostingEngine.LockMode.PESSIMISTIC
+                ? accountRepository.findByIdForUpdate(accountId)
+                : accountRepository.findById(accountId);
+        return account
+                .switchIfEmpty(Mono.error(() -> new AccountNotFoundException("Account not found with ID: " + accountId)))
+                .flatMap(this::foldBuckets)
+                .flatMap(found -> withdrawnToday(found).flatMap(withdrawnToday -> {
+                    TransactionRecord transaction = applyPosting(found, transactionRequest, withdrawnToday);
+                    transaction.setTransactionId(transactionId);
+                    Mono<Void> key = idempotencyKey == null ? Mono.empty() : databaseClient
+                            .sql("INSERT INTO idempotency_key (idempotency_key, account_id, transaction_id, expires_at) "
+                                    + "VALUES (:key, :accountId, :transactionId, :expiresAt)")
+                            .bind("key", idempotencyKey)
+                            .bind("accountId", accountId)
+                            .bind("transactionId", transactionId)
+                            .bind("expiresAt", LocalDateTime.now().plus(idempotencyTtl))
+                            .then();
+                    return accountRepository.save(found)
+                            .then(transactionRepository.save(transaction))
+                            .flatMap(saved -> key
+                                    .then(writeOutbox(TransactionOutbox.TRANSACTION_POSTED, accountId, toDetails(saved)))
+                                    .thenReturn(toResponse(saved)));
+                }));
+    }
+
+    // Postings that already stored a key are answered with the original response
+    private Mono<TransactionResponse> replayStored(Long accountId, TransactionRequest transactionRequest, String idempotencyKey,
+                                                   DataIntegrityViolationException cause) {
+        return databaseClient.sql("SELECT transaction_id, expires_at FROM idempotency_key WHERE idempotency_key = :key")
+                .bind("key", idempotencyKey)
+                .map(row -> new StoredKey(row.get("transaction_id", Long.class), row.get("expires_at", LocalDateTime.class)))
+                .one()
+                .switchIfEmpty(Mono.error(cause))
+                .flatMap(stored -> stored.expiresAt().isBefore(LocalDateTime.now())
+                        // The key outlived its TTL before the purge job got to it, so this is a new posting
+                        ? releaseIfExpired(idempotencyKey)
+                                .then(Mono.defer(() -> processTransaction(accountId, transactionRequest, idempotencyKey)))
+                        : replay(accountId, transactionRequest, stored.transactionId(), cause));
+    }
+
+    private Mono<Void> releaseIfExpired(String idempotencyKey) {
+        return databaseClient.sql("DELETE FROM idempotency_key WHERE idempotency_key = :key AND expires_at < :now")
+                .bind("key", idempotencyKey)
+                .bind("now", LocalDateTime.now())
+                .then();
+    }
+
+    private Mono<TransactionResponse> replay(Long accountId, TransactionRequest transactionRequest, Long transactionId,
+                                             DataIntegrityViolationException cause) {
+        return transactionRepository.findById(transactionId)
+                .switchIfEmpty(Mono.error(cause))
+                .map(stored -> {
+                    TransactionResponse previous = toResponse(stored);
+                    if (!previous.getAccountId().equals(accountId)
+                            || previous.getAmount().compareTo(transactionRequest.getAmount()) != 0
+                            || !previous.getType().equalsIgnoreCase(transactionRequest.getType())) {
+                        throw new IdempotencyKeyReusedException("Idempotency-Key was already used for a different transaction.");
+                    }
+                    transactionMetrics.replayed();
+                    return previous;
+                });
+    }
+
+    private TransactionRecord applyPosting(AccountRecord account, TransactionRequest transactionRequest, Money withdrawnToday) {
+        Money amount = Money.of(transactionRequest.getAmount());
+        PostingOutcome outcome = PostingOutcome.apply(account.getCurrentBalance(), account.getDailyWithdrawalDate(),
+                account.getDailyWithdrawalTotal(), transactionRequest.getType(), amount, dailyWithdrawalLimit, LocalDate.now(),
+                () -> withdrawnToday);
+        account.setDailyWithdrawalDate(outcome.dailyWithdrawalDate());
+        account.setDailyWithdrawalTotal(outcome.dailyWithdrawalTotal());
+        account.setCurrentBalance(outcome.newBalance());
+        account.setUpdatedAt(LocalDateTime.now());
+
+        TransactionRecord transaction = new TransactionRecord();
+        transaction.setAccountId(account.getAccountId());
+        transaction.setAmount(amount);
+        transaction.setType(transactionRequest.getType());
+        transaction.setTimestamp(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        transaction.setBalanceAfterTransaction(outcome.newBalance());
+        transaction.setFlaggedForReview(outcome.flaggedForReview());
+        return transaction;
+    }
+
+    // Locks the buckets until the transaction ends, so credits arriving meanwhile land on the emptied ones
+    private Mono<AccountRecord> foldBuckets(AccountRecord account) {
+        if (account.getBalanceBuckets() == 0) {
+            return Mono.just(account);
+        }
+        return databaseClient.sql("SELECT balance FROM account_balance_bucket WHERE account_id = :accountId FOR UPDATE")
+                .bind("accountId", account.getAccountId())
+                .map(row -> Money.of(row.get("balance", BigDecimal.class)))
+                .all()
+                .reduce(Money.ZERO, Money::plus)
+                .flatMap(folded -> databaseClient.sql("UPDATE account_balance_bucket SET balance = 0 WHERE account_id = :accountId")
+                        .bind("accountId", account.getAccountId())
+                        .then()
+                        .then(Mono.fromSupplier(() -> {
+                            account.setCurrentBalance(account.getCurrentBalance().plus(folded));
+                            return account;
+                        })));
+    }
+
+    private Mono<Money> withdrawnToday(AccountRecord account) {
+        LocalDate today = LocalDate.now();
+        if (account.getDailyWithdrawalDate() == null) {
+            // Accounts created before the running counter existed are seeded once from the ledger
+            return transactionRepository.findTotalWithdrawalsForToday(account.getAccountId(), today);
+        }
+        return Mono.just(today.equals(account.getDailyWithdrawalDate()) ? account.getDailyWithdrawalTotal() : Money.ZERO);
+    }
+
+    public Mono<TransactionHistoryResponse> getTransactionHistory(Long accountId, String transactionType,
+                                                                  LocalDateTime startDate, LocalDateTime endDate, int page, int size) {
+        Criteria criteria = historyCriteria(accountId, transactionType, startDate, endDate);
+        Mono<Long> total = entityTemplate.count(Query.query(criteria), TransactionRecord.class);
+        Mono<List<TransactionDetails>> transactions = entityTemplate.select(TransactionRecord.class)
+                .as(TransactionDetails.class)
+                .matching(Query.query(criteria).sort(Sort.by("transactionId").descending()).offset((long) page * size).limit(size))
+                .all()
+                .collectList();
+        return Mono.zip(total, transactions).map(result -> TransactionHistoryResponse.builder()
+                .currentPage(page)
+                .totalPages(size == 0 ? 1 : (int) Math.ceil((double) result.getT1() / size))
+                .totalTransactions(result.getT1())
+                .transactions(result.getT2()).build());
+    }
+
+    public Mono<TransactionHistoryResponse> getTransactionHistoryByCursor(Long accountId, String transactionType,
+                                                                          LocalDateTime startDate, LocalDateTime endDate,
+                                                                          String cursor, int size) {
+        // Keyset paging: one row past the page tells whether another page follows
+        Long beforeTransactionId = cursor == null ? Long.MAX_VALUE : AccountManagementService.decodeCursor(cursor);
+        Criteria criteria = historyCriteria(accountId, transactionType, startDate, endDate)
+                .and("transactionId").lessThan(beforeTransactionId);
+        return entityTemplate.select(TransactionRecord.class)
+                .as(TransactionDetails.class)
+                .matching(Query.query(criteria).sort(Sort.by("transactionId").descending()).limit(size + 1))
+                .all()
+                .collectList()
+                .map(rows -> {
+                    boolean hasNext = rows.size() > size;
+                    List<TransactionDetails> transactions = hasNext ? rows.subList(0, size) : rows;
+                    return TransactionHistoryResponse.builder()
+                            .hasNext(hasNext)
+                            .nextCursor(hasNext ? AccountManagementService.encodeCursor(
+                                    transactions.get(transactions.size() - 1).getTransactionId()) : null)
+                            .transactions(transactions).build();
+                });
+    }
+
+    /**
+     * Streams every matching transaction, oldest first. Rows are requested from the database as
+     * the client consumes them, so a slow reader holds back the query instead of filling the heap.
+     */
+    public Flux<TransactionRecord> exportTransactions(Long accountId, String transactionType,
+                                                      LocalDateTime startDate, LocalDateTime endDate) {
+        Criteria criteria = historyCriteria(accountId, transactionType, startDate, endDate);
+        return findAccount(accountId).thenMany(entityTemplate.select(TransactionRecord.class)
+                .matching(Query.query(criteria).sort(Sort.by("transactionId").ascending()))
+                .all());
+    }
+
+    // One JSON document per line, written the way the servlet export's generator writes them
+    public Flux<String> exportTransactionsAsNdjson(Long accountId, String transactionType,
+                                                   LocalDateTime startDate, LocalDateTime endDate) {
+        return exportTransactions(accountId, transactionType, startDate, endDate)
+                .handle((transaction, sink) -> {
+                    try {
+                        sink.next(objectMapper.writeValueAsString(toDetails(transaction)) + "\n");
+                    } catch (JsonProcessingException ex) {
+                        sink.error(new IllegalStateException("Could not serialize transaction " + transaction.getTransactionId(), ex));
+                    }
+                });
+    }
+
+    public Flux<String> exportTransactionsAsCsv(Long accountId, String transactionType,
+                                                LocalDateTime startDate, LocalDateTime endDate) {
+        return exportTransactions(accountId, transactionType, startDate, endDate)
+                .map(transaction -> transaction.getTransactionId() + "," + transaction.getAmount() + ","
+                        + transaction.getType() + "," + transaction.getTimestamp() + ","
+                        + transaction.getBalanceAfterTransaction() + "," + transaction.isFlaggedForReview() + "\n")
+                .startWith(TransactionExportService.CSV_HEADER);
+    }
+
+    public static TransactionDetails toDetails(TransactionRecord transaction) {
+        return new TransactionDetails(transaction.getTransactionId(), transaction.getAmount().toBigDecimal(), transaction.getType(),
+                transaction.getTimestamp(), transaction.getBalanceAfterTransaction().toBigDecimal());
+    }
+
+    private Criteria historyCriteria(Long accountId, String transactionType, LocalDateTime startDate, LocalDateTime endDate) {
+        Criteria criteria = Criteria.where("accountId").is(accountId);
+        if (transactionType != null) {
+            criteria = criteria.and("type").is(transactionType);
+        }
+        if (startDate != null) {
+            criteria = criteria.and("timestamp").between(startDate, endDate != null ? endDate : LocalDateTime.now());
+        }
+        return criteria;
+    }
+
+    private Mono<AccountRecord> findAccount(Long accountId) {
+        return accountRepository.findById(accountId)
+                .switchIfEmpty(Mono.error(() -> new AccountNotFoundException("Account not found with ID: " + accountId)));
+    }
+
+    // Takes blocks the way Hibernate's pooled table generator does, see IdGeneratorBlocks.
+    // The block commits on its own, never with a posting.
+    private Mono<Long> nextId(IdBlock block) {
+        synchronized (block) {
+            if (block.next <= block.last) {
+                return Mono.just(block.next++);
+            }
+        }
+        return databaseClient.sql("SELECT next_val FROM id_generator WHERE sequence_name = :sequenceName FOR UPDATE")
+                .bind("sequenceName", block.sequenceName)
+                .map(row -> row.get("next_val", Long.class))
+                .one()
+                .flatMap(nextVal -> databaseClient.sql("UPDATE id_generator SET next_val = :nextVal WHERE sequence_name = :sequenceName")
+                        .bind("nextVal", nextVal + IdGeneratorBlocks.ALLOCATION_SIZE)
+                        .bind("sequenceName", block.sequenceName)
+                        .then()
+                        .thenReturn(nextVal))
+                .as(transactionalOperator::transactional)
+                .map(nextVal -> {
+                    synchronized (block) {
+                        // A concurrent caller may have installed a block first; this one is then left unused
+                        if (block.next > block.last) {
+                            block.next = IdGeneratorBlocks.firstId(nextVal);
+                            block.last = IdGeneratorBlocks.lastId(nextVal);
+                        }
+                        return block.next++;
+                    }
+                });
+    }
+
+    private Mono<Void> writeOutbox(String eventType, Long accountId, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException ex) {
+            return Mono.error(new IllegalStateException("Could not serialize " + eventType + " event for account " + accountId, ex));
+        }
+        return nextId(outboxEventIds).flatMap(eventId -> databaseClient.sql(
+                        "INSERT INTO outbox_event (event_id, account_id, event_type, payload, created_at) "
+                                + "VALUES (:eventId, :accountId, :eventType, :payload, :createdAt)")
+                .bind("eventId", eventId)
+                .bind("accountId", accountId)
+                .bind("eventType", eventType)
+                .bind("payload", json)
+                .bind("createdAt", LocalDateTime.now().truncatedTo(ChronoUnit.MICROS))
+                .then());
+    }
+
+    private static AccountSearchResponse accountPayload(AccountRecord account) {
+        return AccountSearchResponse.builder()
+                .accountId(account.getAccountId())
+                .accountHolderName(account.getAccountHolderName())
+                .balance(account.getCurrentBalance().toBigDecimal())
+                .status(account.getStatus())
+                .build();
+    }
+
+    private static TransactionResponse toResponse(TransactionRecord transaction) {
+        TransactionResponse response = new TransactionResponse();
+        response.setAccountId(transaction.getAccountId());
+        response.setAmount(transaction.getAmount().toBigDecimal());
+        response.setType(transaction.getType());
+        response.setTimestamp(transaction.getTimestamp());
+        response.setNewBalance(transaction.getBalanceAfterTransaction().toBigDecimal());
+        response.setFlaggedForReview(transaction.isFlaggedForReview());
+        return response;
+    }
+
+    // Current block of one id_generator sequence, guarded by the block itself
+    private static final class IdBlock {
+
+        private final String sequenceName;
+
+        private long next = 1;
+
+        private long last = 0;
+
+        private IdBlock(String sequenceName) {
+            this.sequenceName = sequenceName;
+        }
+    }
+
+    private record StoredKey(Long transactionId, LocalDateTime expiresAt) {
+    }
+}
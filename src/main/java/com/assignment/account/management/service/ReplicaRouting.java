@@ -0,0 +1,81 @@
+package com.assignment.account.management.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Decides whether a read-only transaction may read from its shard's replica, enabled with
+ * datasource.replica.enabled=true. It may once a heartbeat has shown the replica within the
+ * allowed lag, unless the account being read changed on this node within the read-your-writes
+ * window or the caller asked for the primary. Everything else reads and writes the primary.
+ */
+@Component
+public class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private final boolean enabled;
+
+    private final Duration maxLag;
+
+    // Accounts written on this node recently enough that a replica may not have the write yet
+    private final Cache<Long, Boolean> recentWrites;
+
+    private final Map<Integer, Duration> lags = new ConcurrentHashMap<>();
+
+    public ReplicaRouting(
+            @Value("${datasource.replica.enabled}") boolean enabled,
+            @Value("${datasource.replica.max.lag}") Duration maxLag,
+            @Value("${datasource.replica.read.your.writes}") Duration readYourWrites) {
+        this.enabled = enabled;
+        this.maxLag = maxLag;
+        this.recentWrites = readYourWrites.isZero() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(readYourWrites)
+                .build();
+    }
+
+    public boolean useReplica(int shard) {
+        if (!enabled || PRIMARY.get() != null) {
+            return false;
+        }
+        // No heartbeat seen yet counts as too far behind
+        Duration lag = lags.get(shard);
+        if (lag == null || lag.compareTo(maxLag) > 0) {
+            return false;
+        }
+        Long accountId = AccountShards.currentAccount();
+        return accountId == null || recentWrites == null || recentWrites.getIfPresent(accountId) == null;
+    }
+
+    // For reads that must see every committed write, such as the row behind a duplicate key
+    public static <T> T primary(Supplier<T> action) {
+        Boolean previous = PRIMARY.get();
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY.remove();
+            }
+        }
+    }
+
+    public void lagMeasured(int shard, Duration lag) {
+        lags.put(shard, lag);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        if (enabled && recentWrites != null) {
+            recentWrites.put(event.accountId(), Boolean.TRUE);
+        }
+    }
+}
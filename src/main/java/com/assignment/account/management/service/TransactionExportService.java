@@ -0,0 +1,123 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.ExportFormat;
+import com.assignment.account.management.dto.TransactionDetails;
+import com.assignment.account.management.entity.Transaction;
+import com.assignment.account.management.exception.AccountNotFoundException;
+import com.assignment.account.management.repository.AccountRepository;
+import com.assignment.account.management.repository.TransactionRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class TransactionExportService {
+
+    static final String CSV_HEADER = "transactionId,amount,type,timestamp,balanceAfterTransaction,flaggedForReview\n";
+
+    private final AccountRepository accountRepository;
+
+    private final TransactionRepository transactionRepository;
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final AccountShards accountShards;
+
+    public TransactionExportService(AccountRepository accountRepository, TransactionRepository transactionRepository,
+                                    EntityManager entityManager, ObjectMapper objectMapper, AccountShards accountShards) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.accountShards = accountShards;
+    }
+
+    public void verifyAccountExists(Long accountId) {
+        if (!accountShards.on(accountId, () -> accountRepository.existsById(accountId))) {
+            throw new AccountNotFoundException("Account not found with ID: " + accountId);
+        }
+    }
+
+    // Rows are read through a forward-only cursor and detached once written, so heap use does not grow with history size
+    @Transactional(readOnly = true)
+    public void exportTransactions(Long accountId, String transactionType, LocalDateTime startDate, LocalDateTime endDate,
+                                   ExportFormat format, OutputStream outputStream) throws IOException {
+        // The query runs on the account's shard and the rest of the transaction reads from the same connection
+        try (Stream<Transaction> transactions = accountShards.on(accountId,
+                () -> streamTransactions(accountId, transactionType, startDate, endDate))) {
+            if (format == ExportFormat.CSV) {
+                writeCsv(transactions.iterator(), outputStream);
+            } else {
+                writeNdjson(transactions.iterator(), outputStream);
+            }
+        }
+    }
+
+    private Stream<Transaction> streamTransactions(Long accountId, String transactionType,
+                                                   LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate != null && endDate == null) {
+            endDate = LocalDateTime.now();
+        }
+        if (transactionType == null && startDate != null) {
+            return transactionRepository.streamByAccountIdAndTimestampBetweenOrderByTransactionIdAsc(accountId, startDate, endDate);
+        } else if (transactionType != null && startDate != null) {
+            return transactionRepository.streamByAccountIdAndTypeAndTimestampBetweenOrderByTransactionIdAsc(
+                    accountId, transactionType, startDate, endDate);
+        } else if (transactionType != null) {
+            return transactionRepository.streamByAccountIdAndTypeOrderByTransactionIdAsc(accountId, transactionType);
+        }
+        return transactionRepository.streamByAccountIdOrderByTransactionIdAsc(accountId);
+    }
+
+    private void writeNdjson(Iterator<Transaction> transactions, OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        while (transactions.hasNext()) {
+            Transaction transaction = transactions.next();
+            generator.writeObject(toDetails(transaction));
+            generator.writeRaw('\n');
+            entityManager.detach(transaction);
+        }
+        generator.flush();
+    }
+
+    private void writeCsv(Iterator<Transaction> transactions, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        while (transactions.hasNext()) {
+            Transaction transaction = transactions.next();
+            writer.append(String.valueOf(transaction.getTransactionId())).append(',')
+                    .append(transaction.getAmount().toString()).append(',')
+                    .append(transaction.getType()).append(',')
+                    .append(String.valueOf(transaction.getTimestamp())).append(',')
+                    .append(transaction.getBalanceAfterTransaction().toString()).append(',')
+                    .append(String.valueOf(transaction.isFlaggedForReview())).append('\n');
+            entityManager.detach(transaction);
+        }
+        writer.flush();
+    }
+
+    private TransactionDetails toDetails(Transaction transaction) {
+        return TransactionDetails.builder()
+                .transactionId(transaction.getTransactionId())
+                .amount(transaction.getAmount().toBigDecimal())
+                .timestamp(transaction.getTimestamp())
+                .balanceAfterTransaction(transaction.getBalanceAfterTransaction().toBigDecimal())
+                .type(transaction.getType())
+                .build();
+    }
+}
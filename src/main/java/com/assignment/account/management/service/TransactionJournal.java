@@ -0,0 +1,283 @@
+package com.assignment.account.management.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only posting journal on memory-mapped segment files. Each record is
+ * [payload length][CRC32 of payload][payload]; a zero length ends a segment, and a record whose
+ * checksum does not match is a write torn by a crash and ends the log. Appenders that sync while a
+ * force is in progress are covered by the next one, which is the journal's group commit.
+ */
+public class TransactionJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "journal-";
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final int HEADER_SIZE = 8;
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    // Appended entries the database does not have yet, in sequence order; guarded by appendLock
+    private final Deque<JournalEntry> unflushed = new ArrayDeque<>();
+
+    // Segment files keyed by the first sequence they hold; guarded by appendLock
+    private final NavigableMap<Long, Path> segments = new TreeMap<>();
+
+    private FileChannel channel;
+
+    private MappedByteBuffer buffer;
+
+    private volatile long lastSequence;
+
+    private volatile long syncedSequence;
+
+    /**
+     * Opens the journal in {@code directory}, keeping every intact entry past {@code checkpoint}
+     * as unflushed and discarding a torn record at the tail.
+     */
+    public TransactionJournal(Path directory, int segmentSize, long checkpoint) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .forEach(file -> segments.put(firstSequence(file), file));
+        }
+
+        long last = checkpoint;
+        int end = 0;
+        for (Path segment : segments.values()) {
+            List<JournalEntry> entries = new ArrayList<>();
+            try (FileChannel readChannel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                end = scan(readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size()), entries);
+            }
+            for (JournalEntry entry : entries) {
+                last = Math.max(last, entry.sequence());
+                if (entry.sequence() > checkpoint) {
+                    unflushed.addLast(entry);
+                }
+            }
+        }
+        this.lastSequence = last;
+
+        if (segments.isEmpty()) {
+            openSegment(last + 1);
+        } else {
+            Path active = segments.lastEntry().getValue();
+            channel = FileChannel.open(active, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            if (end + HEADER_SIZE <= buffer.capacity() && buffer.getInt(end) != 0) {
+                // Torn tail from a crash mid-append; clear it so it cannot be mistaken for a record later
+                byte[] zeros = new byte[64 * 1024];
+                for (int position = end; position < buffer.capacity(); position += zeros.length) {
+                    buffer.put(position, zeros, 0, Math.min(zeros.length, buffer.capacity() - position));
+                }
+            }
+            buffer.position(end);
+        }
+        buffer.force();
+        this.syncedSequence = last;
+    }
+
+    public JournalEntry append(JournalEntry entry) {
+        appendLock.lock();
+        try {
+            JournalEntry sequenced = entry.withSequence(lastSequence + 1);
+            byte[] payload = encode(sequenced);
+            if (HEADER_SIZE + payload.length > segmentSize) {
+                throw new IllegalStateException("Journal record of " + payload.length + " bytes exceeds the segment size.");
+            }
+            if (buffer.position() + HEADER_SIZE + payload.length > buffer.capacity()) {
+                buffer.force();
+                channel.close();
+                openSegment(sequenced.sequence());
+            }
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            int position = buffer.position();
+            buffer.putInt(position + 4, (int) crc.getValue());
+            buffer.put(position + HEADER_SIZE, payload);
+            // Length goes in last: a record is not visible to a scan until it is complete
+            buffer.putInt(position, payload.length);
+            buffer.position(position + HEADER_SIZE + payload.length);
+            lastSequence = sequenced.sequence();
+            unflushed.addLast(sequenced);
+            return sequenced;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not append to the posting journal", ex);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Returns once every entry up to sequence is on disk; one force covers all appends before it
+    public void sync(long sequence) {
+        if (syncedSequence >= sequence) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (syncedSequence >= sequence) {
+                return;
+            }
+            long target;
+            MappedByteBuffer current;
+            appendLock.lock();
+            try {
+                target = lastSequence;
+                current = buffer;
+            } finally {
+                appendLock.unlock();
+            }
+            // Earlier segments were forced when they were rolled
+            current.force();
+            syncedSequence = target;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    public int pendingCount() {
+        appendLock.lock();
+        try {
+            return unflushed.size();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public Optional<JournalEntry> oldestUnflushed() {
+        appendLock.lock();
+        try {
+            return Optional.ofNullable(unflushed.peekFirst());
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Oldest entries that are on disk but not yet in the database
+    public List<JournalEntry> pending(int max) {
+        appendLock.lock();
+        try {
+            List<JournalEntry> batch = new ArrayList<>(Math.min(max, unflushed.size()));
+            for (JournalEntry entry : unflushed) {
+                if (batch.size() == max || entry.sequence() > syncedSequence) {
+                    break;
+                }
+                batch.add(entry);
+            }
+            return batch;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Called once entries up to sequence are committed; segments wholly behind it are deleted
+    public void flushed(long sequence) {
+        appendLock.lock();
+        try {
+            while (!unflushed.isEmpty() && unflushed.peekFirst().sequence() <= sequence) {
+                unflushed.removeFirst();
+            }
+            while (segments.size() > 1) {
+                Map.Entry<Long, Path> oldest = segments.firstEntry();
+                if (segments.higherKey(oldest.getKey()) - 1 > sequence) {
+                    break;
+                }
+                Files.deleteIfExists(oldest.getValue());
+                segments.pollFirstEntry();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not release a flushed journal segment", ex);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            buffer.force();
+            channel.close();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        Path segment = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segments.put(firstSequence, segment);
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static byte[] encode(JournalEntry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        entry.writeTo(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    // Reads intact records into entries and returns the position just past the last one
+    private static int scan(ByteBuffer segment, List<JournalEntry> entries) throws IOException {
+        CRC32 crc = new CRC32();
+        int position = 0;
+        while (position + HEADER_SIZE <= segment.limit()) {
+            int length = segment.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > segment.limit()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            segment.get(position + HEADER_SIZE, payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != segment.getInt(position + 4)) {
+                break;
+            }
+            entries.add(JournalEntry.readFrom(new DataInputStream(new ByteArrayInputStream(payload))));
+            position += HEADER_SIZE + length;
+        }
+        return position;
+    }
+}
@@ -0,0 +1,84 @@
+package com.assignment.account.management.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+// Counters are registered up front so recording a posting does no tag lookups
+@Component
+public class TransactionMetrics {
+
+    private final Counter credits;
+
+    private final Counter debits;
+
+    private final Counter flaggedDebits;
+
+    private final Counter insufficientFunds;
+
+    private final Counter concurrentUpdates;
+
+    private final Counter replays;
+
+    private final Counter rateLimited;
+
+    private final Counter overloaded;
+
+    public TransactionMetrics(MeterRegistry meterRegistry) {
+        this.credits = posted(meterRegistry, "in", false);
+        this.debits = posted(meterRegistry, "out", false);
+        this.flaggedDebits = posted(meterRegistry, "out", true);
+        this.insufficientFunds = rejected(meterRegistry, "insufficient_funds");
+        this.concurrentUpdates = rejected(meterRegistry, "concurrent_update");
+        this.replays = Counter.builder("account.transactions.replayed")
+                .description("Retried postings answered from the idempotency store")
+                .register(meterRegistry);
+        this.rateLimited = rejected(meterRegistry, "rate_limited");
+        this.overloaded = rejected(meterRegistry, "overloaded");
+    }
+
+    public void posted(String type, boolean flaggedForReview) {
+        if ("in".equalsIgnoreCase(type)) {
+            credits.increment();
+        } else if (flaggedForReview) {
+            flaggedDebits.increment();
+        } else {
+            debits.increment();
+        }
+    }
+
+    public void insufficientFunds(int count) {
+        insufficientFunds.increment(count);
+    }
+
+    public void concurrentUpdate() {
+        concurrentUpdates.increment();
+    }
+
+    public void replayed() {
+        replays.increment();
+    }
+
+    public void rateLimited() {
+        rateLimited.increment();
+    }
+
+    public void overloaded() {
+        overloaded.increment();
+    }
+
+    private static Counter posted(MeterRegistry meterRegistry, String type, boolean flaggedForReview) {
+        return Counter.builder("account.transactions")
+                .description("Transactions posted")
+                .tag("type", type)
+                .tag("flagged", Boolean.toString(flaggedForReview))
+                .register(meterRegistry);
+    }
+
+    private static Counter rejected(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("account.transactions.rejected")
+                .description("Transactions rejected before posting")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
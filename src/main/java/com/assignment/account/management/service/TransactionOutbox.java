@@ -0,0 +1,91 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.AccountSearchResponse;
+import com.assignment.account.management.dto.TransactionDetails;
+import com.assignment.account.management.entity.Account;
+import com.assignment.account.management.entity.OutboxEvent;
+import com.assignment.account.management.entity.Transaction;
+import com.assignment.account.management.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Writes account and transaction events to the outbox table. Every method joins the caller's
+ * transaction, so an event is stored if and only if the change it describes commits;
+ * {@link OutboxRelay} delivers them from there.
+ */
+@Component
+public class TransactionOutbox {
+
+    public static final String ACCOUNT_CREATED = "ACCOUNT_CREATED";
+
+    public static final String ACCOUNT_SUSPENDED = "ACCOUNT_SUSPENDED";
+
+    public static final String TRANSACTION_POSTED = "TRANSACTION_POSTED";
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ObjectMapper objectMapper;
+
+    public TransactionOutbox(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void accountCreated(Account account) {
+        outboxEventRepository.save(event(ACCOUNT_CREATED, account.getAccountId(), accountPayload(account)));
+    }
+
+    // Called after the accounts are inserted, so they carry their ids
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void accountsCreated(List<Account> accounts) {
+        outboxEventRepository.saveAll(accounts.stream()
+                .map(account -> event(ACCOUNT_CREATED, account.getAccountId(), accountPayload(account)))
+                .toList());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void accountSuspended(Account account) {
+        outboxEventRepository.save(event(ACCOUNT_SUSPENDED, account.getAccountId(), accountPayload(account)));
+    }
+
+    // Called after the transactions are saved, so they carry their ids
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transactionsPosted(List<Transaction> transactions) {
+        outboxEventRepository.saveAll(transactions.stream()
+                .map(transaction -> event(TRANSACTION_POSTED, transaction.getAccountId(), new TransactionDetails(
+                        transaction.getTransactionId(), transaction.getAmount().toBigDecimal(), transaction.getType(),
+                        transaction.getTimestamp(), transaction.getBalanceAfterTransaction().toBigDecimal())))
+                .toList());
+    }
+
+    private static AccountSearchResponse accountPayload(Account account) {
+        return AccountSearchResponse.builder()
+                .accountId(account.getAccountId())
+                .accountHolderName(account.getAccountHolderName())
+                .balance(account.getCurrentBalance().toBigDecimal())
+                .status(account.getStatus())
+                .build();
+    }
+
+    private OutboxEvent event(String eventType, Long accountId, Object payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAccountId(accountId);
+        event.setEventType(eventType);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize " + eventType + " event for account " + accountId, ex);
+        }
+        event.setCreatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        return event;
+    }
+}
@@ -0,0 +1,165 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.exception.ConcurrentPostingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes postings per account and runs each one in its own database transaction.
+ * Postings for the same account queue on a striped in-process lock, while the
+ * {@code @Version} column on Account (or a row lock in pessimistic mode) keeps
+ * postings from other nodes exact. Lock conflicts are retried a bounded number of times.
+ */
+@Component
+@Slf4j
+public class TransactionPostingEngine {
+
+    public enum LockMode { OPTIMISTIC, PESSIMISTIC }
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final LockMode lockMode;
+
+    private final int maxRetries;
+
+    // ReentrantLock rather than synchronized: a virtual thread that waits on a stripe, or runs
+    // JDBC while holding one, unmounts from its carrier instead of pinning it
+    private final ReentrantLock[] stripes;
+
+    private final Timer lockWait;
+
+    private final Counter retries;
+
+    public TransactionPostingEngine(
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${transaction.posting.lock.mode}") String lockMode,
+            @Value("${transaction.posting.lock.stripes}") int lockStripes,
+            @Value("${transaction.posting.max.retries}") int maxRetries) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lockMode = LockMode.valueOf(lockMode.toUpperCase());
+        this.maxRetries = maxRetries;
+        // A stripe count of 0 turns in-process sequencing off and leaves ordering to the database
+        this.stripes = new ReentrantLock[lockStripes > 0 ? Integer.highestOneBit(lockStripes * 2 - 1) : 0];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.lockWait = Timer.builder("transaction.posting.lock.wait")
+                .description("Time spent waiting for the in-process account stripe lock")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.retries = Counter.builder("transaction.posting.retries")
+                .description("Postings retried after a database lock conflict")
+                .register(meterRegistry);
+    }
+
+    public LockMode getLockMode() {
+        return lockMode;
+    }
+
+    public boolean isSequenced() {
+        return stripes.length > 0;
+    }
+
+    public <T> T execute(Long accountId, Supplier<T> posting) {
+        if (stripes.length == 0) {
+            return executeWithRetry(accountId, posting);
+        }
+        return sequenced(accountId, () -> executeWithRetry(accountId, posting));
+    }
+
+    // A credit to one bucket of a high-volume account queues only behind postings to the same bucket
+    public <T> T execute(Long accountId, int bucket, Supplier<T> posting) {
+        if (stripes.length == 0) {
+            return executeWithRetry(accountId, posting);
+        }
+        return sequenced(stripes[stripeIndex(Long.hashCode(accountId) * 31 + bucket + 1)],
+                () -> executeWithRetry(accountId, posting));
+    }
+
+    // Runs under the account's stripe only, for callers that persist the posting themselves
+    public <T> T sequenced(Long accountId, Supplier<T> action) {
+        return sequenced(stripes[stripeIndex(Long.hashCode(accountId))], action);
+    }
+
+    private <T> T sequenced(ReentrantLock lock, Supplier<T> action) {
+        long waitStart = System.nanoTime();
+        lock.lock();
+        lockWait.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public <T> T execute(Collection<Long> accountIds, Supplier<T> posting) {
+        // Stripes are taken in index order so overlapping batches cannot deadlock
+        SortedSet<Integer> stripeIndexes = new TreeSet<>();
+        for (Long accountId : accountIds) {
+            if (stripes.length > 0) {
+                stripeIndexes.add(stripeIndex(Long.hashCode(accountId)));
+            }
+        }
+        List<ReentrantLock> acquired = new ArrayList<>(stripeIndexes.size());
+        try {
+            long waitStart = System.nanoTime();
+            for (Integer index : stripeIndexes) {
+                stripes[index].lock();
+                acquired.add(stripes[index]);
+            }
+            lockWait.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+            return executeWithRetry(accountIds, posting);
+        } finally {
+            for (int i = acquired.size() - 1; i >= 0; i--) {
+                acquired.get(i).unlock();
+            }
+        }
+    }
+
+    private <T> T executeWithRetry(Object accounts, Supplier<T> posting) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> posting.get());
+            } catch (ConcurrencyFailureException ex) {
+                if (attempt > maxRetries) {
+                    throw new ConcurrentPostingException("Concurrent update on account " + accounts + ", please retry.");
+                }
+                log.debug("Concurrent update on account {}, attempt {}", accounts, attempt);
+                retries.increment();
+                backOff(attempt);
+            }
+        }
+    }
+
+    private int stripeIndex(int hash) {
+        hash ^= (hash >>> 16);
+        return hash & (stripes.length - 1);
+    }
+
+    private void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 1L << Math.min(attempt, 6)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentPostingException("Interrupted while retrying posting.");
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control in front of the posting endpoint, checked before any database work. Each
+ * account has a token bucket of burst postings refilled at a steady rate, and a semaphore caps
+ * the postings in flight across all accounts; both are tried without waiting, so a request over
+ * either limit is turned away at once rather than queuing for a connection.
+ * <p>
+ * A bucket is one long, the time at which it would be full again (the generic cell rate
+ * algorithm), updated by compare-and-set. Buckets live in a fixed table indexed by a hash of the
+ * account id, so memory stays the same however many accounts post; accounts that share a slot
+ * share its budget.
+ */
+@Component
+public class TransactionRateLimiter {
+
+    private static final TooManyRequestsException RATE_LIMITED =
+            new TooManyRequestsException("Too many transactions for this account, retry later");
+
+    private static final TooManyRequestsException OVERLOADED =
+            new TooManyRequestsException("Too many transactions in progress, retry later");
+
+    private final TransactionMetrics transactionMetrics;
+
+    private final LongSupplier nanoClock;
+
+    // Time each bucket is full again, in nanoseconds since origin; 0 is full from the start
+    private final AtomicLongArray buckets;
+
+    private final int slotBits;
+
+    private final long origin;
+
+    // Nanoseconds per token, 0 when per-account limiting is off
+    private final long interval;
+
+    private final long capacity;
+
+    // Null when the concurrency limit is off
+    private final Semaphore inFlight;
+
+    @Autowired
+    public TransactionRateLimiter(
+            TransactionMetrics transactionMetrics,
+            MeterRegistry meterRegistry,
+            @Value("${transaction.rate.limit.per.second}") double perSecond,
+            @Value("${transaction.rate.limit.burst}") int burst,
+            @Value("${transaction.rate.limit.slots}") int slots,
+            @Value("${transaction.concurrency.limit}") int concurrencyLimit) {
+        this(transactionMetrics, meterRegistry, perSecond, burst, slots, concurrencyLimit, System::nanoTime);
+    }
+
+    TransactionRateLimiter(TransactionMetrics transactionMetrics, MeterRegistry meterRegistry, double perSecond,
+                           int burst, int slots, int concurrencyLimit, LongSupplier nanoClock) {
+        this.transactionMetrics = transactionMetrics;
+        this.nanoClock = nanoClock;
+        this.origin = nanoClock.getAsLong();
+        this.interval = perSecond > 0 ? Math.max(1, (long) (1_000_000_000L / perSecond)) : 0;
+        this.capacity = interval * Math.max(1, burst);
+        // Rounded up to a power of two so the slot is the top bits of the hash
+        this.slotBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(1, slots) - 1));
+        this.buckets = new AtomicLongArray(interval > 0 ? 1 << slotBits : 0);
+        this.inFlight = concurrencyLimit > 0 ? new Semaphore(concurrencyLimit) : null;
+        if (inFlight != null) {
+            Gauge.builder("account.transactions.in.flight", inFlight, semaphore -> concurrencyLimit - semaphore.availablePermits())
+                    .description("Postings admitted and not yet finished")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Admits a posting to the account or throws {@link TooManyRequestsException}. Every call that
+     * returns must be followed by {@link #release()}.
+     */
+    public void acquire(Long accountId) {
+        if (interval > 0 && !tryTake(slot(accountId))) {
+            transactionMetrics.rateLimited();
+            throw RATE_LIMITED;
+        }
+        if (inFlight != null && !inFlight.tryAcquire()) {
+            transactionMetrics.overloaded();
+            throw OVERLOADED;
+        }
+    }
+
+    public void release() {
+        if (inFlight != null) {
+            inFlight.release();
+        }
+    }
+
+    private boolean tryTake(int slot) {
+        while (true) {
+            long fullAt = buckets.get(slot);
+            // Read after the slot, so it is never older than the time whoever last took from it saw
+            long now = nanoClock.getAsLong() - origin;
+            long next = Math.max(fullAt, now) + interval;
+            if (next - now > capacity) {
+                return false;
+            }
+            if (buckets.compareAndSet(slot, fullAt, next)) {
+                return true;
+            }
+        }
+    }
+
+    private int slot(Long accountId) {
+        // Fibonacci hashing spreads sequential ids over the table
+        return (int) ((accountId * 0x9E3779B97F4A7C15L) >>> (64 - slotBits));
+    }
+}
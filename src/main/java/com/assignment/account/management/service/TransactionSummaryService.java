@@ -0,0 +1,254 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.SummaryGranularity;
+import com.assignment.account.management.dto.TransactionSummary;
+import com.assignment.account.management.dto.TransactionSummaryResponse;
+import com.assignment.account.management.entity.Money;
+import com.assignment.account.management.entity.OutboxCheckpoint;
+import com.assignment.account.management.entity.OutboxEvent;
+import com.assignment.account.management.entity.Transaction;
+import com.assignment.account.management.entity.TransactionDailySummary;
+import com.assignment.account.management.exception.AccountNotFoundException;
+import com.assignment.account.management.exception.InvalidSummaryRequestException;
+import com.assignment.account.management.repository.AccountRepository;
+import com.assignment.account.management.repository.OutboxCheckpointRepository;
+import com.assignment.account.management.repository.OutboxEventRepository;
+import com.assignment.account.management.repository.TransactionDailySummaryRepository;
+import com.assignment.account.management.repository.TransactionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Daily transaction summaries per account. They are kept up to date as an outbox sink: each
+ * relayed batch of posting events is added to the summaries in one database transaction that
+ * also moves this sink's checkpoint, so a batch delivered again is skipped rather than counted
+ * twice. Summaries trail commits by a relay run and can be rebuilt from the
+ * transaction table, e.g. once after this sink is first deployed.
+ */
+@Service
+@Slf4j
+public class TransactionSummaryService implements OutboxSink {
+
+    static final String SINK_NAME = "daily-summary";
+
+    private static final int REBUILD_ATTEMPTS = 3;
+
+    private final TransactionDailySummaryRepository summaryRepository;
+
+    private final TransactionRepository transactionRepository;
+
+    private final AccountRepository accountRepository;
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final OutboxCheckpointRepository checkpointRepository;
+
+    private final AccountShards accountShards;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate rebuildTemplate;
+
+    public TransactionSummaryService(
+            TransactionDailySummaryRepository summaryRepository,
+            TransactionRepository transactionRepository,
+            AccountRepository accountRepository,
+            OutboxEventRepository outboxEventRepository,
+            OutboxCheckpointRepository checkpointRepository,
+            AccountShards accountShards,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+        this.summaryRepository = summaryRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountRepository = accountRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.accountShards = accountShards;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // One snapshot for the day's totals and the pending events, which commit together with their postings
+        this.rebuildTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @Override
+    public String name() {
+        return SINK_NAME;
+    }
+
+    @Override
+    public void publish(int shard, List<OutboxEvent> events) {
+        transactionTemplate.executeWithoutResult(status -> apply(events));
+    }
+
+    private void apply(List<OutboxEvent> events) {
+        // Held until commit, so batches and rebuilds on any node apply one at a time
+        OutboxCheckpoint checkpoint = lockCheckpoint();
+        List<Long> transactionIds = events.stream()
+                .filter(event -> event.getRelaySequence() > checkpoint.getLastRelaySequence())
+                .filter(event -> TransactionOutbox.TRANSACTION_POSTED.equals(event.getEventType()))
+                .map(event -> transactionId(event.getPayload()))
+                .toList();
+        List<Transaction> transactions = transactionRepository.findAllById(transactionIds);
+
+        Map<TransactionDailySummary.Key, TransactionDailySummary> summaries = summaryRepository.findAllById(
+                transactions.stream().map(TransactionSummaryService::keyOf).distinct().toList()).stream()
+                .collect(Collectors.toMap(summary -> new TransactionDailySummary.Key(summary.getAccountId(),
+                        summary.getSummaryDate()), Function.identity()));
+        for (Transaction transaction : transactions) {
+            summaries.computeIfAbsent(keyOf(transaction), TransactionSummaryService::newSummary)
+                    .add(transaction.getType(), transaction.isFlaggedForReview(), 1, transaction.getAmount());
+        }
+        summaryRepository.saveAll(summaries.values());
+        checkpoint.setLastRelaySequence(Math.max(checkpoint.getLastRelaySequence(), events.get(events.size() - 1).getRelaySequence()));
+    }
+
+    /**
+     * Recomputes the summaries of every account for the days from..to (inclusive) from the
+     * transaction table, one day per database transaction. Postings whose events this sink has
+     * not applied yet are left out, as applying them afterwards adds them. Returns the number of
+     * summaries written.
+     */
+    public int rebuild(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        int written = accountShards.onEveryShard(() -> ReplicaRouting.primary(() -> {
+            int shardWritten = 0;
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                shardWritten += rebuildDay(day);
+            }
+            return shardWritten;
+        })).stream().mapToInt(Integer::intValue).sum();
+        log.info("Rebuilt {} daily transaction summaries from {} to {}", written, from, to);
+        return written;
+    }
+
+    // A batch applied while the day waits for the checkpoint can fail its snapshot; the day is rewritten whole, so it is retried
+    private int rebuildDay(LocalDate day) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return rebuildTemplate.execute(status -> writeDay(day));
+            } catch (ConcurrencyFailureException ex) {
+                if (attempt >= REBUILD_ATTEMPTS) {
+                    throw ex;
+                }
+                log.debug("Rebuild of {} conflicted with a relayed batch, attempt {}", day, attempt);
+            }
+        }
+    }
+
+    private int writeDay(LocalDate day) {
+        OutboxCheckpoint checkpoint = lockCheckpoint();
+        Map<Long, TransactionDailySummary> summaries = new HashMap<>();
+        for (TransactionRepository.TransactionTotals totals
+                : transactionRepository.findTotalsBetween(day.atStartOfDay(), day.plusDays(1).atStartOfDay())) {
+            summaries.computeIfAbsent(totals.getAccountId(), accountId -> newSummary(new TransactionDailySummary.Key(accountId, day)))
+                    .add(totals.getType(), totals.isFlaggedForReview(), totals.getCount(), Money.of(totals.getAmount()));
+        }
+        List<Long> pendingIds = outboxEventRepository
+                .findPayloadsByEventTypeAfter(TransactionOutbox.TRANSACTION_POSTED, checkpoint.getLastRelaySequence()).stream()
+                .map(this::transactionId)
+                .toList();
+        for (Transaction pending : transactionRepository.findAllById(pendingIds)) {
+            if (pending.getTimestamp().toLocalDate().equals(day)) {
+                summaries.get(pending.getAccountId())
+                        .add(pending.getType(), pending.isFlaggedForReview(), -1, pending.getAmount().negate());
+            }
+        }
+        summaryRepository.deleteBySummaryDate(day);
+        List<TransactionDailySummary> written = summaries.values().stream().filter(summary -> !summary.isEmpty()).toList();
+        summaryRepository.saveAll(written);
+        return written.size();
+    }
+
+    // Adds the days of the range up into periods of the given granularity
+    @Transactional(readOnly = true)
+    public TransactionSummaryResponse getSummary(Long accountId, LocalDate from, LocalDate to, SummaryGranularity granularity) {
+        checkRange(from, to);
+        List<TransactionDailySummary> days = accountShards.on(accountId, () -> {
+            if (!accountRepository.existsById(accountId)) {
+                throw new AccountNotFoundException("Account not found with ID: " + accountId);
+            }
+            return summaryRepository.findByAccountIdAndSummaryDateBetweenOrderBySummaryDateAsc(accountId, from, to);
+        });
+
+        Map<LocalDate, TransactionDailySummary> periods = new LinkedHashMap<>();
+        for (TransactionDailySummary day : days) {
+            TransactionDailySummary period = periods.computeIfAbsent(granularity.periodStart(day.getSummaryDate()),
+                    start -> newSummary(new TransactionDailySummary.Key(accountId, start)));
+            period.add("in", false, day.getCreditCount(), day.getCreditTotal());
+            period.add("out", false, day.getDebitCount(), day.getDebitTotal());
+            period.setFlaggedCount(period.getFlaggedCount() + day.getFlaggedCount());
+            period.setFlaggedTotal(period.getFlaggedTotal().plus(day.getFlaggedTotal()));
+        }
+        return TransactionSummaryResponse.builder()
+                .accountId(accountId)
+                .from(from)
+                .to(to)
+                .granularity(granularity)
+                .periods(periods.values().stream().map(TransactionSummaryService::toSummary).toList())
+                .build();
+    }
+
+    private OutboxCheckpoint lockCheckpoint() {
+        return checkpointRepository.findByIdForUpdate(SINK_NAME).orElseGet(() -> {
+            // Not relayed to on this shard yet; the relay picks this row up when it starts
+            OutboxCheckpoint created = new OutboxCheckpoint();
+            created.setSinkName(SINK_NAME);
+            return checkpointRepository.saveAndFlush(created);
+        });
+    }
+
+    private Long transactionId(String payload) {
+        try {
+            return objectMapper.readTree(payload).get("transactionId").asLong();
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unreadable " + TransactionOutbox.TRANSACTION_POSTED + " event: " + payload, ex);
+        }
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new InvalidSummaryRequestException("from " + from + " is after to " + to);
+        }
+    }
+
+    private static TransactionDailySummary.Key keyOf(Transaction transaction) {
+        return new TransactionDailySummary.Key(transaction.getAccountId(), transaction.getTimestamp().toLocalDate());
+    }
+
+    private static TransactionDailySummary newSummary(TransactionDailySummary.Key key) {
+        TransactionDailySummary summary = new TransactionDailySummary();
+        summary.setAccountId(key.getAccountId());
+        summary.setSummaryDate(key.getSummaryDate());
+        return summary;
+    }
+
+    private static TransactionSummary toSummary(TransactionDailySummary summary) {
+        return TransactionSummary.builder()
+                .periodStart(summary.getSummaryDate())
+                .creditCount(summary.getCreditCount())
+                .creditTotal(summary.getCreditTotal().toBigDecimal())
+                .debitCount(summary.getDebitCount())
+                .debitTotal(summary.getDebitTotal().toBigDecimal())
+                .flaggedCount(summary.getFlaggedCount())
+                .flaggedTotal(summary.getFlaggedTotal().toBigDecimal())
+                .build();
+    }
+}
@@ -0,0 +1,10 @@
+-- High-volume accounts spread credits over balance_buckets sub-balances; 0 keeps the whole balance on the account
+ALTER TABLE account ADD COLUMN balance_buckets INT NOT NULL DEFAULT 0;
+
+-- An account's balance is its current_balance plus the balance of its buckets
+CREATE TABLE account_balance_bucket (
+    account_id BIGINT NOT NULL,
+    bucket INT NOT NULL,
+    balance DECIMAL(18,2) NOT NULL,
+    PRIMARY KEY (account_id, bucket)
+);
@@ -0,0 +1,14 @@
+-- Per-account, per-day rollup of posted transactions: credits and debits by type, and those flagged for review
+CREATE TABLE transaction_daily_summary (
+    account_id BIGINT NOT NULL,
+    summary_date DATE NOT NULL,
+    credit_count BIGINT NOT NULL,
+    credit_total DECIMAL(18,2) NOT NULL,
+    debit_count BIGINT NOT NULL,
+    debit_total DECIMAL(18,2) NOT NULL,
+    flagged_count BIGINT NOT NULL,
+    flagged_total DECIMAL(18,2) NOT NULL,
+    PRIMARY KEY (account_id, summary_date)
+);
+-- Lets a rebuild replace one day's rows
+CREATE INDEX idx_transaction_daily_summary_date ON transaction_daily_summary (summary_date);
@@ -0,0 +1,17 @@
+-- Review queue for postings flagged for review, one row per transaction, written after the posting commits
+CREATE TABLE fraud_review (
+    transaction_id BIGINT NOT NULL,
+    account_id BIGINT NOT NULL,
+    amount DECIMAL(18,2) NOT NULL,
+    posted_at DATETIME(6) NOT NULL,
+    risk_score INT NOT NULL,
+    reasons VARCHAR(255) NOT NULL,
+    recent_debit_count BIGINT NOT NULL,
+    recent_debit_total DECIMAL(18,2) NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (transaction_id)
+);
+-- The queue: pending reviews, riskiest and then oldest first
+CREATE INDEX idx_fraud_review_status_score ON fraud_review (status, risk_score, created_at);
+CREATE INDEX idx_fraud_review_account ON fraud_review (account_id, transaction_id);
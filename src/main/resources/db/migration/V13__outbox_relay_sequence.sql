@@ -0,0 +1,8 @@
+-- Order in which the relay found events committed; event ids are handed out at insert, so a smaller id can commit later
+ALTER TABLE outbox_event ADD COLUMN relay_sequence BIGINT NULL;
+-- Events already written keep their id as their place, so the checkpoints below stay where they were
+UPDATE outbox_event SET relay_sequence = event_id;
+CREATE UNIQUE INDEX idx_outbox_event_relay_sequence ON outbox_event (relay_sequence);
+
+-- Sinks are checkpointed by relay sequence from now on
+ALTER TABLE outbox_checkpoint RENAME COLUMN last_event_id TO last_relay_sequence;
@@ -0,0 +1,6 @@
+-- Pooled id allocation for outbox events, so they are inserted in JDBC batches like the transactions they describe.
+-- Hibernate stores the last id it handed out, so a block read at next_val is (next_val - 49 .. next_val + 1]:
+-- seeding one allocation above the existing ids keeps the first block clear of them.
+ALTER TABLE outbox_event MODIFY event_id BIGINT NOT NULL;
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'outbox_event', COALESCE(MAX(event_id), 0) + 50 FROM outbox_event;
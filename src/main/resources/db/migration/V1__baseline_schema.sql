@@ -0,0 +1,31 @@
+-- Schema as previously generated by hibernate ddl-auto; existing databases are baselined at this version
+CREATE TABLE account (
+    account_id BIGINT NOT NULL AUTO_INCREMENT,
+    created_date DATETIME(6) NOT NULL,
+    updated_date DATETIME(6),
+    initial_balance DECIMAL(38,2),
+    current_balance DECIMAL(38,2),
+    status VARCHAR(255),
+    account_holder_name VARCHAR(255),
+    PRIMARY KEY (account_id)
+);
+
+CREATE TABLE transaction (
+    transaction_id BIGINT NOT NULL AUTO_INCREMENT,
+    account_id BIGINT,
+    amount DECIMAL(38,2),
+    type VARCHAR(255),
+    timestamp DATETIME(6),
+    balance_after_transaction DECIMAL(38,2),
+    flagged_for_review BIT NOT NULL,
+    PRIMARY KEY (transaction_id)
+);
+
+CREATE TABLE transaction_history (
+    account_id BIGINT NOT NULL AUTO_INCREMENT,
+    created_date DATETIME(6) NOT NULL,
+    updated_date DATETIME(6),
+    initial_balance DECIMAL(38,2),
+    current_balance DECIMAL(38,2),
+    PRIMARY KEY (account_id)
+);
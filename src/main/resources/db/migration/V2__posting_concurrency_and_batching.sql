@@ -0,0 +1,15 @@
+-- Optimistic locking and the running daily-withdrawal counter on account
+ALTER TABLE account ADD COLUMN version BIGINT;
+ALTER TABLE account ADD COLUMN daily_withdrawal_date DATE;
+ALTER TABLE account ADD COLUMN daily_withdrawal_total DECIMAL(38,2);
+UPDATE account SET version = 0 WHERE version IS NULL;
+
+-- Pooled id allocation for batched transaction inserts. The pooled optimizer hands out
+-- (next_val - 49 .. next_val], so the seed sits one allocation above the existing ids.
+CREATE TABLE id_generator (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (sequence_name)
+);
+INSERT INTO id_generator (sequence_name, next_val)
+SELECT 'transaction', COALESCE(MAX(transaction_id), 0) + 50 FROM transaction;
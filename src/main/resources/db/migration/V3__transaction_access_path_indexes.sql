@@ -0,0 +1,6 @@
+-- One index per TransactionRepository access path. InnoDB appends the primary key to every
+-- secondary index, so the first two also serve ORDER BY transaction_id and the keyset seeks.
+CREATE INDEX idx_transaction_account ON transaction (account_id, transaction_id);
+CREATE INDEX idx_transaction_account_type ON transaction (account_id, type, transaction_id);
+CREATE INDEX idx_transaction_account_timestamp ON transaction (account_id, timestamp);
+CREATE INDEX idx_transaction_account_type_timestamp ON transaction (account_id, type, timestamp);
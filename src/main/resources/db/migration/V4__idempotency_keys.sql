@@ -0,0 +1,10 @@
+-- Idempotency-Key dedupe store. The primary key is the cross-node guard: a concurrent retry
+-- blocks on the uncommitted row and fails with a duplicate key once the first posting commits.
+CREATE TABLE idempotency_key (
+    idempotency_key VARCHAR(255) NOT NULL,
+    account_id BIGINT NOT NULL,
+    transaction_id BIGINT NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (idempotency_key)
+);
+CREATE INDEX idx_idempotency_key_expires_at ON idempotency_key (expires_at);
@@ -0,0 +1,7 @@
+-- Highest journal sequence committed by the write-behind flusher, advanced in the same
+-- transaction as the rows it covers so replay on startup applies each entry exactly once
+CREATE TABLE journal_checkpoint (
+    journal_name VARCHAR(255) NOT NULL,
+    last_sequence BIGINT NOT NULL,
+    PRIMARY KEY (journal_name)
+);
@@ -0,0 +1,16 @@
+-- transaction_history was mapped but never written; it becomes the per-account balance snapshot table
+DROP TABLE transaction_history;
+CREATE TABLE transaction_history (
+    snapshot_id BIGINT NOT NULL,
+    account_id BIGINT NOT NULL,
+    snapshot_at DATETIME(6) NOT NULL,
+    balance DECIMAL(38,2) NOT NULL,
+    created_date DATETIME(6) NOT NULL,
+    updated_date DATETIME(6),
+    PRIMARY KEY (snapshot_id),
+    CONSTRAINT uk_transaction_history_account_snapshot UNIQUE (account_id, snapshot_at)
+);
+INSERT INTO id_generator (sequence_name, next_val) VALUES ('transaction_history', 50);
+
+-- Lets each snapshot run read only the transactions posted since the previous one
+CREATE INDEX idx_transaction_timestamp ON transaction (timestamp);
@@ -0,0 +1,7 @@
+-- Written on each primary and read back from its replica to measure replication lag
+CREATE TABLE replica_heartbeat (
+    id INT NOT NULL,
+    beat_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, CURRENT_TIMESTAMP(6));
@@ -0,0 +1,17 @@
+-- Events written in the same transaction as the change they describe, relayed to sinks in event_id order
+CREATE TABLE outbox_event (
+    event_id BIGINT NOT NULL AUTO_INCREMENT,
+    account_id BIGINT NOT NULL,
+    event_type VARCHAR(64) NOT NULL,
+    payload VARCHAR(4000) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (event_id)
+);
+CREATE INDEX idx_outbox_event_created_at ON outbox_event (created_at);
+
+-- Last event each sink has been handed
+CREATE TABLE outbox_checkpoint (
+    sink_name VARCHAR(64) NOT NULL,
+    last_event_id BIGINT NOT NULL,
+    PRIMARY KEY (sink_name)
+);
@@ -0,0 +1,8 @@
+-- Money columns hold what a long of cents can (Money): 18 digits, 2 of them decimals.
+-- Balances and amounts above 9999999999999999.99 fail this migration rather than being cut.
+ALTER TABLE account MODIFY COLUMN initial_balance DECIMAL(18,2);
+ALTER TABLE account MODIFY COLUMN current_balance DECIMAL(18,2);
+ALTER TABLE account MODIFY COLUMN daily_withdrawal_total DECIMAL(18,2);
+ALTER TABLE transaction MODIFY COLUMN amount DECIMAL(18,2);
+ALTER TABLE transaction MODIFY COLUMN balance_after_transaction DECIMAL(18,2);
+ALTER TABLE transaction_history MODIFY COLUMN balance DECIMAL(18,2) NOT NULL;
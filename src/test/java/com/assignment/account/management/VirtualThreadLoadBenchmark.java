@@ -0,0 +1,143 @@
+package com.assignment.account.management;
+
+import com.assignment.account.management.dto.AccountCreateRequest;
+import com.assignment.account.management.service.AccountManagementService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives the HTTP API with many concurrent clients, on Tomcat's platform thread pool, on virtual
+ * threads and on the reactive stack (WebFlux and R2DBC), and prints throughput and tail latency
+ * for each. Not part of the regular test run; DB latency dominates the comparison, so point it
+ * at MySQL:
+ * <pre>
+ * mvn test -Dtest=VirtualThreadLoadBenchmark -Dloadtest.clients=2000 -Dloadtest.seconds=30 \
+ *     -Dspring.datasource.url=jdbc:mysql://localhost:3306/load?rewriteBatchedStatements=true \
+ *     -Dspring.r2dbc.url=r2dbc:mysql://localhost:3306/load
+ * </pre>
+ */
+class VirtualThreadLoadBenchmark {
+
+    private static final int ACCOUNTS = 1_000;
+
+    @Test
+    void compareServerStacks() throws Exception {
+        int clients = Integer.getInteger("loadtest.clients", 1_000);
+        Duration duration = Duration.ofSeconds(Long.getLong("loadtest.seconds", 20L));
+
+        List<String> report = new ArrayList<>();
+        for (Stack stack : Stack.values()) {
+            try (ConfigurableApplicationContext context = start(stack)) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                Long[] accountIds = createAccounts(context.getBean(AccountManagementService.class));
+                report.add(String.format("%-9s %s", stack.name().toLowerCase(), run(port, accountIds, clients, duration)));
+            }
+        }
+        System.out.printf("%n%d clients, %ds per mode%n", clients, duration.toSeconds());
+        report.forEach(System.out::println);
+    }
+
+    private ConfigurableApplicationContext start(Stack stack) {
+        String database = "load-" + stack.name().toLowerCase();
+        // Passed as arguments, which take precedence over the application and profile property files
+        return new SpringApplicationBuilder(AccountTransactionManagementApplication.class)
+                .profiles(stack == Stack.REACTIVE ? new String[]{"test", "reactive"} : new String[]{"test"})
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + (stack == Stack.VIRTUAL),
+                        "--spring.datasource.url=" + System.getProperty("spring.datasource.url",
+                                "jdbc:h2:mem:" + database + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000"),
+                        "--spring.r2dbc.url=" + System.getProperty("spring.r2dbc.url",
+                                "r2dbc:h2:mem:///" + database + "?options=MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000"),
+                        "--logging.level.root=WARN");
+    }
+
+    private Long[] createAccounts(AccountManagementService service) {
+        Long[] accountIds = new Long[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            AccountCreateRequest request = new AccountCreateRequest();
+            request.setAccountHolderName("Load Test");
+            request.setInitialBalance(new BigDecimal("1000000000"));
+            accountIds[i] = service.createAccount(request).getAccountId();
+        }
+        return accountIds;
+    }
+
+    private String run(int port, Long[] accountIds, int clients, Duration duration) throws Exception {
+        HttpClient httpClient = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<long[]> latencies = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                futures.add(executor.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        Long accountId = accountIds[random.nextInt(accountIds.length)];
+                        // four balance reads per posting, roughly our production mix
+                        HttpRequest request = random.nextInt(5) == 0
+                                ? HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/accounts/" + accountId + "/transactions"))
+                                        .header("Content-Type", "application/json")
+                                        .POST(HttpRequest.BodyPublishers.ofString("{\"amount\":1,\"type\":\"" + (random.nextBoolean() ? "in" : "out") + "\"}"))
+                                        .build()
+                                : HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/accounts/" + accountId)).GET().build();
+                        long started = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception ex) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - started;
+                    }
+                    return Arrays.copyOf(samples, count);
+                }));
+            }
+            for (Future<long[]> future : futures) {
+                latencies.add(future.get());
+            }
+        }
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return String.format("requests=%d  throughput=%.0f/s  p50=%.2fms  p99=%.2fms  p99.9=%.2fms  max=%.2fms  errors=%d",
+                all.length, all.length / (double) duration.toSeconds(),
+                percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999),
+                all.length == 0 ? 0 : all[all.length - 1] / 1e6, errors.get());
+    }
+
+    private double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+
+    private enum Stack {
+        PLATFORM, VIRTUAL, REACTIVE
+    }
+}
@@ -0,0 +1,85 @@
+package com.assignment.account.management.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Property checks of Money against BigDecimal at scale 2: for random operands, every operation
+ * either gives exactly the BigDecimal result or throws because that result does not fit a
+ * DECIMAL(18,2) column. Operands mix everyday amounts with values at the edges of the range.
+ */
+class MoneyTest {
+
+    private static final int SAMPLES = 200_000;
+
+    private static final BigDecimal MAX = new BigDecimal("9999999999999999.99");
+
+    private final SplittableRandom random = new SplittableRandom(20_240_101);
+
+    @Test
+    void conversionRoundTripsThroughBigDecimal() {
+        for (int i = 0; i < SAMPLES; i++) {
+            BigDecimal amount = BigDecimal.valueOf(randomMinorUnits(), 2);
+            Money money = Money.of(amount);
+            assertEquals(amount, money.toBigDecimal());
+            assertEquals(amount.toPlainString(), money.toString());
+            // The same amount at another scale is the same money
+            assertEquals(money, Money.of(amount.setScale(4)));
+        }
+    }
+
+    @Test
+    void arithmeticMatchesBigDecimalOrOverflows() {
+        for (int i = 0; i < SAMPLES; i++) {
+            Money a = Money.ofMinor(randomMinorUnits());
+            Money b = Money.ofMinor(randomMinorUnits());
+            BigDecimal x = a.toBigDecimal();
+            BigDecimal y = b.toBigDecimal();
+
+            assertMatches(x.add(y), () -> a.plus(b));
+            assertMatches(x.subtract(y), () -> a.minus(b));
+            assertMatches(x.negate(), a::negate);
+            assertEquals(Integer.signum(x.compareTo(y)), Integer.signum(a.compareTo(b)));
+            assertEquals(x.compareTo(y) < 0, a.isLessThan(b));
+            assertEquals(x.compareTo(y) > 0, a.isGreaterThan(b));
+        }
+    }
+
+    @Test
+    void amountsBeyondTwoDecimalsOrTheColumnAreRejected() {
+        for (int i = 0; i < SAMPLES; i++) {
+            BigDecimal fractional = BigDecimal.valueOf(randomMinorUnits(), 2)
+                    .add(BigDecimal.valueOf(random.nextInt(1, 10), 3));
+            assertThrows(IllegalArgumentException.class, () -> Money.of(fractional));
+        }
+        assertEquals(MAX, Money.of(MAX).toBigDecimal());
+        assertThrows(IllegalArgumentException.class, () -> Money.of(MAX.add(new BigDecimal("0.01"))));
+        assertThrows(IllegalArgumentException.class, () -> Money.of(MAX.negate().subtract(new BigDecimal("0.01"))));
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("1E+30")));
+    }
+
+    private void assertMatches(BigDecimal expected, Supplier<Money> actual) {
+        if (expected.abs().compareTo(MAX) > 0) {
+            assertThrows(ArithmeticException.class, actual::get, () -> "expected overflow for " + expected);
+        } else {
+            assertEquals(expected, actual.get().toBigDecimal());
+        }
+    }
+
+    // A third everyday amounts, a third anywhere in range, a third within a few cents of either end
+    private long randomMinorUnits() {
+        long max = MAX.movePointRight(2).longValueExact();
+        long minorUnits = switch (random.nextInt(3)) {
+            case 0 -> random.nextLong(-10_000_000, 10_000_000);
+            case 1 -> random.nextLong(-max, max + 1);
+            default -> max - random.nextLong(0, 1_000);
+        };
+        return random.nextBoolean() ? minorUnits : -minorUnits;
+    }
+}
@@ -0,0 +1,158 @@
+package com.assignment.account.management.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Prints query plans and latencies for every transaction access path with and without the
+ * V3 indexes. Not part of the regular test run; point it at MySQL for representative plans:
+ * <pre>
+ * mvn test -Dtest=TransactionQueryPlanBenchmark -Dbenchmark.rows=3000000 \
+ *     -Dspring.datasource.url=jdbc:mysql://localhost:3306/bench?rewriteBatchedStatements=true
+ * </pre>
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TransactionQueryPlanBenchmark {
+
+    private static final int ACCOUNTS = 1_000;
+
+    private static final int ITERATIONS = 200;
+
+    private static final String[] INDEXES = {
+            "idx_transaction_account (account_id, transaction_id)",
+            "idx_transaction_account_type (account_id, type, transaction_id)",
+            "idx_transaction_account_timestamp (account_id, timestamp)",
+            "idx_transaction_account_type_timestamp (account_id, type, timestamp)"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void compareAccessPaths() {
+        long rows = Long.getLong("benchmark.rows", 2_000_000L);
+        generateRows(rows);
+
+        Map<String, Object[]> queries = accessPaths();
+
+        indexes(false);
+        Map<String, Double> before = measure(queries, "without indexes");
+        indexes(true);
+        Map<String, Double> after = measure(queries, "with indexes");
+
+        System.out.printf("%n%-28s %14s %14s%n", "query (" + rows + " rows)", "before ms", "after ms");
+        before.forEach((name, millis) -> System.out.printf("%-28s %14.3f %14.3f%n", name, millis, after.get(name)));
+    }
+
+    private Map<String, Object[]> accessPaths() {
+        long accountId = ACCOUNTS / 2;
+        LocalDate today = LocalDate.now();
+        Timestamp start = Timestamp.valueOf(today.minusDays(7).atStartOfDay());
+        Timestamp end = Timestamp.valueOf(today.plusDays(1).atStartOfDay());
+
+        Map<String, Object[]> queries = new LinkedHashMap<>();
+        queries.put("findByAccountId", new Object[]{
+                "SELECT * FROM transaction WHERE account_id = ? ORDER BY transaction_id DESC LIMIT 10", accountId});
+        queries.put("findByAccountIdAndType", new Object[]{
+                "SELECT * FROM transaction WHERE account_id = ? AND type = ? ORDER BY transaction_id DESC LIMIT 10",
+                accountId, "out"});
+        queries.put("...TimestampBetween", new Object[]{
+                "SELECT * FROM transaction WHERE account_id = ? AND timestamp BETWEEN ? AND ? ORDER BY transaction_id DESC LIMIT 10",
+                accountId, start, end});
+        queries.put("...TypeAndTimestampBetween", new Object[]{
+                "SELECT * FROM transaction WHERE account_id = ? AND type = ? AND timestamp BETWEEN ? AND ? ORDER BY transaction_id DESC LIMIT 10",
+                accountId, "out", start, end});
+        queries.put("withdrawals DATE() (old)", new Object[]{
+                "SELECT COALESCE(SUM(amount), 0) FROM transaction WHERE account_id = ? AND type = 'out' AND DATE(timestamp) = ?",
+                accountId, java.sql.Date.valueOf(today)});
+        queries.put("withdrawals range (new)", new Object[]{
+                "SELECT COALESCE(SUM(amount), 0) FROM transaction WHERE account_id = ? AND type = 'out' AND timestamp >= ? AND timestamp < ?",
+                accountId, Timestamp.valueOf(today.atStartOfDay()), end});
+        return queries;
+    }
+
+    private Map<String, Double> measure(Map<String, Object[]> queries, String label) {
+        Map<String, Double> latencies = new LinkedHashMap<>();
+        queries.forEach((name, query) -> {
+            String sql = (String) query[0];
+            Object[] args = Arrays.copyOfRange(query, 1, query.length);
+
+            System.out.printf("%n-- %s, %s%n", name, label);
+            jdbcTemplate.queryForList("EXPLAIN " + sql, args).forEach(System.out::println);
+
+            for (int i = 0; i < ITERATIONS / 10; i++) {
+                jdbcTemplate.queryForList(sql, args);
+            }
+            long started = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                jdbcTemplate.queryForList(sql, args);
+            }
+            latencies.put(name, (System.nanoTime() - started) / 1_000_000.0 / ITERATIONS);
+        });
+        return latencies;
+    }
+
+    private void indexes(boolean present) {
+        Set<String> existing = jdbcTemplate.execute((ConnectionCallback<Set<String>>) connection -> {
+            Set<String> names = new HashSet<>();
+            try (ResultSet indexInfo = connection.getMetaData().getIndexInfo(connection.getCatalog(), null, "transaction", false, true)) {
+                while (indexInfo.next()) {
+                    names.add(String.valueOf(indexInfo.getString("INDEX_NAME")).toLowerCase());
+                }
+            }
+            return names;
+        });
+        for (String index : INDEXES) {
+            String name = index.substring(0, index.indexOf(' '));
+            if (present && !existing.contains(name)) {
+                jdbcTemplate.execute("CREATE INDEX " + name + " ON transaction " + index.substring(name.length() + 1));
+            } else if (!present && existing.contains(name)) {
+                jdbcTemplate.execute("ALTER TABLE transaction DROP INDEX " + name);
+            }
+        }
+    }
+
+    private void generateRows(long rows) {
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction", Long.class);
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> batch = new ArrayList<>();
+        for (long i = existing; i < rows; i++) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            batch.add(new Object[]{
+                    random.nextLong(1, ACCOUNTS + 1),
+                    BigDecimal.valueOf(random.nextLong(1, 100_000), 2),
+                    random.nextBoolean() ? "in" : "out",
+                    Timestamp.valueOf(now.minusMinutes(random.nextLong(0, 5L * 365 * 24 * 60))),
+                    BigDecimal.ZERO,
+                    false});
+            if (batch.size() == 10_000) {
+                insert(batch);
+            }
+        }
+        insert(batch);
+    }
+
+    private void insert(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("INSERT INTO transaction (account_id, amount, type, timestamp, balance_after_transaction, flagged_for_review) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", batch);
+        batch.clear();
+    }
+}
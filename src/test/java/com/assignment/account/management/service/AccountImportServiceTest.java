@@ -0,0 +1,127 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.AccountImportProgress;
+import com.assignment.account.management.dto.AccountSearchResponse;
+import com.assignment.account.management.dto.ExportFormat;
+import com.assignment.account.management.entity.OutboxEvent;
+import com.assignment.account.management.repository.AccountRepository;
+import com.assignment.account.management.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Imports small files in batches of two over two workers and checks the accounts created, their
+ * outbox events and the failure and progress records of the report.
+ */
+@SpringBootTest(properties = {
+        "account.import.batch.size=2",
+        "account.import.workers=2",
+        "transaction.outbox.relay.enabled=false"})
+@ActiveProfiles("test")
+class AccountImportServiceTest {
+
+    @Autowired
+    private AccountImportService accountImportService;
+
+    @Autowired
+    private AccountManagementService accountManagementService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void ndjsonImportCreatesValidRowsAndReportsTheRest() throws IOException {
+        long accountsBefore = accountRepository.count();
+        String file = """
+                {"accountHolderName":"Import One","initialBalance":10.50}
+                {"accountHolderName":"","initialBalance":5}
+                {"accountHolderName":"Import Two","initialBalance":0}
+
+                {"accountHolderName":"Import Three"
+                {"accountHolderName":"Import Four","initialBalance":-1}
+                {"accountHolderName":"Import Five","initialBalance":1000}
+                """;
+
+        List<JsonNode> report = importFile(file, ExportFormat.NDJSON);
+
+        List<JsonNode> failures = report.stream().filter(record -> record.has("error")).toList();
+        assertEquals(List.of(2L, 5L, 6L), failures.stream().map(failure -> failure.get("line").asLong()).sorted().toList());
+        assertTrue(failures.stream().anyMatch(failure -> failure.get("error").asText().equals("Account holder name is required.")));
+        assertTrue(failures.stream().anyMatch(failure -> failure.get("error").asText().startsWith("Malformed JSON")));
+
+        JsonNode last = report.get(report.size() - 1);
+        assertTrue(last.get("complete").asBoolean());
+        assertEquals(7, last.get("linesRead").asLong());
+        assertEquals(3, last.get("imported").asLong());
+        assertEquals(3, last.get("failed").asLong());
+        assertTrue(report.stream().anyMatch(record -> record.has("imported") && !record.get("complete").asBoolean()));
+        assertEquals(accountsBefore + 3, accountRepository.count());
+    }
+
+    @Test
+    void csvImportFindsColumnsByHeaderAndHandlesQuotedFields() throws IOException {
+        String file = """
+                initialBalance,accountHolderName
+                25.00,"Holder, Quoted ""Q""\"
+                abc,Not A Number
+                """;
+
+        List<JsonNode> report = importFile(file, ExportFormat.CSV);
+
+        JsonNode failure = report.stream().filter(record -> record.has("error")).findFirst().orElseThrow();
+        assertEquals(3, failure.get("line").asLong());
+        JsonNode last = report.get(report.size() - 1);
+        assertEquals(1, last.get("imported").asLong());
+
+        OutboxEvent created = outboxEventRepository.findAll().stream()
+                .filter(event -> event.getEventType().equals(TransactionOutbox.ACCOUNT_CREATED)
+                        && event.getPayload().contains("Holder, Quoted"))
+                .findFirst().orElseThrow();
+        AccountSearchResponse account = accountManagementService.getAccountDetails(created.getAccountId());
+        assertEquals("Holder, Quoted \"Q\"", account.getAccountHolderName());
+        assertEquals(0, new BigDecimal("25.00").compareTo(account.getBalance()));
+        assertEquals("ACTIVE", account.getStatus());
+    }
+
+    @Test
+    void csvWithoutTheExpectedHeaderImportsNothing() throws IOException {
+        AccountImportProgress result = accountImportService.importAccounts(
+                new ByteArrayInputStream("name,balance\nA,1\n".getBytes(StandardCharsets.UTF_8)), ExportFormat.CSV,
+                new ByteArrayOutputStream());
+
+        assertEquals(0, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(1, result.getLinesRead());
+    }
+
+    private List<JsonNode> importFile(String file, ExportFormat format) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        accountImportService.importAccounts(new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)), format, outputStream);
+        List<JsonNode> records = new ArrayList<>();
+        for (String line : outputStream.toString(StandardCharsets.UTF_8).lines().toList()) {
+            records.add(objectMapper.readTree(line));
+        }
+        return records;
+    }
+}
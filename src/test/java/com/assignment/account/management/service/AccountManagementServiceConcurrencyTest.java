@@ -0,0 +1,272 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.AccountCreateRequest;
+import com.assignment.account.management.dto.TransactionRequest;
+import com.assignment.account.management.entity.Money;
+import com.assignment.account.management.entity.Transaction;
+import com.assignment.account.management.exception.InsufficientFundsException;
+import com.assignment.account.management.repository.TransactionRepository;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AccountManagementServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    private static final int POSTINGS_PER_THREAD = 50;
+
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("5000.00");
+
+    private static final BigDecimal CREDIT = new BigDecimal("10.00");
+
+    private static final BigDecimal DEBIT = new BigDecimal("5.00");
+
+    @Autowired
+    private AccountManagementService accountManagementService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void hotAccountHasNoBalanceDrift() throws Exception {
+        assertNoDriftOnHotAccount(accountManagementService, transactionRepository, null);
+    }
+
+    @Test
+    void postingsSpreadAcrossAccountsStayExact() throws Exception {
+        List<Long> accountIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            accountIds.add(createAccount());
+        }
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < POSTINGS_PER_THREAD; i++) {
+                // every thread touches every account so neighbouring stripes contend too
+                Long accountId = accountIds.get((thread + i) % accountIds.size());
+                post(accountId, i % 2 == 0 ? "in" : "out");
+            }
+        });
+
+        BigDecimal total = accountIds.stream()
+                .map(id -> accountManagementService.getAccountDetails(id).getBalance())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        int postings = THREADS * POSTINGS_PER_THREAD;
+        BigDecimal expected = INITIAL_BALANCE.multiply(BigDecimal.valueOf(accountIds.size()))
+                .add(CREDIT.multiply(BigDecimal.valueOf(postings / 2)))
+                .subtract(DEBIT.multiply(BigDecimal.valueOf(postings / 2)));
+        assertEquals(0, expected.compareTo(total));
+    }
+
+    @Test
+    void highVolumeAccountHasNoBalanceDrift() throws Exception {
+        Long accountId = createAccount();
+        accountManagementService.setBalanceBuckets(accountId, 8);
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < POSTINGS_PER_THREAD; i++) {
+                post(accountId, i % 2 == 0 ? "in" : "out");
+            }
+        });
+
+        int postings = THREADS * POSTINGS_PER_THREAD;
+        BigDecimal expected = INITIAL_BALANCE
+                .add(CREDIT.multiply(BigDecimal.valueOf(postings / 2)))
+                .subtract(DEBIT.multiply(BigDecimal.valueOf(postings / 2)));
+        assertEquals(0, expected.compareTo(accountManagementService.getAccountDetails(accountId).getBalance()));
+        assertEquals(postings, transactionRepository.findByAccountId(accountId, Pageable.unpaged()).getNumberOfElements());
+    }
+
+    @Test
+    void highVolumeAccountNeverOverdraws() throws Exception {
+        AccountCreateRequest request = new AccountCreateRequest();
+        request.setAccountHolderName("Concurrency Test");
+        request.setInitialBalance(BigDecimal.ZERO);
+        Long accountId = accountManagementService.createAccount(request).getAccountId();
+        accountManagementService.setBalanceBuckets(accountId, 8);
+
+        // Debits outweigh credits, so many are refused while credits are still arriving
+        AtomicInteger debits = new AtomicInteger();
+        runConcurrently(thread -> {
+            for (int i = 0; i < POSTINGS_PER_THREAD; i++) {
+                if (i % 3 != 0) {
+                    post(accountId, "in");
+                    continue;
+                }
+                try {
+                    TransactionRequest debit = new TransactionRequest();
+                    debit.setType("out");
+                    debit.setAmount(new BigDecimal("25.00"));
+                    accountManagementService.processTransaction(accountId, debit);
+                    debits.incrementAndGet();
+                } catch (InsufficientFundsException ex) {
+                    // refused: the balance could not cover it when it was checked
+                }
+            }
+        });
+
+        int credits = THREADS * (POSTINGS_PER_THREAD - (POSTINGS_PER_THREAD + 2) / 3);
+        BigDecimal expected = CREDIT.multiply(BigDecimal.valueOf(credits))
+                .subtract(new BigDecimal("25.00").multiply(BigDecimal.valueOf(debits.get())));
+        assertEquals(0, expected.compareTo(accountManagementService.getAccountDetails(accountId).getBalance()));
+        assertTrue(transactionRepository.findByAccountId(accountId, Pageable.unpaged()).stream()
+                .noneMatch(transaction -> transaction.getBalanceAfterTransaction().isLessThan(Money.ZERO)));
+    }
+
+    @Nested
+    @TestPropertySource(properties = {
+            "transaction.posting.lock.stripes=0",
+            "transaction.posting.max.retries=100"})
+    class OptimisticWithoutInProcessSequencing {
+
+        @Autowired
+        private AccountManagementService accountManagementService;
+
+        @Autowired
+        private TransactionRepository transactionRepository;
+
+        @Test
+        void hotAccountHasNoBalanceDrift() throws Exception {
+            assertNoDriftOnHotAccount(accountManagementService, transactionRepository, null);
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = {
+            "transaction.posting.lock.mode=pessimistic",
+            "transaction.posting.lock.stripes=0"})
+    class PessimisticWithoutInProcessSequencing {
+
+        @Autowired
+        private AccountManagementService accountManagementService;
+
+        @Autowired
+        private TransactionRepository transactionRepository;
+
+        @Test
+        void hotAccountHasNoBalanceDrift() throws Exception {
+            assertNoDriftOnHotAccount(accountManagementService, transactionRepository, null);
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = {
+            "transaction.posting.mode=journal",
+            "transaction.journal.name=concurrency-test",
+            "transaction.journal.directory=target/journal/concurrency-test-${random.uuid}"})
+    class WriteBehindJournal {
+
+        @Autowired
+        private AccountManagementService accountManagementService;
+
+        @Autowired
+        private TransactionRepository transactionRepository;
+
+        @Autowired
+        private JournaledPostingEngine journaledPostingEngine;
+
+        @Test
+        void hotAccountHasNoBalanceDrift() throws Exception {
+            assertNoDriftOnHotAccount(accountManagementService, transactionRepository, journaledPostingEngine);
+        }
+    }
+
+    // Takes the beans of the calling class's context: a nested class's properties do not reach the enclosing instance
+    private void assertNoDriftOnHotAccount(AccountManagementService accountManagementService,
+                                           TransactionRepository transactionRepository,
+                                           @Nullable JournaledPostingEngine journaledPostingEngine) throws Exception {
+        Long accountId = createAccount(accountManagementService);
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < POSTINGS_PER_THREAD; i++) {
+                post(accountManagementService, accountId, i % 2 == 0 ? "in" : "out");
+            }
+        });
+
+        // In journal mode the database catches up after the postings are acknowledged
+        if (journaledPostingEngine != null) {
+            journaledPostingEngine.drain();
+        }
+
+        int postings = THREADS * POSTINGS_PER_THREAD;
+        BigDecimal expected = INITIAL_BALANCE
+                .add(CREDIT.multiply(BigDecimal.valueOf(postings / 2)))
+                .subtract(DEBIT.multiply(BigDecimal.valueOf(postings / 2)));
+        BigDecimal balance = accountManagementService.getAccountDetails(accountId).getBalance();
+        assertEquals(0, expected.compareTo(balance));
+
+        List<Transaction> transactions = transactionRepository.findByAccountId(accountId, Pageable.unpaged()).getContent();
+        assertEquals(postings, transactions.size());
+        BigDecimal lastBalance = transactions.stream()
+                .max((a, b) -> a.getTransactionId().compareTo(b.getTransactionId()))
+                .map(transaction -> transaction.getBalanceAfterTransaction().toBigDecimal())
+                .orElseThrow();
+        assertEquals(0, expected.compareTo(lastBalance));
+    }
+
+    private Long createAccount() {
+        return createAccount(accountManagementService);
+    }
+
+    private static Long createAccount(AccountManagementService accountManagementService) {
+        AccountCreateRequest request = new AccountCreateRequest();
+        request.setAccountHolderName("Concurrency Test");
+        request.setInitialBalance(INITIAL_BALANCE);
+        return accountManagementService.createAccount(request).getAccountId();
+    }
+
+    private void post(Long accountId, String type) {
+        post(accountManagementService, accountId, type);
+    }
+
+    private static void post(AccountManagementService accountManagementService, Long accountId, String type) {
+        TransactionRequest request = new TransactionRequest();
+        request.setType(type);
+        request.setAmount("in".equals(type) ? CREDIT : DEBIT);
+        accountManagementService.processTransaction(accountId, request);
+    }
+
+    private void runConcurrently(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread);
+    }
+}
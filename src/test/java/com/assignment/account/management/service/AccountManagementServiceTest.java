@@ -0,0 +1,430 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.config.CacheConfig;
+import com.assignment.account.management.dto.AccountCreateRequest;
+import com.assignment.account.management.dto.AccountUpdateRequest;
+import com.assignment.account.management.dto.BatchTransactionItem;
+import com.assignment.account.management.dto.BatchTransactionRequest;
+import com.assignment.account.management.dto.BatchTransactionResponse;
+import com.assignment.account.management.dto.BatchTransactionResult;
+import com.assignment.account.management.dto.TransactionRequest;
+import com.assignment.account.management.dto.TransactionHistoryResponse;
+import com.assignment.account.management.dto.TransactionResponse;
+import com.assignment.account.management.entity.Account;
+import com.assignment.account.management.entity.IdempotencyKey;
+import com.assignment.account.management.entity.Money;
+import com.assignment.account.management.exception.BalanceOutOfRangeException;
+import com.assignment.account.management.exception.IdempotencyKeyReusedException;
+import com.assignment.account.management.exception.InsufficientFundsException;
+import com.assignment.account.management.exception.InvalidCursorException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import com.assignment.account.management.repository.AccountRepository;
+import com.assignment.account.management.repository.BalanceBucketRepository;
+import com.assignment.account.management.repository.IdempotencyKeyRepository;
+import com.assignment.account.management.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AccountManagementServiceTest {
+
+    @Autowired
+    private AccountManagementService accountManagementService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EncodedResponseCache encodedResponseCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private BalanceBucketRepository balanceBucketRepository;
+
+    @Autowired
+    private TransactionPostingEngine postingEngine;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionMetrics transactionMetrics;
+
+    @Autowired
+    private AccountShards accountShards;
+
+    @Autowired
+    private TransactionOutbox transactionOutbox;
+
+    @Test
+    void debitsAboveDailyLimitAreFlagged() {
+        Long accountId = createAccount(new BigDecimal("20000"));
+
+        assertFalse(post(accountId, "out", "6000").getFlaggedForReview());
+        assertFalse(post(accountId, "in", "500").getFlaggedForReview());
+        assertTrue(post(accountId, "out", "5000").getFlaggedForReview());
+
+        Account account = accountRepository.findById(accountId).orElseThrow();
+        assertEquals(LocalDate.now(), account.getDailyWithdrawalDate());
+        assertEquals(0, new BigDecimal("11000").compareTo(account.getDailyWithdrawalTotal().toBigDecimal()));
+    }
+
+    @Test
+    void counterIsSeededFromLedgerForAccountsWithoutOne() {
+        Long accountId = createAccount(new BigDecimal("20000"));
+        post(accountId, "out", "8000");
+
+        // simulate an account that predates the running counter
+        Account account = accountRepository.findById(accountId).orElseThrow();
+        account.setDailyWithdrawalDate(null);
+        account.setDailyWithdrawalTotal(null);
+        accountRepository.save(account);
+
+        assertTrue(post(accountId, "out", "3000").getFlaggedForReview());
+    }
+
+    @Test
+    void counterFromAnEarlierDayIsReset() {
+        Long accountId = createAccount(new BigDecimal("20000"));
+        Account account = accountRepository.findById(accountId).orElseThrow();
+        account.setDailyWithdrawalDate(LocalDate.now().minusDays(1));
+        account.setDailyWithdrawalTotal(Money.of(new BigDecimal("9999")));
+        accountRepository.save(account);
+
+        assertFalse(post(accountId, "out", "3000").getFlaggedForReview());
+    }
+
+    @Test
+    void highVolumeAccountKeepsCreditsOffTheAccountRowAndDebitsSeeThem() {
+        Long accountId = createAccount(new BigDecimal("100"));
+        accountManagementService.setBalanceBuckets(accountId, 4);
+
+        assertEquals(0, new BigDecimal("20100").compareTo(post(accountId, "in", "20000").getNewBalance()));
+        assertEquals(0, new BigDecimal("100").compareTo(balance(accountId)));
+        assertEquals(0, new BigDecimal("20100").compareTo(accountManagementService.getAccountDetails(accountId).getBalance()));
+
+        // The debit is checked against the folded balance and still counts towards the daily limit
+        assertThrows(InsufficientFundsException.class, () -> post(accountId, "out", "20100.01"));
+        TransactionResponse debit = post(accountId, "out", "12000");
+        assertTrue(debit.getFlaggedForReview());
+        assertEquals(0, new BigDecimal("8100").compareTo(debit.getNewBalance()));
+        assertEquals(0, new BigDecimal("8100").compareTo(balance(accountId)));
+
+        post(accountId, "in", "50");
+        accountManagementService.setBalanceBuckets(accountId, 0);
+        assertEquals(0, new BigDecimal("8150").compareTo(balance(accountId)));
+        assertTrue(balanceBucketRepository.findAll().stream().noneMatch(bucket -> bucket.getAccountId().equals(accountId)));
+    }
+
+    @Test
+    void creditFallsBackToTheAccountRowWhenBucketsWereRemovedElsewhere() {
+        Long accountId = createAccount(new BigDecimal("100"));
+        accountManagementService.setBalanceBuckets(accountId, 4);
+        newNode().setBalanceBuckets(accountId, 0);
+
+        assertEquals(0, new BigDecimal("110").compareTo(post(accountId, "in", "10").getNewBalance()));
+        assertEquals(0, new BigDecimal("110").compareTo(balance(accountId)));
+    }
+
+    @Test
+    void batchAppliesItemsPerAccountInOrderAndReportsFailures() {
+        Long first = createAccount(new BigDecimal("100"));
+        Long second = createAccount(new BigDecimal("0"));
+
+        BatchTransactionRequest batch = new BatchTransactionRequest();
+        batch.setTransactions(List.of(
+                batchItem(second, "out", "10"),   // fails: nothing credited yet
+                batchItem(first, "out", "60"),
+                batchItem(second, "in", "25"),
+                batchItem(first, "out", "60"),    // fails: only 40 left
+                batchItem(-1L, "in", "5"),        // fails: unknown account
+                batchItem(first, "in", "15"),
+                batchItem(second, "out", "20")));
+
+        BatchTransactionResponse response = accountManagementService.processTransactions(batch);
+
+        assertEquals(4, response.getProcessed());
+        assertEquals(3, response.getFailed());
+        List<String> statuses = response.getResults().stream().map(BatchTransactionResult::getStatus).toList();
+        assertEquals(List.of("FAILED", "PROCESSED", "PROCESSED", "FAILED", "FAILED", "PROCESSED", "PROCESSED"), statuses);
+        assertEquals(0, new BigDecimal("55").compareTo(response.getResults().get(5).getTransaction().getNewBalance()));
+        assertEquals(0, new BigDecimal("55").compareTo(accountManagementService.getAccountDetails(first).getBalance()));
+        assertEquals(0, new BigDecimal("5").compareTo(accountManagementService.getAccountDetails(second).getBalance()));
+    }
+
+    @Test
+    void creditPastTheLargestBalanceIsRejectedAndFailsOnlyItsBatchItem() {
+        Long accountId = createAccount(new BigDecimal("9999999999999999.00"));
+
+        assertThrows(BalanceOutOfRangeException.class, () -> post(accountId, "in", "1"));
+        assertEquals(0, new BigDecimal("9999999999999999.00").compareTo(balance(accountId)));
+
+        BatchTransactionRequest batch = new BatchTransactionRequest();
+        batch.setTransactions(List.of(
+                batchItem(accountId, "in", "1"),      // fails: past the largest balance
+                batchItem(accountId, "out", "100")));
+        BatchTransactionResponse response = accountManagementService.processTransactions(batch);
+
+        assertEquals(List.of("FAILED", "PROCESSED"), response.getResults().stream().map(BatchTransactionResult::getStatus).toList());
+        assertEquals(0, new BigDecimal("9999999999999899.00").compareTo(balance(accountId)));
+    }
+
+    @Test
+    void cursorPagesWalkHistoryWithoutGapsOrCounts() {
+        Long accountId = createAccount(new BigDecimal("0"));
+        for (int i = 1; i <= 7; i++) {
+            post(accountId, "in", String.valueOf(i));
+        }
+
+        List<BigDecimal> amounts = new ArrayList<>();
+        String cursor = null;
+        do {
+            TransactionHistoryResponse page = accountManagementService.getTransactionHistoryByCursor(
+                    accountId, null, null, null, cursor, 3);
+            assertNull(page.getTotalTransactions());
+            page.getTransactions().forEach(transaction -> amounts.add(transaction.getAmount()));
+            cursor = page.getNextCursor();
+            assertEquals(cursor != null, page.getHasNext());
+        } while (cursor != null);
+
+        assertEquals(7, amounts.size());
+        for (int i = 0; i < amounts.size(); i++) {
+            assertEquals(0, BigDecimal.valueOf(7 - i).compareTo(amounts.get(i)));
+        }
+    }
+
+    @Test
+    void historyPagesAreReadAsDetailsForEveryFilter() {
+        Long accountId = createAccount(new BigDecimal("100"));
+        post(accountId, "in", "10");
+        post(accountId, "out", "5");
+        post(accountId, "in", "20");
+        LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
+
+        TransactionHistoryResponse all = accountManagementService.getTransactionHistory(accountId, null, null, null, 0, 2);
+        assertEquals(3, all.getTotalTransactions());
+        assertEquals(2, all.getTotalPages());
+        assertEquals(0, new BigDecimal("20").compareTo(all.getTransactions().get(0).getAmount()));
+        assertEquals(0, new BigDecimal("125").compareTo(all.getTransactions().get(0).getBalanceAfterTransaction()));
+        assertEquals("in", all.getTransactions().get(0).getType());
+        assertNotNull(all.getTransactions().get(0).getTimestamp());
+
+        assertEquals(2, accountManagementService.getTransactionHistory(accountId, "in", null, null, 0, 10).getTotalTransactions());
+        assertEquals(3, accountManagementService.getTransactionHistory(accountId, null, yesterday, null, 0, 10).getTotalTransactions());
+        TransactionHistoryResponse debits = accountManagementService.getTransactionHistory(accountId, "out", yesterday, null, 0, 10);
+        assertEquals(1, debits.getTotalTransactions());
+        assertEquals(0, new BigDecimal("105").compareTo(debits.getTransactions().get(0).getBalanceAfterTransaction()));
+        assertEquals(0, accountManagementService.getTransactionHistory(accountId, "out", yesterday, yesterday.plusHours(1), 0, 10)
+                .getTotalTransactions());
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(InvalidCursorException.class, () -> accountManagementService.getTransactionHistoryByCursor(
+                1L, null, null, null, "not-a-cursor", 10));
+    }
+
+    @Test
+    void accountDetailsAreCachedUntilTheAccountChanges() {
+        Long accountId = createAccount(new BigDecimal("100"));
+        Cache cache = cacheManager.getCache(CacheConfig.ACCOUNTS_CACHE);
+
+        encodedResponseCache.account(accountId);
+        assertNotNull(cache.get(accountId));
+
+        post(accountId, "in", "50");
+        assertNull(cache.get(accountId));
+        assertEquals(0, new BigDecimal("150").compareTo(accountManagementService.getAccountDetails(accountId).getBalance()));
+
+        encodedResponseCache.account(accountId);
+        accountManagementService.suspendAccount(accountId);
+        assertNull(cache.get(accountId));
+        assertEquals("SUSPENDED", accountManagementService.getAccountDetails(accountId).getStatus());
+    }
+
+    @Test
+    void postingsAndRejectionsAreCounted() {
+        Long accountId = createAccount(new BigDecimal("100"));
+        double credits = counter("account.transactions", "type", "in");
+        double insufficientFunds = counter("account.transactions.rejected", "reason", "insufficient_funds");
+
+        post(accountId, "in", "10");
+        assertThrows(InsufficientFundsException.class, () -> post(accountId, "out", "1000"));
+
+        assertEquals(credits + 1, counter("account.transactions", "type", "in"));
+        assertEquals(insufficientFunds + 1, counter("account.transactions.rejected", "reason", "insufficient_funds"));
+        assertNotNull(meterRegistry.find("spring.data.repository.invocations").tag("repository", "TransactionRepository").timer());
+    }
+
+    @Test
+    void retryWithSameIdempotencyKeyReturnsOriginalResponse() {
+        Long accountId = createAccount(new BigDecimal("100"));
+        String key = UUID.randomUUID().toString();
+
+        TransactionResponse first = post(accountId, "out", "30", key);
+        TransactionResponse retry = post(accountId, "out", "30", key);
+
+        assertSame(first, retry);
+        assertEquals(0, new BigDecimal("70").compareTo(balance(accountId)));
+        assertThrows(IdempotencyKeyReusedException.class, () -> post(accountId, "out", "40", key));
+    }
+
+    @Test
+    void concurrentRetriesWithSameIdempotencyKeyPostOnce() throws Exception {
+        Long accountId = createAccount(new BigDecimal("100"));
+        String key = UUID.randomUUID().toString();
+        // a second node shares the database but not the in-memory index
+        AccountManagementService otherNode = newNode();
+        CountDownLatch start = new CountDownLatch(1);
+
+        CompletableFuture<TransactionResponse> here = CompletableFuture.supplyAsync(() -> {
+            await(start);
+            return post(accountManagementService, accountId, "out", "30", key);
+        });
+        CompletableFuture<TransactionResponse> there = CompletableFuture.supplyAsync(() -> {
+            await(start);
+            return post(otherNode, accountId, "out", "30", key);
+        });
+        start.countDown();
+
+        assertEquals(here.get().getNewBalance(), there.get().getNewBalance());
+        assertEquals(here.get().getTimestamp(), there.get().getTimestamp());
+        assertEquals(0, new BigDecimal("70").compareTo(balance(accountId)));
+    }
+
+    @Test
+    void renamesRacingPostingsAllApply() throws Exception {
+        Long accountId = createAccount(new BigDecimal("100"));
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<?>> work = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 20; i++) {
+                AccountUpdateRequest update = new AccountUpdateRequest();
+                update.setAccountHolderName("Renamed " + i);
+                work.add(CompletableFuture.runAsync(() -> {
+                    await(start);
+                    post(accountId, "in", "1");
+                }, executor));
+                work.add(CompletableFuture.runAsync(() -> {
+                    await(start);
+                    accountManagementService.updateAccount(accountId, update);
+                }, executor));
+            }
+            start.countDown();
+            CompletableFuture.allOf(work.toArray(CompletableFuture[]::new)).get();
+        }
+
+        assertEquals(0, new BigDecimal("120").compareTo(balance(accountId)));
+        assertTrue(accountRepository.findById(accountId).orElseThrow().getAccountHolderName().startsWith("Renamed "));
+    }
+
+    @Test
+    void storedIdempotencyKeyIsReplayedAndExpiredOneIsReleased() {
+        Long accountId = createAccount(new BigDecimal("100"));
+        String key = UUID.randomUUID().toString();
+        TransactionResponse first = post(accountId, "out", "30", key);
+
+        TransactionResponse replayed = post(newNode(), accountId, "out", "30", key);
+        assertEquals(first.getTimestamp(), replayed.getTimestamp());
+        assertEquals(0, new BigDecimal("70").compareTo(balance(accountId)));
+
+        IdempotencyKey stored = idempotencyKeyRepository.findById(key).orElseThrow();
+        stored.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        idempotencyKeyRepository.save(stored);
+
+        post(newNode(), accountId, "out", "30", key);
+        assertEquals(0, new BigDecimal("40").compareTo(balance(accountId)));
+    }
+
+    private AccountManagementService newNode() {
+        IdempotencyStore idempotencyStore = new IdempotencyStore(idempotencyKeyRepository, accountShards, Duration.ofHours(1), 100);
+        return new AccountManagementService(accountRepository, transactionRepository, postingEngine, eventPublisher,
+                transactionMetrics, idempotencyStore, null, accountShards, transactionOutbox,
+                new BalanceBuckets(balanceBucketRepository), new BigDecimal("10000"), 200);
+    }
+
+    private BigDecimal balance(Long accountId) {
+        return accountRepository.findById(accountId).orElseThrow().getCurrentBalance().toBigDecimal();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double counter(String name, String tagKey, String tagValue) {
+        return meterRegistry.find(name).tag(tagKey, tagValue).counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    private BatchTransactionItem batchItem(Long accountId, String type, String amount) {
+        BatchTransactionItem item = new BatchTransactionItem();
+        item.setAccountId(accountId);
+        item.setType(type);
+        item.setAmount(new BigDecimal(amount));
+        return item;
+    }
+
+    private Long createAccount(BigDecimal initialBalance) {
+        AccountCreateRequest request = new AccountCreateRequest();
+        request.setAccountHolderName("Service Test");
+        request.setInitialBalance(initialBalance);
+        return accountManagementService.createAccount(request).getAccountId();
+    }
+
+    private TransactionResponse post(Long accountId, String type, String amount) {
+        return post(accountId, type, amount, null);
+    }
+
+    private TransactionResponse post(Long accountId, String type, String amount, String idempotencyKey) {
+        return post(accountManagementService, accountId, type, amount, idempotencyKey);
+    }
+
+    private TransactionResponse post(AccountManagementService service, Long accountId, String type, String amount,
+                                     String idempotencyKey) {
+        TransactionRequest request = new TransactionRequest();
+        request.setType(type);
+        request.setAmount(new BigDecimal(amount));
+        return service.processTransaction(accountId, request, idempotencyKey);
+    }
+}
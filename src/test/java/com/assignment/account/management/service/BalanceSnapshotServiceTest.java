@@ -0,0 +1,93 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.AccountBalanceResponse;
+import com.assignment.account.management.dto.AccountCreateRequest;
+import com.assignment.account.management.dto.TransactionRequest;
+import com.assignment.account.management.dto.TransactionResponse;
+import com.assignment.account.management.exception.AccountNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BalanceSnapshotServiceTest {
+
+    @Autowired
+    private BalanceSnapshotService balanceSnapshotService;
+
+    @Autowired
+    private AccountManagementService accountManagementService;
+
+    @Test
+    void balanceAsOfIsRebuiltFromTheNearestSnapshot() {
+        Long accountId = createAccount("100");
+        TransactionResponse first = post(accountId, "in", "50");
+        TransactionResponse second = post(accountId, "out", "30");
+
+        LocalDateTime firstCutoff = now();
+        assertTrue(balanceSnapshotService.takeSnapshots(firstCutoff) >= 1);
+        TransactionResponse third = post(accountId, "out", "5");
+        post(accountId, "in", "1.50");
+
+        // before the first snapshot the whole history is summed
+        AccountBalanceResponse beforeSnapshot = balanceSnapshotService.getBalanceAsOf(accountId, first.getTimestamp());
+        assertBalance("150", beforeSnapshot);
+        assertNull(beforeSnapshot.getSnapshotAt());
+        assertBalance("120", balanceSnapshotService.getBalanceAsOf(accountId, second.getTimestamp()));
+
+        AccountBalanceResponse afterSnapshot = balanceSnapshotService.getBalanceAsOf(accountId, third.getTimestamp());
+        assertBalance("115", afterSnapshot);
+        assertEquals(firstCutoff, afterSnapshot.getSnapshotAt());
+        assertBalance("116.50", balanceSnapshotService.getBalanceAsOf(accountId, now()));
+
+        LocalDateTime secondCutoff = now();
+        balanceSnapshotService.takeSnapshots(secondCutoff);
+        AccountBalanceResponse atSnapshot = balanceSnapshotService.getBalanceAsOf(accountId, secondCutoff);
+        assertBalance("116.50", atSnapshot);
+        assertEquals(secondCutoff, atSnapshot.getSnapshotAt());
+        assertBalance("115", balanceSnapshotService.getBalanceAsOf(accountId, third.getTimestamp()));
+    }
+
+    @Test
+    void balanceBeforeTheAccountWasOpenedIsNotFound() {
+        Long accountId = createAccount("100");
+
+        assertThrows(AccountNotFoundException.class,
+                () -> balanceSnapshotService.getBalanceAsOf(accountId, LocalDateTime.now().minusDays(1)));
+        assertThrows(AccountNotFoundException.class,
+                () -> balanceSnapshotService.getBalanceAsOf(Long.MAX_VALUE, LocalDateTime.now()));
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private static void assertBalance(String expected, AccountBalanceResponse response) {
+        assertEquals(0, new BigDecimal(expected).compareTo(response.getBalance()), () -> "balance was " + response.getBalance());
+    }
+
+    private Long createAccount(String initialBalance) {
+        AccountCreateRequest request = new AccountCreateRequest();
+        request.setAccountHolderName("Snapshot Test");
+        request.setInitialBalance(new BigDecimal(initialBalance));
+        return accountManagementService.createAccount(request).getAccountId();
+    }
+
+    private TransactionResponse post(Long accountId, String type, String amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setType(type);
+        request.setAmount(new BigDecimal(amount));
+        return accountManagementService.processTransaction(accountId, request);
+    }
+}
@@ -0,0 +1,117 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.AccountCreateRequest;
+import com.assignment.account.management.dto.AccountUpdateRequest;
+import com.assignment.account.management.dto.TransactionRequest;
+import com.assignment.account.management.service.EncodedResponseCache.EncodedResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EncodedResponseCacheTest {
+
+    @Autowired
+    private AccountManagementService accountManagementService;
+
+    @Autowired
+    private EncodedResponseCache encodedResponseCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long accountId;
+
+    @BeforeEach
+    void setUp() {
+        AccountCreateRequest request = new AccountCreateRequest();
+        request.setAccountHolderName("Cache Test");
+        request.setInitialBalance(new BigDecimal("100"));
+        accountId = accountManagementService.createAccount(request).getAccountId();
+    }
+
+    @Test
+    void accountResponseIsServedFromCacheUntilTheAccountChanges() throws IOException {
+        EncodedResponse first = encodedResponseCache.account(accountId);
+        assertSame(first, encodedResponseCache.account(accountId));
+        assertEquals(0, new BigDecimal("100").compareTo(objectMapper.readTree(first.body()).get("balance").decimalValue()));
+
+        post("in", "25");
+        EncodedResponse afterPosting = encodedResponseCache.account(accountId);
+        assertNotEquals(first.etag(), afterPosting.etag());
+        assertEquals(0, new BigDecimal("125").compareTo(objectMapper.readTree(afterPosting.body()).get("balance").decimalValue()));
+
+        AccountUpdateRequest update = new AccountUpdateRequest();
+        update.setAccountHolderName("Cache Test Renamed");
+        accountManagementService.updateAccount(accountId, update);
+        EncodedResponse afterRename = encodedResponseCache.account(accountId);
+        assertNotEquals(afterPosting.etag(), afterRename.etag());
+        assertEquals("Cache Test Renamed", objectMapper.readTree(afterRename.body()).get("accountHolderName").asText());
+    }
+
+    @Test
+    void etagOfAReloadedUnchangedAccountStaysTheSame() {
+        EncodedResponse first = encodedResponseCache.account(accountId);
+        encodedResponseCache.evict(accountId);
+        EncodedResponse reloaded = encodedResponseCache.account(accountId);
+
+        assertNotSame(first, reloaded);
+        assertEquals(first.etag(), reloaded.etag());
+    }
+
+    @Test
+    void firstHistoryPageChangesWithEveryPosting() throws IOException {
+        EncodedResponse empty = encodedResponseCache.firstHistoryPage(accountId, 10);
+        assertSame(empty, encodedResponseCache.firstHistoryPage(accountId, 10));
+        assertEquals(0, objectMapper.readTree(empty.body()).get("transactions").size());
+
+        post("out", "10");
+        EncodedResponse afterPosting = encodedResponseCache.firstHistoryPage(accountId, 10);
+        assertNotEquals(empty.etag(), afterPosting.etag());
+        JsonNode transactions = objectMapper.readTree(afterPosting.body()).get("transactions");
+        assertEquals(1, transactions.size());
+        assertEquals("out", transactions.get(0).get("type").asText());
+        assertNotEquals(afterPosting.etag(), encodedResponseCache.firstHistoryPage(accountId, 5).etag());
+    }
+
+    @Nested
+    @TestPropertySource(properties = "spring.cache.type=none")
+    class CachingSwitchedOff {
+
+        // Fields of the enclosing instance come from the enclosing class's context
+        @Autowired
+        private EncodedResponseCache uncached;
+
+        @Test
+        void everyRequestIsEncodedAfreshWithTheSameEtag() {
+            EncodedResponse first = uncached.account(accountId);
+            EncodedResponse second = uncached.account(accountId);
+
+            assertNotSame(first, second);
+            assertEquals(first.etag(), second.etag());
+            assertNotSame(uncached.firstHistoryPage(accountId, 10), uncached.firstHistoryPage(accountId, 10));
+        }
+    }
+
+    private void post(String type, String amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setType(type);
+        request.setAmount(new BigDecimal(amount));
+        accountManagementService.processTransaction(accountId, request);
+    }
+}
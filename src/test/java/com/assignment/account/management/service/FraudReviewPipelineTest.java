@@ -0,0 +1,134 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.AccountCreateRequest;
+import com.assignment.account.management.dto.FraudReviewResponse;
+import com.assignment.account.management.dto.TransactionRequest;
+import com.assignment.account.management.dto.TransactionResponse;
+import com.assignment.account.management.entity.FraudReview;
+import com.assignment.account.management.entity.Money;
+import com.assignment.account.management.repository.FraudReviewRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Posts through the service and checks the reviews the pipeline writes for flagged postings,
+ * including debits sent with their type in any case, that a posting queued twice is reviewed
+ * once and that the reconciler reviews one the queue lost.
+ */
+@SpringBootTest(properties = {
+        "transaction.daily.withdrawal.limit=100",
+        "transaction.review.velocity.debits=3",
+        "transaction.review.large.amount=500",
+        "transaction.review.reconcile.interval=PT1H",
+        "transaction.review.reconcile.settle.delay=PT0S"})
+@ActiveProfiles("test")
+class FraudReviewPipelineTest {
+
+    @Autowired
+    private AccountManagementService accountManagementService;
+
+    @Autowired
+    private FraudReviewPipeline fraudReviewPipeline;
+
+    @Autowired
+    private FraudReviewService fraudReviewService;
+
+    @Autowired
+    private FraudReviewRepository fraudReviewRepository;
+
+    @Test
+    void flaggedPostingsAreReviewedWithTheRulesTheyTrip() throws InterruptedException {
+        Long accountId = createAccount();
+        post(accountId, "out", "60");
+        post(accountId, "in", "20");
+        TransactionResponse overLimit = post(accountId, "out", "50");
+        TransactionResponse large = post(accountId, "out", "600");
+        assertTrue(overLimit.getFlaggedForReview());
+
+        List<FraudReviewResponse> reviews = awaitReviews(accountId, 2);
+        FraudReviewResponse largeReview = reviews.get(0);
+        assertEquals(List.of(FraudReviewPipeline.DAILY_LIMIT_EXCEEDED, FraudReviewPipeline.HIGH_VELOCITY,
+                FraudReviewPipeline.LARGE_AMOUNT), largeReview.getReasons());
+        assertEquals(3, largeReview.getRiskScore());
+        assertEquals(3, largeReview.getRecentDebitCount());
+        assertEquals(0, new BigDecimal("710").compareTo(largeReview.getRecentDebitTotal()));
+        assertEquals(0, large.getAmount().compareTo(largeReview.getAmount()));
+
+        FraudReviewResponse overLimitReview = reviews.get(1);
+        assertEquals(List.of(FraudReviewPipeline.DAILY_LIMIT_EXCEEDED), overLimitReview.getReasons());
+        assertEquals(1, overLimitReview.getRiskScore());
+        assertEquals(2, overLimitReview.getRecentDebitCount());
+        assertEquals(FraudReview.PENDING, overLimitReview.getStatus());
+
+        assertTrue(fraudReviewService.getReviewQueue(FraudReview.PENDING, 1_000).getReviews().stream()
+                .anyMatch(review -> review.getTransactionId().equals(largeReview.getTransactionId())));
+    }
+
+    @Test
+    void debitsCountTowardVelocityWhateverTheCaseOfTheirType() throws InterruptedException {
+        Long accountId = createAccount();
+        post(accountId, "OUT", "40");
+        post(accountId, "Out", "30");
+        assertTrue(post(accountId, "out", "50").getFlaggedForReview());
+
+        FraudReviewResponse review = awaitReviews(accountId, 1).get(0);
+        assertEquals(List.of(FraudReviewPipeline.DAILY_LIMIT_EXCEEDED, FraudReviewPipeline.HIGH_VELOCITY), review.getReasons());
+        assertEquals(3, review.getRecentDebitCount());
+        assertEquals(0, new BigDecimal("120").compareTo(review.getRecentDebitTotal()));
+    }
+
+    @Test
+    void postingsAreReviewedOnceAndTheReconcilerReviewsThoseTheQueueLost() throws InterruptedException {
+        Long accountId = createAccount();
+        TransactionResponse flagged = post(accountId, "out", "150");
+        FraudReviewResponse review = awaitReviews(accountId, 1).get(0);
+
+        fraudReviewPipeline.onFlaggedPosting(new FlaggedPostingEvent(review.getTransactionId(), accountId,
+                Money.of(flagged.getAmount()), flagged.getTimestamp()));
+        fraudReviewPipeline.drain();
+        assertEquals(1, fraudReviewService.getAccountReviews(accountId, null, 0, 10).getTotalReviews());
+
+        fraudReviewRepository.deleteById(review.getTransactionId());
+        assertFalse(fraudReviewRepository.existsById(review.getTransactionId()));
+        assertTrue(fraudReviewPipeline.reconcile() >= 1);
+        assertTrue(fraudReviewRepository.existsById(review.getTransactionId()));
+        assertEquals(0, fraudReviewPipeline.reconcile());
+    }
+
+    // The worker thread evaluates the queue in the background; drain() takes whatever it has not
+    private List<FraudReviewResponse> awaitReviews(Long accountId, int expected) throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            fraudReviewPipeline.drain();
+            List<FraudReviewResponse> reviews = fraudReviewService.getAccountReviews(accountId, FraudReview.PENDING, 0, 10).getReviews();
+            if (reviews.size() >= expected) {
+                assertEquals(expected, reviews.size());
+                return reviews;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Expected " + expected + " reviews for account " + accountId);
+    }
+
+    private Long createAccount() {
+        AccountCreateRequest request = new AccountCreateRequest();
+        request.setAccountHolderName("Review Test");
+        request.setInitialBalance(new BigDecimal("1000"));
+        return accountManagementService.createAccount(request).getAccountId();
+    }
+
+    private TransactionResponse post(Long accountId, String type, String amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setType(type);
+        request.setAmount(new BigDecimal(amount));
+        return accountManagementService.processTransaction(accountId, request);
+    }
+}
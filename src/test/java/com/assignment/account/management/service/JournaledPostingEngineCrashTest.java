@@ -0,0 +1,183 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.AccountTransactionManagementApplication;
+import com.assignment.account.management.dto.AccountCreateRequest;
+import com.assignment.account.management.dto.TransactionRequest;
+import com.assignment.account.management.entity.Account;
+import com.assignment.account.management.entity.Transaction;
+import com.assignment.account.management.repository.AccountRepository;
+import com.assignment.account.management.repository.JournalCheckpointRepository;
+import com.assignment.account.management.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Kills a journal-mode node in the middle of a flush and checks that a restart replays the
+ * journal so that every acknowledged posting is in the database exactly once.
+ */
+class JournaledPostingEngineCrashTest {
+
+    private static final int CRASH_EXIT_CODE = 137;
+
+    private static final int CRASH_ON_FLUSH = 5;
+
+    private static final int ACCOUNTS = 10;
+
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("100000.00");
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void acknowledgedPostingsSurviveACrashMidFlush() throws Exception {
+        String url = "jdbc:h2:file:" + directory.resolve("accounts").toAbsolutePath()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000";
+        Path journal = directory.resolve("journal");
+        Path output = directory.resolve("node.log");
+
+        Process node = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("surefire.test.class.path", System.getProperty("java.class.path")),
+                CrashingNode.class.getName(), url, journal.toString())
+                .redirectErrorStream(true)
+                .redirectOutput(output.toFile())
+                .start();
+        assertTrue(node.waitFor(3, TimeUnit.MINUTES), "node did not crash in time");
+        assertEquals(CRASH_EXIT_CODE, node.exitValue(), () -> "node exited without crashing, see " + output);
+
+        Map<Long, Integer> acknowledged = new HashMap<>();
+        Files.readAllLines(output).stream()
+                .filter(line -> line.startsWith("ACK "))
+                .forEach(line -> acknowledged.merge(Long.valueOf(line.substring(4)), 1, Integer::sum));
+        assertFalse(acknowledged.isEmpty());
+
+        try (ConfigurableApplicationContext context = start(url, journal, false)) {
+            AccountRepository accountRepository = context.getBean(AccountRepository.class);
+            TransactionRepository transactionRepository = context.getBean(TransactionRepository.class);
+
+            List<Account> accounts = accountRepository.findAll();
+            assertEquals(ACCOUNTS, accounts.size());
+            for (Account account : accounts) {
+                List<Transaction> transactions = transactionRepository.findByAccountId(account.getAccountId(), Pageable.unpaged())
+                        .getContent();
+                assertTrue(transactions.size() >= acknowledged.getOrDefault(account.getAccountId(), 0));
+
+                BigDecimal expected = INITIAL_BALANCE;
+                for (Transaction transaction : transactions) {
+                    expected = "in".equals(transaction.getType())
+                            ? expected.add(transaction.getAmount().toBigDecimal())
+                            : expected.subtract(transaction.getAmount().toBigDecimal());
+                }
+                assertEquals(0, expected.compareTo(account.getCurrentBalance().toBigDecimal()));
+            }
+
+            // one row per journal sequence: nothing below the checkpoint was lost or applied twice
+            long checkpoint = context.getBean(JournalCheckpointRepository.class).findById("crash-test").orElseThrow().getLastSequence();
+            assertEquals(checkpoint, transactionRepository.count());
+            assertTrue(checkpoint >= acknowledged.values().stream().mapToInt(Integer::intValue).sum());
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String url, Path journal, boolean crash) {
+        SpringApplicationBuilder builder = crash
+                ? new SpringApplicationBuilder(AccountTransactionManagementApplication.class, CrashInjection.class)
+                : new SpringApplicationBuilder(AccountTransactionManagementApplication.class);
+        return builder.web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--spring.datasource.url=" + url,
+                        "--transaction.posting.mode=journal",
+                        "--transaction.journal.name=crash-test",
+                        "--transaction.journal.directory=" + journal,
+                        "--transaction.journal.flush.batch.size=50",
+                        "--logging.level.root=WARN");
+    }
+
+    /**
+     * Runs in its own JVM: posts from several threads and prints each acknowledgement until
+     * the injected fault halts the process part way through a flush.
+     */
+    public static class CrashingNode {
+
+        public static void main(String[] args) {
+            ConfigurableApplicationContext context = start(args[0], Path.of(args[1]), true);
+            AccountManagementService service = context.getBean(AccountManagementService.class);
+            Long[] accountIds = new Long[ACCOUNTS];
+            for (int i = 0; i < ACCOUNTS; i++) {
+                AccountCreateRequest request = new AccountCreateRequest();
+                request.setAccountHolderName("Crash Test");
+                request.setInitialBalance(INITIAL_BALANCE);
+                accountIds[i] = service.createAccount(request).getAccountId();
+            }
+
+            for (int t = 0; t < 8; t++) {
+                Thread.ofPlatform().start(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (true) {
+                        Long accountId = accountIds[random.nextInt(ACCOUNTS)];
+                        TransactionRequest request = new TransactionRequest();
+                        request.setType(random.nextBoolean() ? "in" : "out");
+                        request.setAmount(BigDecimal.valueOf(random.nextInt(1, 100)));
+                        service.processTransaction(accountId, request);
+                        System.out.println("ACK " + accountId);
+                    }
+                });
+            }
+        }
+    }
+
+    // Halts the JVM during a flush, after the batch reached the database but before it commits
+    @Configuration
+    static class CrashInjection {
+
+        @Bean
+        static BeanPostProcessor haltMidFlush(ObjectProvider<EntityManager> entityManager) {
+            AtomicInteger flushes = new AtomicInteger();
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof JournalCheckpointRepository)) {
+                        return bean;
+                    }
+                    return Proxy.newProxyInstance(getClass().getClassLoader(),
+                            new Class<?>[]{JournalCheckpointRepository.class}, (proxy, method, args) -> {
+                                Object result;
+                                try {
+                                    result = method.invoke(bean, args);
+                                } catch (InvocationTargetException ex) {
+                                    throw ex.getTargetException();
+                                }
+                                if ("advance".equals(method.getName()) && flushes.incrementAndGet() == CRASH_ON_FLUSH) {
+                                    entityManager.getObject().flush();
+                                    Runtime.getRuntime().halt(CRASH_EXIT_CODE);
+                                }
+                                return result;
+                            });
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.AccountCreateRequest;
+import com.assignment.account.management.dto.TransactionRequest;
+import com.assignment.account.management.dto.TransactionResponse;
+import com.assignment.account.management.entity.IdempotencyKey;
+import com.assignment.account.management.entity.Money;
+import com.assignment.account.management.entity.OutboxEvent;
+import com.assignment.account.management.entity.Transaction;
+import com.assignment.account.management.repository.AccountRepository;
+import com.assignment.account.management.repository.BalanceBucketRepository;
+import com.assignment.account.management.repository.IdempotencyKeyRepository;
+import com.assignment.account.management.repository.OutboxEventRepository;
+import com.assignment.account.management.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Idempotency in journal mode, where no primary key catches a duplicate posting: retries reach a
+ * node whose response cache no longer has the key, before and after the flusher recorded it. Also
+ * suspends an account whose row still trails the ledger. Postings are flushed when a test drains.
+ */
+@SpringBootTest(properties = {
+        "transaction.posting.mode=journal",
+        "transaction.journal.flush.interval=PT1H",
+        "transaction.journal.name=engine-test",
+        "transaction.journal.directory=target/journal/engine-test-${random.uuid}"})
+@ActiveProfiles("test")
+class JournaledPostingEngineTest {
+
+    @Autowired
+    private AccountManagementService accountManagementService;
+
+    @Autowired
+    private JournaledPostingEngine journaledPostingEngine;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private BalanceBucketRepository balanceBucketRepository;
+
+    @Autowired
+    private TransactionPostingEngine postingEngine;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionMetrics transactionMetrics;
+
+    @Autowired
+    private AccountShards accountShards;
+
+    @Autowired
+    private TransactionOutbox transactionOutbox;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void retryOfAPendingPostingIsReplayedFromTheJournal() {
+        Long accountId = createAccount();
+        String key = UUID.randomUUID().toString();
+        TransactionResponse first = post(accountManagementService, accountId, key);
+
+        TransactionResponse replayed = post(newNode(), accountId, key);
+        assertEquals(first.getTimestamp(), replayed.getTimestamp());
+
+        journaledPostingEngine.drain();
+        assertEquals(1, postings(accountId));
+        assertEquals(0, new BigDecimal("70").compareTo(balance(accountId)));
+    }
+
+    @Test
+    void retryOfAFlushedPostingIsReplayedFromTheDatabase() {
+        Long accountId = createAccount();
+        String key = UUID.randomUUID().toString();
+        TransactionResponse first = post(accountManagementService, accountId, key);
+        journaledPostingEngine.drain();
+
+        TransactionResponse replayed = post(newNode(), accountId, key);
+        assertEquals(first.getTimestamp(), replayed.getTimestamp());
+
+        journaledPostingEngine.drain();
+        assertEquals(1, postings(accountId));
+        assertEquals(0, new BigDecimal("70").compareTo(balance(accountId)));
+    }
+
+    @Test
+    void postingWithAKeyRecordedElsewhereIsFlushedWithoutIt() {
+        Long accountId = createAccount();
+        String key = UUID.randomUUID().toString();
+        IdempotencyKey recorded = new IdempotencyKey();
+        recorded.setIdempotencyKey(key);
+        recorded.setAccountId(accountId);
+        recorded.setTransactionId(0L);
+        recorded.setExpiresAt(LocalDateTime.now().plusHours(1));
+        idempotencyKeyRepository.save(recorded);
+
+        // Appended directly, as a node that did not see the record would have
+        journaledPostingEngine.execute(accountId, account -> {
+            Money amount = Money.of(new BigDecimal("30"));
+            account.setCurrentBalance(account.getCurrentBalance().minus(amount));
+            Transaction transaction = new Transaction();
+            transaction.setAccountId(accountId);
+            transaction.setType("out");
+            transaction.setAmount(amount);
+            transaction.setTimestamp(LocalDateTime.now());
+            transaction.setBalanceAfterTransaction(account.getCurrentBalance());
+            journaledPostingEngine.append(account, transaction, key);
+            return null;
+        });
+        journaledPostingEngine.awaitDurable();
+        journaledPostingEngine.drain();
+
+        assertEquals(1, postings(accountId));
+        assertEquals(0L, idempotencyKeyRepository.findById(key).orElseThrow().getTransactionId());
+        assertTrue(journaledPostingEngine.pending(key).isEmpty());
+    }
+
+    @Test
+    void suspensionWithUnflushedPostingsCarriesTheLedgerBalance() throws IOException {
+        Long accountId = createAccount();
+        post(accountManagementService, accountId, UUID.randomUUID().toString());
+        assertTrue(journaledPostingEngine.hasUnflushedPostingsUpTo(LocalDateTime.now()));
+
+        accountManagementService.suspendAccount(accountId);
+
+        OutboxEvent suspended = outboxEventRepository.findAll().stream()
+                .filter(event -> event.getAccountId().equals(accountId)
+                        && TransactionOutbox.ACCOUNT_SUSPENDED.equals(event.getEventType()))
+                .findFirst().orElseThrow();
+        JsonNode payload = objectMapper.readTree(suspended.getPayload());
+        assertEquals(0, new BigDecimal("70").compareTo(payload.get("balance").decimalValue()));
+        assertEquals("SUSPENDED", payload.get("status").asText());
+
+        journaledPostingEngine.drain();
+        assertEquals("SUSPENDED", accountRepository.findById(accountId).orElseThrow().getStatus());
+        assertEquals(0, new BigDecimal("70").compareTo(balance(accountId)));
+    }
+
+    // A node that has not answered the key before, as after a restart or a cache eviction
+    private AccountManagementService newNode() {
+        IdempotencyStore idempotencyStore = new IdempotencyStore(idempotencyKeyRepository, accountShards, Duration.ofHours(1), 100);
+        return new AccountManagementService(accountRepository, transactionRepository, postingEngine, eventPublisher,
+                transactionMetrics, idempotencyStore, journaledPostingEngine, accountShards, transactionOutbox,
+                new BalanceBuckets(balanceBucketRepository), new BigDecimal("10000"), 200);
+    }
+
+    private Long createAccount() {
+        AccountCreateRequest request = new AccountCreateRequest();
+        request.setAccountHolderName("Journal Test");
+        request.setInitialBalance(new BigDecimal("100"));
+        return accountManagementService.createAccount(request).getAccountId();
+    }
+
+    private TransactionResponse post(AccountManagementService service, Long accountId, String idempotencyKey) {
+        TransactionRequest request = new TransactionRequest();
+        request.setType("out");
+        request.setAmount(new BigDecimal("30"));
+        return service.processTransaction(accountId, request, idempotencyKey);
+    }
+
+    private long postings(Long accountId) {
+        return transactionRepository.findByAccountId(accountId, Pageable.unpaged()).getTotalElements();
+    }
+
+    private BigDecimal balance(Long accountId) {
+        return accountRepository.findById(accountId).orElseThrow().getCurrentBalance().toBigDecimal();
+    }
+}
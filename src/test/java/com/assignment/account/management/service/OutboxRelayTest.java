@@ -0,0 +1,228 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.AccountCreateRequest;
+import com.assignment.account.management.dto.TransactionRequest;
+import com.assignment.account.management.entity.OutboxEvent;
+import com.assignment.account.management.exception.InsufficientFundsException;
+import com.assignment.account.management.repository.AccountRepository;
+import com.assignment.account.management.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Posts through the service and checks the outbox events reach the file sink and the event
+ * stream in order, including an event that commits late and a stream resumed from a cursor.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "transaction.outbox.relay.enabled=true",
+        "transaction.outbox.relay.interval=PT1H",
+        "transaction.outbox.sink.file.enabled=true",
+        "transaction.outbox.sink.file.path=" + OutboxRelayTest.FILE})
+@ActiveProfiles("test")
+class OutboxRelayTest {
+
+    static final String FILE = "target/outbox-relay-test/events.ndjson";
+
+    static {
+        // Left by an earlier run, whose account ids this run's fresh database hands out again
+        try {
+            Files.deleteIfExists(Path.of(FILE));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AccountManagementService accountManagementService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionOutbox transactionOutbox;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void committedChangesAreRelayedToTheFileSinkInOrder() throws IOException {
+        Long accountId = createAccount();
+        post(accountId, "in", "50");
+        assertThrows(InsufficientFundsException.class, () -> post(accountId, "out", "500"));
+        accountManagementService.suspendAccount(accountId);
+
+        outboxRelay.relay();
+
+        List<JsonNode> events = fileEvents(accountId);
+        // The rejected debit rolled back with its event
+        assertEquals(List.of(TransactionOutbox.ACCOUNT_CREATED, TransactionOutbox.TRANSACTION_POSTED,
+                TransactionOutbox.ACCOUNT_SUSPENDED), events.stream().map(event -> event.get("eventType").asText()).toList());
+        assertEquals(0, new BigDecimal("150").compareTo(events.get(1).get("payload").get("balanceAfterTransaction").decimalValue()));
+        assertEquals("SUSPENDED", events.get(2).get("payload").get("status").asText());
+        assertEquals(events.stream().map(event -> event.get("eventId").asLong()).sorted().toList(),
+                events.stream().map(event -> event.get("eventId").asLong()).toList());
+    }
+
+    @Test
+    void eventCommittedAfterALaterOneWasRelayedIsStillRelayed() throws Exception {
+        Long accountId = createAccount();
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        // Takes its event id first and commits last
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            transactionOutbox.accountSuspended(accountRepository.findById(accountId).orElseThrow());
+            outboxEventRepository.flush();
+            written.countDown();
+            await(commit);
+        }));
+        assertTrue(written.await(10, TimeUnit.SECONDS));
+        post(accountId, "in", "10");
+        outboxRelay.relay();
+
+        commit.countDown();
+        slow.get(10, TimeUnit.SECONDS);
+        outboxRelay.relay();
+
+        List<JsonNode> events = fileEvents(accountId);
+        assertEquals(List.of(TransactionOutbox.ACCOUNT_CREATED, TransactionOutbox.TRANSACTION_POSTED,
+                TransactionOutbox.ACCOUNT_SUSPENDED), events.stream().map(event -> event.get("eventType").asText()).toList());
+        assertTrue(events.get(2).get("eventId").asLong() < events.get(1).get("eventId").asLong());
+    }
+
+    @Test
+    void streamReplaysFromTheCursorThenGoesLive() throws Exception {
+        Long accountId = createAccount();
+        post(accountId, "in", "10");
+        outboxRelay.relay();
+        List<OutboxEvent> stored = outboxEventRepository.findAll().stream()
+                .filter(event -> event.getAccountId().equals(accountId)).toList();
+        String cursor = String.valueOf(stored.get(0).getRelaySequence() - 1);
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/accounts/events"))
+                .header("Last-Event-ID", cursor)
+                .build();
+        HttpResponse<Stream<String>> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, response.statusCode());
+        Iterator<String> lines = response.body().iterator();
+
+        List<String[]> replayed = readEvents(lines, accountId, 2);
+        assertEquals(TransactionOutbox.ACCOUNT_CREATED, replayed.get(0)[1]);
+        assertEquals(TransactionOutbox.TRANSACTION_POSTED, replayed.get(1)[1]);
+
+        post(accountId, "out", "5");
+        outboxRelay.relay();
+        List<String[]> live = readEvents(lines, accountId, 1);
+        assertEquals(TransactionOutbox.TRANSACTION_POSTED, live.get(0)[1]);
+        Long lastRelaySequence = outboxEventRepository.findAll().stream()
+                .filter(event -> event.getAccountId().equals(accountId))
+                .map(OutboxEvent::getRelaySequence).max(Long::compare).orElseThrow();
+        assertEquals(String.valueOf(lastRelaySequence), live.get(0)[0]);
+        response.body().close();
+    }
+
+    // Reads server-sent events until count of them belong to the account, as {id, event name}; one shard, so the id is the relay sequence
+    private List<String[]> readEvents(Iterator<String> lines, Long accountId, int count) throws Exception {
+        return CompletableFuture.supplyAsync(() -> {
+            List<String[]> events = new ArrayList<>();
+            String id = null;
+            String name = null;
+            while (events.size() < count && lines.hasNext()) {
+                String line = lines.next();
+                if (line.startsWith("id:")) {
+                    id = line.substring(3);
+                } else if (line.startsWith("event:")) {
+                    name = line.substring(6);
+                } else if (line.startsWith("data:") && ownedBy(Long.parseLong(id), accountId)) {
+                    events.add(new String[] {id, name});
+                }
+            }
+            return events;
+        }).get(10, TimeUnit.SECONDS);
+    }
+
+    private boolean ownedBy(Long relaySequence, Long accountId) {
+        return outboxEventRepository.findAll().stream()
+                .anyMatch(event -> relaySequence.equals(event.getRelaySequence()) && event.getAccountId().equals(accountId));
+    }
+
+    private List<JsonNode> fileEvents(Long accountId) throws IOException {
+        List<JsonNode> events = new ArrayList<>();
+        for (String line : Files.readAllLines(Path.of(FILE))) {
+            JsonNode event = objectMapper.readTree(line);
+            if (event.get("accountId").asLong() == accountId) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Long createAccount() {
+        AccountCreateRequest request = new AccountCreateRequest();
+        request.setAccountHolderName("Outbox Test");
+        request.setInitialBalance(new BigDecimal("100"));
+        return accountManagementService.createAccount(request).getAccountId();
+    }
+
+    private void post(Long accountId, String type, String amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setType(type);
+        request.setAmount(new BigDecimal(amount));
+        accountManagementService.processTransaction(accountId, request);
+    }
+}
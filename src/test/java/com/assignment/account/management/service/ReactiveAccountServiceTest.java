@@ -0,0 +1,231 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.AccountCreateRequest;
+import com.assignment.account.management.dto.TransactionDetails;
+import com.assignment.account.management.dto.TransactionRequest;
+import com.assignment.account.management.dto.TransactionResponse;
+import com.assignment.account.management.entity.IdempotencyKey;
+import com.assignment.account.management.repository.IdempotencyKeyRepository;
+import com.assignment.account.management.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the reactive stack over HTTP against an in-memory database that the blocking service
+ * shares, checking it keeps the API contract and the posting rules.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive?options=MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000"})
+@ActiveProfiles({"test", "reactive"})
+class ReactiveAccountServiceTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private AccountManagementService accountManagementService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Test
+    void postingsFollowTheSameRulesAsTheServletStack() {
+        Long accountId = createAccount("100");
+
+        assertEquals(0, new BigDecimal("150").compareTo(post(accountId, "in", "50", null).getNewBalance()));
+        post(accountId, "out", "500", null, HttpStatus.CONFLICT);
+        webTestClient.post().uri("/api/v1/accounts/{id}/transactions", accountId)
+                .bodyValue(Map.of("type", "in", "amount", -5)).exchange()
+                .expectStatus().isBadRequest();
+
+        assertEquals(0, new BigDecimal("150").compareTo(balance(accountId)));
+        webTestClient.get().uri("/api/v1/accounts/{id}", Long.MAX_VALUE).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void transactionIdsDoNotCollideWithTheBlockingService() {
+        Long accountId = createAccount("1000");
+        for (int i = 0; i < 60; i++) {
+            post(accountId, "in", "1", null);
+            TransactionRequest request = new TransactionRequest();
+            request.setType("in");
+            request.setAmount(BigDecimal.ONE);
+            accountManagementService.processTransaction(accountId, request);
+        }
+
+        Set<Long> transactionIds = new HashSet<>();
+        transactionRepository.findByAccountId(accountId, Pageable.unpaged())
+                .forEach(transaction -> transactionIds.add(transaction.getTransactionId()));
+        assertEquals(120, transactionIds.size());
+        assertEquals(0, new BigDecimal("1120").compareTo(balance(accountId)));
+    }
+
+    @Test
+    void balanceBucketsAreFoldedIntoReactivePostings() {
+        Long accountId = createAccount("100");
+        accountManagementService.setBalanceBuckets(accountId, 4);
+        TransactionRequest request = new TransactionRequest();
+        request.setType("in");
+        request.setAmount(new BigDecimal("50"));
+        accountManagementService.processTransaction(accountId, request);
+
+        assertEquals(0, new BigDecimal("150").compareTo(balance(accountId)));
+        assertEquals(0, new BigDecimal("10").compareTo(post(accountId, "out", "140", null).getNewBalance()));
+        assertEquals(0, new BigDecimal("10").compareTo(balance(accountId)));
+    }
+
+    @Test
+    void retriedPostingWithTheSameKeyIsReplayed() {
+        Long accountId = createAccount("100");
+        TransactionResponse first = post(accountId, "out", "30", "reactive-key-1");
+        TransactionResponse replayed = post(accountId, "out", "30", "reactive-key-1");
+
+        assertEquals(first.getNewBalance(), replayed.getNewBalance());
+        assertEquals(first.getTimestamp(), replayed.getTimestamp());
+        post(accountId, "out", "31", "reactive-key-1", HttpStatus.UNPROCESSABLE_ENTITY);
+        assertEquals(1, history(accountId, "/api/v1/accounts/{id}/transactions").get("totalTransactions").asLong());
+    }
+
+    @Test
+    void expiredKeyIsReleasedAndPostsAgain() {
+        Long accountId = createAccount("100");
+        post(accountId, "out", "30", "reactive-key-2");
+        IdempotencyKey stored = idempotencyKeyRepository.findById("reactive-key-2").orElseThrow();
+        stored.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        idempotencyKeyRepository.save(stored);
+
+        post(accountId, "out", "30", "reactive-key-2");
+        assertEquals(0, new BigDecimal("40").compareTo(balance(accountId)));
+        assertTrue(idempotencyKeyRepository.findById("reactive-key-2").orElseThrow().getExpiresAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void concurrentPostingsToOneAccountAreExact() {
+        Long accountId = createAccount("0");
+        List<HttpStatus> statuses = Flux.range(0, 20)
+                .flatMap(i -> webTestClient.post().uri("/api/v1/accounts/{id}/transactions", accountId)
+                        .bodyValue(Map.of("type", "in", "amount", 1)).exchange()
+                        .returnResult(TransactionResponse.class).getRawStatusCode() == 201
+                        ? Flux.just(HttpStatus.CREATED) : Flux.just(HttpStatus.CONFLICT), 20)
+                .collectList().block(Duration.ofSeconds(30));
+
+        long posted = statuses.stream().filter(HttpStatus.CREATED::equals).count();
+        assertTrue(posted > 0);
+        assertEquals(posted, history(accountId, "/api/v1/accounts/{id}/transactions").get("totalTransactions").asLong());
+        assertEquals(0, BigDecimal.valueOf(posted).compareTo(balance(accountId)));
+    }
+
+    @Test
+    void historyPagesAndExportMatchTheServletStack() {
+        Long accountId = createAccount("100");
+        for (int i = 1; i <= 5; i++) {
+            post(accountId, i % 2 == 0 ? "out" : "in", String.valueOf(i), null);
+        }
+
+        JsonNode page = history(accountId, "/api/v1/accounts/{id}/transactions?size=2&page=1");
+        assertEquals(5, page.get("totalTransactions").asLong());
+        assertEquals(3, page.get("totalPages").asInt());
+        assertEquals(accountManagementService.getTransactionHistory(accountId, null, null, null, 1, 2).getTransactions().stream()
+                .map(TransactionDetails::getTransactionId).toList(), transactionIds(page.get("transactions")));
+
+        JsonNode outs = history(accountId, "/api/v1/accounts/{id}/transactions?transactionType=out");
+        assertEquals(2, outs.get("totalTransactions").asLong());
+
+        JsonNode first = history(accountId, "/api/v1/accounts/{id}/transactions?pagination=cursor&size=3");
+        assertTrue(first.get("hasNext").asBoolean());
+        assertNotNull(first.get("nextCursor"));
+        JsonNode second = history(accountId,
+                "/api/v1/accounts/{id}/transactions?pagination=cursor&size=3&cursor=" + first.get("nextCursor").asText());
+        assertFalse(second.get("hasNext").asBoolean());
+        assertNull(second.get("nextCursor"));
+        assertEquals(2, second.get("transactions").size());
+
+        List<JsonNode> exported = webTestClient.get().uri("/api/v1/accounts/{id}/transactions/export", accountId)
+                .exchange().expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(JsonNode.class).getResponseBody().collectList().block(Duration.ofSeconds(10));
+        assertEquals(5, exported.size());
+        List<Long> exportedIds = exported.stream().map(transaction -> transaction.get("transactionId").asLong()).toList();
+        assertEquals(exportedIds.stream().sorted().toList(), exportedIds);
+
+        String csv = webTestClient.get().uri("/api/v1/accounts/{id}/transactions/export?format=csv", accountId)
+                .exchange().expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+        assertEquals(6, csv.lines().count());
+        webTestClient.get().uri("/api/v1/accounts/{id}/transactions/export", Long.MAX_VALUE)
+                .exchange().expectStatus().isNotFound();
+    }
+
+    private Long createAccount(String initialBalance) {
+        AccountCreateRequest request = new AccountCreateRequest();
+        request.setAccountHolderName("Reactive Test");
+        request.setInitialBalance(new BigDecimal(initialBalance));
+        return webTestClient.post().uri("/api/v1/accounts").bodyValue(request).exchange()
+                .expectStatus().isCreated()
+                .expectBody(JsonNode.class).returnResult().getResponseBody().get("accountId").asLong();
+    }
+
+    private TransactionResponse post(Long accountId, String type, String amount, String idempotencyKey) {
+        return post(accountId, type, amount, idempotencyKey, HttpStatus.CREATED);
+    }
+
+    private TransactionResponse post(Long accountId, String type, String amount, String idempotencyKey, HttpStatus expected) {
+        TransactionRequest request = new TransactionRequest();
+        request.setType(type);
+        request.setAmount(new BigDecimal(amount));
+        return webTestClient.post().uri("/api/v1/accounts/{id}/transactions", accountId)
+                .headers(headers -> {
+                    if (idempotencyKey != null) {
+                        headers.set("Idempotency-Key", idempotencyKey);
+                    }
+                })
+                .bodyValue(request).exchange()
+                .expectStatus().isEqualTo(expected)
+                .expectBody(TransactionResponse.class).returnResult().getResponseBody();
+    }
+
+    private JsonNode history(Long accountId, String uri) {
+        return webTestClient.get().uri(uri, accountId).exchange()
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class).returnResult().getResponseBody();
+    }
+
+    private BigDecimal balance(Long accountId) {
+        return webTestClient.get().uri("/api/v1/accounts/{id}", accountId).exchange()
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class).returnResult().getResponseBody().get("balance").decimalValue();
+    }
+
+    private static List<Long> transactionIds(JsonNode transactions) {
+        List<Long> ids = new ArrayList<>();
+        transactions.forEach(transaction -> ids.add(transaction.get("transactionId").asLong()));
+        return ids;
+    }
+}
@@ -0,0 +1,128 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.config.ReplicaHeartbeat;
+import com.assignment.account.management.dto.AccountCreateRequest;
+import com.assignment.account.management.dto.TransactionRequest;
+import com.assignment.account.management.exception.AccountNotFoundException;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the service over a primary and a replica database that do not replicate, so rows written
+ * straight into the replica show which side a read was served from.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaRoutingTest.PRIMARY,
+        "datasource.replica.enabled=true",
+        "datasource.replica.urls=" + ReplicaRoutingTest.REPLICA,
+        "datasource.replica.max.lag=PT1M",
+        "datasource.replica.read.your.writes=PT1H",
+        "datasource.replica.heartbeat.interval=PT1H"})
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    static final String PRIMARY = "jdbc:h2:mem:primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+
+    static final String REPLICA = "jdbc:h2:mem:replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+
+    // Ids no account on the primary will reach
+    private static final AtomicLong REPLICA_ONLY_IDS = new AtomicLong(1_000_000);
+
+    private static final JdbcTemplate REPLICA_JDBC = new JdbcTemplate(new DriverManagerDataSource(REPLICA, "sa", ""));
+
+    static {
+        // Stands in for the schema the replica would get from its primary
+        Flyway.configure().dataSource(REPLICA, "sa", "").load().migrate();
+    }
+
+    @Autowired
+    private AccountManagementService accountManagementService;
+
+    @Autowired
+    private ReplicaHeartbeat replicaHeartbeat;
+
+    @Test
+    void historyIsReadFromAFreshReplica() {
+        Long accountId = replicaOnlyAccount(3);
+        heartbeatSeenAt(LocalDateTime.now());
+
+        assertEquals(3, history(accountId));
+    }
+
+    @Test
+    void historyFallsBackToThePrimaryWhenTheReplicaLags() {
+        Long accountId = replicaOnlyAccount(3);
+        heartbeatSeenAt(LocalDateTime.now().minusMinutes(5));
+
+        assertEquals(0, history(accountId));
+    }
+
+    @Test
+    void accountWrittenOnThisNodeIsReadFromThePrimary() {
+        Long accountId = createAccount();
+        post(accountId);
+        copyToReplica(accountId, 3);
+        heartbeatSeenAt(LocalDateTime.now());
+
+        assertEquals(1, history(accountId));
+    }
+
+    @Test
+    void writesAlwaysGoToThePrimary() {
+        Long accountId = replicaOnlyAccount(0);
+        heartbeatSeenAt(LocalDateTime.now());
+
+        assertThrows(AccountNotFoundException.class, () -> post(accountId));
+    }
+
+    private void heartbeatSeenAt(LocalDateTime seen) {
+        REPLICA_JDBC.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", seen);
+        replicaHeartbeat.beat();
+    }
+
+    private Long replicaOnlyAccount(int transactions) {
+        Long accountId = REPLICA_ONLY_IDS.incrementAndGet();
+        copyToReplica(accountId, transactions);
+        return accountId;
+    }
+
+    private void copyToReplica(Long accountId, int transactions) {
+        REPLICA_JDBC.update("INSERT INTO account (account_id, created_date, initial_balance, current_balance, status, "
+                + "account_holder_name, version) VALUES (?, CURRENT_TIMESTAMP(6), 100, 100, 'ACTIVE', 'Replica Test', 0)", accountId);
+        for (int i = 0; i < transactions; i++) {
+            REPLICA_JDBC.update("INSERT INTO transaction (transaction_id, account_id, amount, type, timestamp, "
+                    + "balance_after_transaction, flagged_for_review) VALUES (?, ?, 1, 'in', CURRENT_TIMESTAMP(6), 101, FALSE)",
+                    accountId * 10 + i, accountId);
+        }
+    }
+
+    private long history(Long accountId) {
+        return accountManagementService.getTransactionHistory(accountId, null, null, null, 0, 10).getTotalTransactions();
+    }
+
+    private Long createAccount() {
+        AccountCreateRequest request = new AccountCreateRequest();
+        request.setAccountHolderName("Replica Test");
+        request.setInitialBalance(new BigDecimal("100"));
+        return accountManagementService.createAccount(request).getAccountId();
+    }
+
+    private void post(Long accountId) {
+        TransactionRequest request = new TransactionRequest();
+        request.setType("in");
+        request.setAmount(new BigDecimal("10"));
+        accountManagementService.processTransaction(accountId, request);
+    }
+}
@@ -0,0 +1,169 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.AccountCreateRequest;
+import com.assignment.account.management.dto.BatchTransactionItem;
+import com.assignment.account.management.dto.BatchTransactionRequest;
+import com.assignment.account.management.dto.BatchTransactionResponse;
+import com.assignment.account.management.dto.TransactionRequest;
+import com.assignment.account.management.exception.AccountNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the service over three in-memory databases and checks each account, with everything
+ * posted to it, lives only on the shard its id belongs to.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ShardedAccountsTest.SHARD_0,
+        "account.sharding.enabled=true",
+        "account.sharding.urls=" + ShardedAccountsTest.SHARD_1 + "," + ShardedAccountsTest.SHARD_2,
+        "account.sharding.range.size=" + ShardedAccountsTest.RANGE_SIZE})
+@ActiveProfiles("test")
+class ShardedAccountsTest {
+
+    static final String SHARD_0 = "jdbc:h2:mem:shard0;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+
+    static final String SHARD_1 = "jdbc:h2:mem:shard1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+
+    static final String SHARD_2 = "jdbc:h2:mem:shard2;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+
+    static final long RANGE_SIZE = 1_000_000;
+
+    private static final List<String> SHARDS = List.of(SHARD_0, SHARD_1, SHARD_2);
+
+    @Autowired
+    private AccountManagementService accountManagementService;
+
+    @Autowired
+    private BalanceSnapshotService balanceSnapshotService;
+
+    @Autowired
+    private AccountShards accountShards;
+
+    @Test
+    void accountsAndTheirTransactionsStayOnTheirShard() {
+        List<Long> accountIds = createAccounts(6);
+        assertEquals(Set.of(0, 1, 2), accountIds.stream().map(accountShards::shardOf).collect(Collectors.toSet()));
+        for (Long accountId : accountIds) {
+            post(accountId, "in", "50");
+            post(accountId, "out", "20");
+        }
+
+        List<Long> transactionIds = new ArrayList<>();
+        for (int shard = 0; shard < SHARDS.size(); shard++) {
+            JdbcTemplate jdbcTemplate = jdbcTemplate(shard);
+            long rangeStart = shard * RANGE_SIZE;
+            Set<Long> owned = accountIds.stream().filter(id -> id >= rangeStart && id < rangeStart + RANGE_SIZE)
+                    .collect(Collectors.toSet());
+            assertEquals(2, owned.size());
+
+            Set<Long> stored = Set.copyOf(jdbcTemplate.queryForList(
+                    "SELECT account_id FROM account WHERE account_id IN (" + join(accountIds) + ")", Long.class));
+            assertEquals(owned, stored);
+            Set<Long> posted = Set.copyOf(jdbcTemplate.queryForList(
+                    "SELECT DISTINCT account_id FROM transaction WHERE account_id IN (" + join(accountIds) + ")", Long.class));
+            assertEquals(owned, posted);
+            transactionIds.addAll(jdbcTemplate.queryForList(
+                    "SELECT transaction_id FROM transaction WHERE account_id IN (" + join(owned) + ")", Long.class));
+        }
+        // id blocks come from disjoint per-shard ranges, so transaction ids are unique across shards
+        assertEquals(transactionIds.size(), Set.copyOf(transactionIds).size());
+
+        for (Long accountId : accountIds) {
+            assertEquals(0, new BigDecimal("130").compareTo(accountManagementService.getAccountDetails(accountId).getBalance()));
+            assertEquals(2, accountManagementService.getTransactionHistory(accountId, null, null, null, 0, 10).getTotalTransactions());
+        }
+    }
+
+    @Test
+    void batchSpanningShardsAppliesEveryItem() {
+        List<Long> accountIds = createAccounts(3);
+        List<BatchTransactionItem> items = new ArrayList<>();
+        for (Long accountId : accountIds) {
+            items.add(batchItem(accountId, "out", "30"));
+            items.add(batchItem(accountId, "out", "80"));
+        }
+        BatchTransactionRequest batch = new BatchTransactionRequest();
+        batch.setTransactions(items);
+
+        BatchTransactionResponse response = accountManagementService.processTransactions(batch);
+
+        assertEquals(3, response.getProcessed());
+        assertEquals(3, response.getFailed());
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(i % 2 == 0 ? "PROCESSED" : "FAILED", response.getResults().get(i).getStatus());
+        }
+        for (Long accountId : accountIds) {
+            assertEquals(0, new BigDecimal("70").compareTo(accountManagementService.getAccountDetails(accountId).getBalance()));
+        }
+    }
+
+    @Test
+    void snapshotsFanOutToEveryShard() {
+        List<Long> accountIds = createAccounts(3);
+        accountIds.forEach(accountId -> post(accountId, "in", "5"));
+
+        LocalDateTime cutoff = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        assertTrue(balanceSnapshotService.takeSnapshots(cutoff) >= 3);
+        for (Long accountId : accountIds) {
+            assertEquals(cutoff, balanceSnapshotService.getBalanceAsOf(accountId, cutoff).getSnapshotAt());
+            assertEquals(0, new BigDecimal("105").compareTo(balanceSnapshotService.getBalanceAsOf(accountId, cutoff).getBalance()));
+        }
+    }
+
+    @Test
+    void idOnAShardWithoutItIsNotFound() {
+        assertThrows(AccountNotFoundException.class, () -> accountManagementService.getAccountDetails(2 * RANGE_SIZE - 1));
+    }
+
+    private List<Long> createAccounts(int count) {
+        List<Long> accountIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            AccountCreateRequest request = new AccountCreateRequest();
+            request.setAccountHolderName("Shard Test");
+            request.setInitialBalance(new BigDecimal("100"));
+            accountIds.add(accountManagementService.createAccount(request).getAccountId());
+        }
+        return accountIds;
+    }
+
+    private void post(Long accountId, String type, String amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setType(type);
+        request.setAmount(new BigDecimal(amount));
+        accountManagementService.processTransaction(accountId, request);
+    }
+
+    private BatchTransactionItem batchItem(Long accountId, String type, String amount) {
+        BatchTransactionItem item = new BatchTransactionItem();
+        item.setAccountId(accountId);
+        item.setType(type);
+        item.setAmount(new BigDecimal(amount));
+        return item;
+    }
+
+    private static JdbcTemplate jdbcTemplate(int shard) {
+        return new JdbcTemplate(new DriverManagerDataSource(SHARDS.get(shard), "sa", ""));
+    }
+
+    private static String join(Collection<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,81 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.AccountCreateRequest;
+import com.assignment.account.management.dto.ExportFormat;
+import com.assignment.account.management.dto.TransactionRequest;
+import com.assignment.account.management.exception.AccountNotFoundException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TransactionExportServiceTest {
+
+    @Autowired
+    private AccountManagementService accountManagementService;
+
+    @Autowired
+    private TransactionExportService transactionExportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long accountId;
+
+    @BeforeEach
+    void setUp() {
+        AccountCreateRequest request = new AccountCreateRequest();
+        request.setAccountHolderName("Export Test");
+        request.setInitialBalance(new BigDecimal("100"));
+        accountId = accountManagementService.createAccount(request).getAccountId();
+        for (int i = 1; i <= 5; i++) {
+            TransactionRequest transaction = new TransactionRequest();
+            transaction.setType(i % 2 == 0 ? "out" : "in");
+            transaction.setAmount(BigDecimal.valueOf(i));
+            accountManagementService.processTransaction(accountId, transaction);
+        }
+    }
+
+    @Test
+    void ndjsonExportWritesOneObjectPerLineOldestFirst() throws Exception {
+        List<String> lines = export(null, ExportFormat.NDJSON);
+
+        assertEquals(5, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals(0, BigDecimal.ONE.compareTo(first.get("amount").decimalValue()));
+        assertEquals("in", first.get("type").asText());
+    }
+
+    @Test
+    void csvExportAppliesTypeFilter() throws Exception {
+        List<String> lines = export("out", ExportFormat.CSV);
+
+        assertEquals(3, lines.size());
+        assertEquals("transactionId,amount,type,timestamp,balanceAfterTransaction,flaggedForReview", lines.get(0));
+        assertEquals("out", lines.get(1).split(",")[2]);
+    }
+
+    @Test
+    void unknownAccountIsRejectedBeforeStreaming() {
+        assertThrows(AccountNotFoundException.class, () -> transactionExportService.verifyAccountExists(-1L));
+    }
+
+    private List<String> export(String type, ExportFormat format) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        transactionExportService.exportTransactions(accountId, type, null, null, format, outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+}
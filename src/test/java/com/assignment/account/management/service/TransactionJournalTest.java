@@ -0,0 +1,128 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.entity.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionJournalTest {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void entriesPastTheCheckpointAreReplayedOnReopen() throws IOException {
+        try (TransactionJournal journal = new TransactionJournal(directory, SEGMENT_SIZE, 0)) {
+            for (int i = 1; i <= 3; i++) {
+                journal.append(entry(i));
+            }
+            journal.sync(journal.lastSequence());
+        }
+
+        try (TransactionJournal journal = new TransactionJournal(directory, SEGMENT_SIZE, 1)) {
+            List<JournalEntry> pending = journal.pending(10);
+            assertEquals(List.of(2L, 3L), pending.stream().map(JournalEntry::sequence).toList());
+            assertEquals(entry(2).withSequence(2), pending.get(0));
+            assertEquals(4, journal.append(entry(4)).sequence());
+        }
+    }
+
+    @Test
+    void tornRecordAtTheTailIsDiscarded() throws IOException {
+        try (TransactionJournal journal = new TransactionJournal(directory, SEGMENT_SIZE, 0)) {
+            for (int i = 1; i <= 3; i++) {
+                journal.append(entry(i));
+            }
+            journal.sync(journal.lastSequence());
+        }
+        corruptRecord(onlySegment(), 2);
+
+        try (TransactionJournal journal = new TransactionJournal(directory, SEGMENT_SIZE, 0)) {
+            assertEquals(2, journal.pending(10).size());
+            assertEquals(3, journal.append(entry(5)).sequence());
+            journal.sync(journal.lastSequence());
+        }
+        try (TransactionJournal journal = new TransactionJournal(directory, SEGMENT_SIZE, 0)) {
+            List<JournalEntry> pending = journal.pending(10);
+            assertEquals(3, pending.size());
+            assertEquals(entry(5).withSequence(3), pending.get(2));
+        }
+    }
+
+    @Test
+    void onlyDurableEntriesAreHandedToTheFlusher() throws IOException {
+        try (TransactionJournal journal = new TransactionJournal(directory, SEGMENT_SIZE, 0)) {
+            journal.append(entry(1));
+            assertTrue(journal.pending(10).isEmpty());
+            journal.sync(1);
+            assertEquals(1, journal.pending(10).size());
+            journal.flushed(1);
+            assertTrue(journal.pending(10).isEmpty());
+        }
+    }
+
+    @Test
+    void segmentsRollAndAreDeletedOnceFlushed() throws IOException {
+        try (TransactionJournal journal = new TransactionJournal(directory, 512, 0)) {
+            for (int i = 1; i <= 20; i++) {
+                journal.append(entry(i));
+            }
+            journal.sync(journal.lastSequence());
+            assertTrue(segmentCount() > 1);
+
+            journal.flushed(journal.lastSequence());
+            assertEquals(1, segmentCount());
+        }
+        try (TransactionJournal journal = new TransactionJournal(directory, 512, 20)) {
+            assertTrue(journal.pending(10).isEmpty());
+            assertEquals(21, journal.append(entry(21)).sequence());
+        }
+    }
+
+    private JournalEntry entry(int i) {
+        return new JournalEntry(0, (long) i, i % 2 == 0 ? "in" : "out", Money.of(new BigDecimal(i + ".25")),
+                LocalDateTime.of(2024, 1, 1, 12, 0).plusSeconds(i), Money.of(new BigDecimal("1000.50")), i % 3 == 0,
+                i % 2 == 0 ? null : LocalDate.of(2024, 1, 1), i % 2 == 0 ? null : Money.of(new BigDecimal(i)),
+                i % 4 == 0 ? "key-" + i : null);
+    }
+
+    private void corruptRecord(Path segment, int recordIndex) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int position = 0;
+            for (int i = 0; i < recordIndex; i++) {
+                position += 8 + buffer.getInt(position);
+            }
+            // flip a payload byte, as a write cut short by a crash would leave it
+            buffer.put(position + 12, (byte) ~buffer.get(position + 12));
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.findFirst().orElseThrow();
+        }
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
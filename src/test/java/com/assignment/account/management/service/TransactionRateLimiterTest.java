@@ -0,0 +1,101 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransactionRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicLong clock = new AtomicLong(123_456_789L);
+
+    @Test
+    void accountGetsItsBurstThenItsRate() {
+        TransactionRateLimiter limiter = limiter(10, 5, 0);
+        for (int i = 0; i < 5; i++) {
+            admit(limiter, 1L);
+        }
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquire(1L));
+        // Other accounts keep their own budget
+        admit(limiter, 2L);
+
+        clock.addAndGet(100_000_000L); // one token at 10 per second
+        admit(limiter, 1L);
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquire(1L));
+
+        clock.addAndGet(10_000_000_000L); // refills to the burst, no further
+        for (int i = 0; i < 5; i++) {
+            admit(limiter, 1L);
+        }
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquire(1L));
+        assertEquals(3, rejected("rate_limited"));
+    }
+
+    @Test
+    void concurrentPostingsToOneAccountNeverExceedTheBurst() throws Exception {
+        TransactionRateLimiter limiter = limiter(1, 1_000, 0);
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Void>> workers = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                workers.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 1_000; i++) {
+                        try {
+                            limiter.acquire(42L);
+                            admitted.incrementAndGet();
+                            limiter.release();
+                        } catch (TooManyRequestsException ex) {
+                            // counted by the limiter
+                        }
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).get();
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1_000, admitted.get());
+        assertEquals(7_000, rejected("rate_limited"));
+    }
+
+    @Test
+    void postingsBeyondTheConcurrencyLimitAreShedUntilOneFinishes() {
+        TransactionRateLimiter limiter = limiter(0, 0, 2);
+        limiter.acquire(1L);
+        limiter.acquire(2L);
+        assertEquals(2, meterRegistry.get("account.transactions.in.flight").gauge().value());
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquire(3L));
+
+        limiter.release();
+        assertDoesNotThrow(() -> limiter.acquire(3L));
+        assertEquals(1, rejected("overloaded"));
+    }
+
+    private TransactionRateLimiter limiter(double perSecond, int burst, int concurrencyLimit) {
+        return new TransactionRateLimiter(new TransactionMetrics(meterRegistry), meterRegistry,
+                perSecond, burst, 1 << 10, concurrencyLimit, clock::get);
+    }
+
+    private static void admit(TransactionRateLimiter limiter, Long accountId) {
+        limiter.acquire(accountId);
+        limiter.release();
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("account.transactions.rejected").tag("reason", reason).counter().count();
+    }
+}
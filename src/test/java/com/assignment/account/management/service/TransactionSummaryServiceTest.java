@@ -0,0 +1,175 @@
+package com.assignment.account.management.service;
+
+import com.assignment.account.management.dto.AccountCreateRequest;
+import com.assignment.account.management.dto.SummaryGranularity;
+import com.assignment.account.management.dto.TransactionRequest;
+import com.assignment.account.management.dto.TransactionSummary;
+import com.assignment.account.management.entity.OutboxEvent;
+import com.assignment.account.management.exception.AccountNotFoundException;
+import com.assignment.account.management.exception.InvalidSummaryRequestException;
+import com.assignment.account.management.repository.OutboxEventRepository;
+import com.assignment.account.management.repository.TransactionDailySummaryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Posts through the service, relays the outbox and checks the daily summaries against the
+ * postings, including events delivered twice and rebuilds with postings still waiting in the outbox
+ * or being applied.
+ */
+@SpringBootTest(properties = {
+        "transaction.outbox.relay.enabled=true",
+        "transaction.outbox.relay.interval=PT1H",
+        "transaction.daily.withdrawal.limit=100"})
+@ActiveProfiles("test")
+class TransactionSummaryServiceTest {
+
+    @Autowired
+    private AccountManagementService accountManagementService;
+
+    @Autowired
+    private TransactionSummaryService transactionSummaryService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransactionDailySummaryRepository summaryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void summariesFollowPostingsAndSkipRedeliveredEvents() {
+        LocalDate today = LocalDate.now();
+        Long accountId = createAccount();
+        post(accountId, "in", "50");
+        post(accountId, "in", "25");
+        post(accountId, "out", "60");
+        post(accountId, "out", "70"); // over the daily limit, flagged
+
+        outboxRelay.relay();
+        assertSummary(summaryOf(accountId, today, SummaryGranularity.DAY), 2, "75", 2, "130", 1, "70");
+
+        List<OutboxEvent> events = outboxEventRepository.findAll().stream()
+                .filter(event -> event.getAccountId().equals(accountId)).toList();
+        transactionSummaryService.publish(0, events);
+        assertSummary(summaryOf(accountId, today, SummaryGranularity.DAY), 2, "75", 2, "130", 1, "70");
+
+        TransactionSummary month = summaryOf(accountId, today, SummaryGranularity.MONTH);
+        assertEquals(today.withDayOfMonth(1), month.getPeriodStart());
+        assertSummary(month, 2, "75", 2, "130", 1, "70");
+    }
+
+    @Test
+    void rebuildLeavesPostingsNotYetRelayedToTheSink() {
+        LocalDate today = LocalDate.now();
+        Long accountId = createAccount();
+        post(accountId, "in", "40");
+        post(accountId, "out", "120"); // flagged
+        outboxRelay.relay();
+        summaryRepository.deleteAll(summaryRepository.findByAccountIdAndSummaryDateBetweenOrderBySummaryDateAsc(accountId, today, today));
+
+        post(accountId, "in", "10");
+        transactionSummaryService.rebuild(today, today);
+        outboxRelay.relay();
+        assertSummary(summaryOf(accountId, today, SummaryGranularity.DAY), 2, "50", 1, "120", 1, "120");
+
+        transactionSummaryService.rebuild(today.minusDays(1), today);
+        assertSummary(summaryOf(accountId, today, SummaryGranularity.DAY), 2, "50", 1, "120", 1, "120");
+    }
+
+    @Test
+    void rebuildWaitsForABatchBeingAppliedAndCountsItOnce() throws Exception {
+        LocalDate today = LocalDate.now();
+        Long accountId = createAccount();
+        post(accountId, "in", "40");
+        outboxRelay.relay();
+        post(accountId, "in", "15");
+
+        // The relay applies the second posting and holds the checkpoint until released
+        CountDownLatch applied = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> relaying = CompletableFuture.runAsync(() -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> {
+                    outboxRelay.relay();
+                    applied.countDown();
+                    await(release);
+                }));
+        assertTrue(applied.await(10, TimeUnit.SECONDS));
+        CompletableFuture<Integer> rebuilding = CompletableFuture.supplyAsync(() -> transactionSummaryService.rebuild(today, today));
+        Thread.sleep(200);
+        release.countDown();
+
+        relaying.get(10, TimeUnit.SECONDS);
+        rebuilding.get(10, TimeUnit.SECONDS);
+        assertSummary(summaryOf(accountId, today, SummaryGranularity.DAY), 2, "55", 0, "0", 0, "0");
+    }
+
+    @Test
+    void rejectsUnknownAccountsAndReversedRanges() {
+        LocalDate today = LocalDate.now();
+        assertThrows(AccountNotFoundException.class,
+                () -> transactionSummaryService.getSummary(Long.MAX_VALUE, today, today, SummaryGranularity.DAY));
+        assertThrows(InvalidSummaryRequestException.class,
+                () -> transactionSummaryService.rebuild(today, today.minusDays(1)));
+        assertThrows(InvalidSummaryRequestException.class, () -> SummaryGranularity.fromValue("week"));
+    }
+
+    private TransactionSummary summaryOf(Long accountId, LocalDate day, SummaryGranularity granularity) {
+        List<TransactionSummary> periods = transactionSummaryService.getSummary(accountId, day, day, granularity).getPeriods();
+        assertEquals(1, periods.size());
+        return periods.get(0);
+    }
+
+    private static void assertSummary(TransactionSummary summary, long creditCount, String creditTotal,
+                                      long debitCount, String debitTotal, long flaggedCount, String flaggedTotal) {
+        assertEquals(creditCount, summary.getCreditCount());
+        assertEquals(0, new BigDecimal(creditTotal).compareTo(summary.getCreditTotal()));
+        assertEquals(debitCount, summary.getDebitCount());
+        assertEquals(0, new BigDecimal(debitTotal).compareTo(summary.getDebitTotal()));
+        assertEquals(flaggedCount, summary.getFlaggedCount());
+        assertEquals(0, new BigDecimal(flaggedTotal).compareTo(summary.getFlaggedTotal()));
+    }
+
+    private Long createAccount() {
+        AccountCreateRequest request = new AccountCreateRequest();
+        request.setAccountHolderName("Summary Test");
+        request.setInitialBalance(new BigDecimal("1000"));
+        return accountManagementService.createAccount(request).getAccountId();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private void post(Long accountId, String type, String amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setType(type);
+        request.setAmount(new BigDecimal(amount));
+        accountManagementService.processTransaction(accountId, request);
+    }
+}
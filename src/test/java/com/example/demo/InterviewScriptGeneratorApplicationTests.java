@@ -1,9 +1,12 @@
 package com.example.demo;
 
+import com.assignment.account.management.AccountTransactionManagementApplication;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
-@SpringBootTest
+@SpringBootTest(classes = AccountTransactionManagementApplication.class)
+@ActiveProfiles("test")
 class InterviewScriptGeneratorApplicationTests {
 
 	@Test